@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pf4j.ClassLoadingStrategy;
+import org.pf4j.JarPluginLoader;
+import org.pf4j.JarPluginManager;
+import org.pf4j.PluginClassLoader;
+import org.pf4j.PluginDescriptor;
+import org.pf4j.PluginLoader;
+import org.pf4j.PluginManager;
+import org.pf4j.test.PluginCorpus;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PluginClassLoader#loadClass(String)} for each {@link ClassLoadingStrategy},
+ * for a class of the plugin, of the application, of a dependency and for a missing class.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassLoadingBenchmark {
+
+    @Param({ "APD", "ADP", "PAD", "DAP", "DPA", "PDA" })
+    public String strategy;
+
+    private Path pluginsPath;
+    private PluginManager pluginManager;
+    private ClassLoader classLoader;
+    private String pluginClassName;
+    private String applicationClassName;
+    private String dependencyClassName;
+    private String missingClassName;
+
+    @Setup
+    public void setUp() throws Exception {
+        // plugin-1 depends on plugin-0
+        PluginCorpus corpus = new PluginCorpus.Builder(Files.createTempDirectory("pf4j-benchmark"))
+            .pluginCount(2)
+            .depth(2)
+            .build();
+        pluginsPath = corpus.path();
+
+        ClassLoadingStrategy classLoadingStrategy = (ClassLoadingStrategy) ClassLoadingStrategy.class.getField(strategy).get(null);
+        pluginManager = new JarPluginManager(pluginsPath) {
+
+            @Override
+            protected PluginLoader createPluginLoader() {
+                return new JarPluginLoader(this) {
+
+                    @Override
+                    protected PluginClassLoader createPluginClassLoader(Path pluginPath, PluginDescriptor pluginDescriptor) {
+                        return new PluginClassLoader(pluginManager, pluginDescriptor, getClass().getClassLoader(), classLoadingStrategy);
+                    }
+
+                };
+            }
+
+        };
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        classLoader = pluginManager.getPluginClassLoader("plugin-1");
+        pluginClassName = corpus.extensions("plugin-1").get(0);
+        applicationClassName = TestExtensionPoint.class.getName();
+        dependencyClassName = corpus.extensions("plugin-0").get(0);
+        missingClassName = "corpus.MissingClass";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pluginManager.unloadPlugins();
+        FileUtils.delete(pluginsPath);
+    }
+
+    @Benchmark
+    public Class<?> pluginClass() throws ClassNotFoundException {
+        return classLoader.loadClass(pluginClassName);
+    }
+
+    @Benchmark
+    public Class<?> applicationClass() throws ClassNotFoundException {
+        return classLoader.loadClass(applicationClassName);
+    }
+
+    @Benchmark
+    public Class<?> dependencyClass() throws ClassNotFoundException {
+        return classLoader.loadClass(dependencyClassName);
+    }
+
+    @Benchmark
+    public Class<?> missingClass() {
+        try {
+            return classLoader.loadClass(missingClassName);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pf4j.DefaultPluginDescriptor;
+import org.pf4j.DefaultVersionManager;
+import org.pf4j.DependencyResolver;
+import org.pf4j.PluginDependency;
+import org.pf4j.PluginDescriptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DependencyResolver#resolve(List)} for a plugin graph where each plugin
+ * depends on (up to) {@value #FAN_OUT} plugins with a lower index.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DependencyResolverBenchmark {
+
+    private static final int FAN_OUT = 3;
+
+    @Param({ "100", "1000", "10000" })
+    public int pluginCount;
+
+    private List<PluginDescriptor> plugins;
+    private DependencyResolver dependencyResolver;
+
+    @Setup
+    public void setUp() {
+        plugins = new ArrayList<>(pluginCount);
+        for (int i = 0; i < pluginCount; i++) {
+            DefaultPluginDescriptor plugin = new DefaultPluginDescriptor("plugin-" + i, "", null, "1.0.0", "", "", "");
+            for (int j = 1; j <= FAN_OUT && j <= i; j++) {
+                plugin.addDependency(new PluginDependency("plugin-" + (i - j) + "@>=1.0.0"));
+            }
+            plugins.add(plugin);
+        }
+
+        dependencyResolver = new DependencyResolver(new DefaultVersionManager());
+    }
+
+    @Benchmark
+    public DependencyResolver.Result resolve() {
+        return dependencyResolver.resolve(plugins);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pf4j.JarPluginManager;
+import org.pf4j.PluginManager;
+import org.pf4j.test.PluginCorpus;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PluginManager#getExtensions(Class)} for a plugin with many extensions.
+ * <ul>
+ * <li>{@code warm}: the extension index is loaded and the extension classes are defined</li>
+ * <li>{@code cold}: the first call after the plugins are started (index reading, class loading)</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExtensionsBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int extensionCount;
+
+    private Path pluginsPath;
+    private PluginManager warmPluginManager;
+    private PluginManager coldPluginManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pluginsPath = new PluginCorpus.Builder(Files.createTempDirectory("pf4j-benchmark"))
+            .pluginCount(1)
+            .extensionCount(extensionCount)
+            .build()
+            .path();
+
+        warmPluginManager = new JarPluginManager(pluginsPath);
+        warmPluginManager.loadPlugins();
+        warmPluginManager.startPlugins();
+        warmPluginManager.getExtensions(TestExtensionPoint.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpColdPluginManager() {
+        coldPluginManager = new JarPluginManager(pluginsPath);
+        coldPluginManager.loadPlugins();
+        coldPluginManager.startPlugins();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownColdPluginManager() {
+        coldPluginManager.unloadPlugins();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        warmPluginManager.unloadPlugins();
+        FileUtils.delete(pluginsPath);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<TestExtensionPoint> warm() {
+        return warmPluginManager.getExtensions(TestExtensionPoint.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public List<TestExtensionPoint> cold() {
+        return coldPluginManager.getExtensions(TestExtensionPoint.class);
+    }
+
+}
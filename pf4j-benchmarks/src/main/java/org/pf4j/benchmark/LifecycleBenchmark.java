@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pf4j.DefaultPluginManager;
+import org.pf4j.PluginManager;
+import org.pf4j.test.PluginCorpus;
+import org.pf4j.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the lifecycle of the plugins: load, start, stop and unload.
+ * Each benchmark method measures only one step, the other steps are executed in the setup/teardown.
+ * The plugins are created with {@link PluginCorpus} (dependency graph with {@value #DEPTH} layers,
+ * {@value #FAN_OUT} dependencies and {@value #EXTENSION_COUNT} extensions per plugin).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LifecycleBenchmark {
+
+    private static final int DEPTH = 4;
+    private static final int FAN_OUT = 2;
+    private static final int EXTENSION_COUNT = 10;
+
+    @Param({ "10", "100" })
+    public int pluginCount;
+
+    @Param({ "JAR", "DIRECTORY" })
+    public PluginCorpus.Format format;
+
+    private Path pluginsPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pluginsPath = new PluginCorpus.Builder(Files.createTempDirectory("pf4j-benchmark"))
+            .pluginCount(pluginCount)
+            .depth(DEPTH)
+            .fanOut(FAN_OUT)
+            .extensionCount(EXTENSION_COUNT)
+            .format(format)
+            .build()
+            .path();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.delete(pluginsPath);
+    }
+
+    @Benchmark
+    public PluginManager loadPlugins(LoadState state) {
+        state.pluginManager.loadPlugins();
+
+        return state.pluginManager;
+    }
+
+    @Benchmark
+    public PluginManager startPlugins(StartState state) {
+        state.pluginManager.startPlugins();
+
+        return state.pluginManager;
+    }
+
+    @Benchmark
+    public PluginManager stopPlugins(StopState state) {
+        state.pluginManager.stopPlugins();
+
+        return state.pluginManager;
+    }
+
+    @Benchmark
+    public PluginManager unloadPlugins(UnloadState state) {
+        state.pluginManager.unloadPlugins();
+
+        return state.pluginManager;
+    }
+
+    @State(Scope.Thread)
+    public static class LoadState {
+
+        PluginManager pluginManager;
+
+        @Setup(Level.Invocation)
+        public void setUp(LifecycleBenchmark benchmark) {
+            pluginManager = new DefaultPluginManager(benchmark.pluginsPath);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            pluginManager.unloadPlugins();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class StartState {
+
+        PluginManager pluginManager;
+
+        @Setup(Level.Invocation)
+        public void setUp(LifecycleBenchmark benchmark) {
+            pluginManager = new DefaultPluginManager(benchmark.pluginsPath);
+            pluginManager.loadPlugins();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            pluginManager.unloadPlugins();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class StopState {
+
+        PluginManager pluginManager;
+
+        @Setup(Level.Invocation)
+        public void setUp(LifecycleBenchmark benchmark) {
+            pluginManager = new DefaultPluginManager(benchmark.pluginsPath);
+            pluginManager.loadPlugins();
+            pluginManager.startPlugins();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            pluginManager.unloadPlugins();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class UnloadState {
+
+        PluginManager pluginManager;
+
+        @Setup(Level.Invocation)
+        public void setUp(LifecycleBenchmark benchmark) {
+            pluginManager = new DefaultPluginManager(benchmark.pluginsPath);
+            pluginManager.loadPlugins();
+            pluginManager.startPlugins();
+            pluginManager.stopPlugins();
+        }
+
+    }
+
+}
@@ -26,6 +26,10 @@ module org.pf4j {
     // provides javax.annotation
     requires java.compiler;
 
+    // provides the garbage collectors MXBeans, used by the (optional) class loader leak detector,
+    // use "requires static" since it's optional
+    requires static java.management;
+
     // provided by the ASM library, use "requires static" since it's optional
     requires static org.objectweb.asm;
 
@@ -41,6 +41,8 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
     protected volatile Map<String, ExtensionInfo> extensionInfos; // cache extension infos by class name
     protected Boolean checkForExtensionDependencies = null;
 
+    private volatile CacheCounters cacheCounters;
+
     protected AbstractExtensionFinder(PluginManager pluginManager) {
         this.pluginManager = pluginManager;
     }
@@ -75,8 +77,19 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> List<ExtensionWrapper<T>> find(Class<T> type, String pluginId) {
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.FIND_EXTENSIONS)
+            .setExtensionPoint(type.getName())
+            .setPluginId(pluginId);
+        try {
+            return doFind(type, pluginId);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<ExtensionWrapper<T>> doFind(Class<T> type, String pluginId) {
         log.debug("Finding extensions of extension point '{}' for plugin '{}'", type.getName(), pluginId);
         List<ExtensionWrapper<T>> result = new ArrayList<>();
 
@@ -86,8 +99,9 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
             return result;
         }
 
+        PluginWrapper pluginWrapper = null;
         if (pluginId != null) {
-            PluginWrapper pluginWrapper = pluginManager.getPlugin(pluginId);
+            pluginWrapper = pluginManager.getPlugin(pluginId);
             if (!pluginWrapper.getPluginState().isStarted()) {
                 return result;
             }
@@ -141,7 +155,7 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
 
                 log.debug("Checking extension type '{}'", className);
                 if (type.isAssignableFrom(extensionClass)) {
-                    ExtensionWrapper extensionWrapper = createExtensionWrapper(extensionClass);
+                    ExtensionWrapper extensionWrapper = createExtensionWrapper(extensionClass, pluginWrapper);
                     result.add(extensionWrapper);
                     log.debug("Added extension '{}' with ordinal {}", className, extensionWrapper.getOrdinal());
                 } else {
@@ -177,8 +191,9 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
             return result;
         }
 
+        PluginWrapper pluginWrapper = null;
         if (pluginId != null) {
-            PluginWrapper pluginWrapper = pluginManager.getPlugin(pluginId);
+            pluginWrapper = pluginManager.getPlugin(pluginId);
             if (!pluginWrapper.getPluginState().isStarted()) {
                 return result;
             }
@@ -195,7 +210,7 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
                 log.debug("Loading class '{}' using class loader '{}'", className, classLoader);
                 Class<?> extensionClass = classLoader.loadClass(className);
 
-                ExtensionWrapper extensionWrapper = createExtensionWrapper(extensionClass);
+                ExtensionWrapper extensionWrapper = createExtensionWrapper(extensionClass, pluginWrapper);
                 result.add(extensionWrapper);
                 log.debug("Added extension '{}' with ordinal {}", className, extensionWrapper.getOrdinal());
             } catch (ClassNotFoundException | NoClassDefFoundError e) {
@@ -309,11 +324,35 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
     }
 
     private Map<String, Set<String>> getEntries() {
-        if (entries == null) {
-            entries = readStorages();
+        Map<String, Set<String>> result = entries;
+        if (result == null) {
+            getCacheCounters().misses.increment();
+            result = readStorages();
+            entries = result;
+        } else {
+            getCacheCounters().hits.increment();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the extension cache counters, resolved once for the current {@link PluginMetrics}
+     * (it can be replaced after the creation of the finder).
+     */
+    private CacheCounters getCacheCounters() {
+        PluginMetrics pluginMetrics = pluginManager.getPluginMetrics();
+        if (pluginMetrics == null) {
+            pluginMetrics = PluginMetrics.NOOP;
         }
 
-        return entries;
+        CacheCounters counters = cacheCounters;
+        if ((counters == null) || (counters.pluginMetrics != pluginMetrics)) {
+            counters = new CacheCounters(pluginMetrics);
+            cacheCounters = counters;
+        }
+
+        return counters;
     }
 
     /**
@@ -344,12 +383,12 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
         return extensionInfos.get(className);
     }
 
-    private ExtensionWrapper createExtensionWrapper(Class<?> extensionClass) {
+    private ExtensionWrapper createExtensionWrapper(Class<?> extensionClass, PluginWrapper pluginWrapper) {
         Extension extensionAnnotation = findExtensionAnnotation(extensionClass);
         int ordinal = extensionAnnotation != null ? extensionAnnotation.ordinal() : 0;
         ExtensionDescriptor descriptor = new ExtensionDescriptor(ordinal, extensionClass);
 
-        return new ExtensionWrapper<>(descriptor, pluginManager.getExtensionFactory());
+        return new ExtensionWrapper<>(descriptor, pluginManager.getExtensionFactory(), pluginWrapper);
     }
 
     public static Extension findExtensionAnnotation(Class<?> clazz) {
@@ -385,4 +424,18 @@ public abstract class AbstractExtensionFinder implements ExtensionFinder, Plugin
         return match && extensionClassLoader != typeClassLoader;
     }
 
+    private static class CacheCounters {
+
+        private final PluginMetrics pluginMetrics;
+        private final PluginMetrics.Counter hits;
+        private final PluginMetrics.Counter misses;
+
+        CacheCounters(PluginMetrics pluginMetrics) {
+            this.pluginMetrics = pluginMetrics;
+            hits = pluginMetrics.counter(PluginMetrics.EXTENSION_CACHE_HITS, null);
+            misses = pluginMetrics.counter(PluginMetrics.EXTENSION_CACHE_MISSES, null);
+        }
+
+    }
+
 }
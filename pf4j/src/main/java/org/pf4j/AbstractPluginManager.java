@@ -15,6 +15,7 @@
  */
 package org.pf4j;
 
+import org.pf4j.util.FileUtils;
 import org.pf4j.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,13 +27,20 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -54,6 +62,8 @@ public abstract class AbstractPluginManager implements PluginManager {
     public static final String DEFAULT_PLUGINS_DIR = "plugins";
     public static final String DEVELOPMENT_PLUGINS_DIR = "../plugins";
 
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+
     protected final List<Path> pluginsRoots = new ArrayList<>();
 
     protected ExtensionFinder extensionFinder;
@@ -90,6 +100,25 @@ public abstract class AbstractPluginManager implements PluginManager {
      */
     protected List<PluginStateListener> pluginStateListeners;
 
+    /**
+     * The time spent in loading and starting each plugin (the key is the 'pluginId').
+     */
+    protected Map<String, PluginTimings> pluginTimings;
+
+    /**
+     * The open archives of the plugin files, shared by the descriptor finders and the loaders.
+     */
+    private final PluginArchiveRegistry pluginArchiveRegistry = new PluginArchiveRegistry();
+
+    /**
+     * Guards the changes of {@link #plugins}, {@link #pluginClassLoaders}, {@link #resolvedPlugins} and
+     * {@link #unresolvedPlugins} (load, unload, resolve and the swap of the plugins done by
+     * {@link #reloadPlugin(String, Path)}, write lock) against the concurrent lookups of the plugins
+     * and of their class loaders (read lock).
+     * The plugin state listeners are notified outside the lock.
+     */
+    private final ReadWriteLock registryLock = new ReentrantReadWriteLock();
+
     /**
      * Cache value for the runtime mode.
      * No need to re-read it because it won't change at runtime.
@@ -108,6 +137,10 @@ public abstract class AbstractPluginManager implements PluginManager {
     protected DependencyResolver dependencyResolver;
     protected PluginLoader pluginLoader;
     protected boolean exactVersionAllowed = false;
+    protected long drainTimeout = 30_000; // milliseconds
+    protected ClassListStore classListStore;
+    protected ClassLoaderLeakDetector classLoaderLeakDetector;
+    protected PluginMetrics pluginMetrics = PluginMetrics.NOOP;
 
     protected VersionManager versionManager;
     protected ResolveRecoveryStrategy resolveRecoveryStrategy;
@@ -154,7 +187,12 @@ public abstract class AbstractPluginManager implements PluginManager {
      */
     @Override
     public List<PluginWrapper> getPlugins() {
-        return new ArrayList<>(plugins.values());
+        registryLock.readLock().lock();
+        try {
+            return new ArrayList<>(plugins.values());
+        } finally {
+            registryLock.readLock().unlock();
+        }
     }
 
     /**
@@ -184,7 +222,12 @@ public abstract class AbstractPluginManager implements PluginManager {
 
     @Override
     public PluginWrapper getPlugin(String pluginId) {
-        return plugins.get(pluginId);
+        registryLock.readLock().lock();
+        try {
+            return plugins.get(pluginId);
+        } finally {
+            registryLock.readLock().unlock();
+        }
     }
 
     /**
@@ -287,6 +330,10 @@ public abstract class AbstractPluginManager implements PluginManager {
 
     /**
      * Unload the specified plugin and it's dependents.
+     * <p>
+     * The active leases of the plugin and of its dependents are drained at once
+     * (see {@link #drainPlugins(Collection)}). The plugins that remain loaded (e.g. they cannot be stopped)
+     * accept new leases again.
      *
      * @param pluginId the pluginId of the plugin to unload
      * @param unloadDependents if true, unload dependents
@@ -294,21 +341,70 @@ public abstract class AbstractPluginManager implements PluginManager {
      * @return true if the plugin was unloaded, otherwise false
      */
     protected boolean unloadPlugin(String pluginId, boolean unloadDependents, boolean resolveDependencies) {
-        if (unloadDependents) {
-            List<String> dependents = dependencyResolver.getDependents(pluginId);
-            while (!dependents.isEmpty()) {
-                String dependent = dependents.remove(0);
-                unloadPlugin(dependent, false, false);
-                dependents.addAll(0, dependencyResolver.getDependents(dependent));
+        List<PluginWrapper> drainedPlugins = new ArrayList<>();
+        try {
+            if (unloadDependents) {
+                List<String> dependentIds = getDependentsToUnload(pluginId);
+
+                // wait for the active leases of the plugin and of all its dependents at once
+                Set<PluginWrapper> pluginWrappers = new LinkedHashSet<>();
+                for (String id : dependentIds) {
+                    if (plugins.containsKey(id)) {
+                        pluginWrappers.add(getPlugin(id));
+                    }
+                }
+                if (plugins.containsKey(pluginId)) {
+                    pluginWrappers.add(getPlugin(pluginId));
+                }
+                drainedPlugins.addAll(pluginWrappers);
+                drainPlugins(pluginWrappers);
+
+                for (String dependent : dependentIds) {
+                    unloadPlugin(dependent, false, false);
+                }
+            }
+
+            if (!plugins.containsKey(pluginId)) {
+                // nothing to do
+                return false;
+            }
+
+            PluginWrapper pluginWrapper = getPlugin(pluginId);
+
+            // wait for the active leases before the plugin is stopped and its class loader is closed
+            if (!pluginWrapper.getUsageCounter().isDraining()) {
+                drainedPlugins.add(pluginWrapper);
+                drainPlugin(pluginWrapper);
+            }
+
+            return doUnloadPlugin(pluginWrapper, resolveDependencies);
+        } finally {
+            // accept new usages again for the plugins that remain loaded (e.g. they cannot be stopped)
+            for (PluginWrapper pluginWrapper : drainedPlugins) {
+                if (plugins.get(pluginWrapper.getPluginId()) == pluginWrapper) {
+                    pluginWrapper.getUsageCounter().undrain();
+                }
             }
         }
+    }
 
-        if (!plugins.containsKey(pluginId)) {
-            // nothing to do
-            return false;
+    /**
+     * Returns the (direct and indirect) dependents of a plugin, in the order they are unloaded.
+     */
+    private List<String> getDependentsToUnload(String pluginId) {
+        List<String> result = new ArrayList<>();
+        List<String> dependents = dependencyResolver.getDependents(pluginId);
+        while (!dependents.isEmpty()) {
+            String dependent = dependents.remove(0);
+            result.add(dependent);
+            dependents.addAll(0, dependencyResolver.getDependents(dependent));
         }
 
-        PluginWrapper pluginWrapper = getPlugin(pluginId);
+        return result;
+    }
+
+    private boolean doUnloadPlugin(PluginWrapper pluginWrapper, boolean resolveDependencies) {
+        String pluginId = pluginWrapper.getPluginId();
         PluginState pluginState;
         try {
             pluginState = stopPlugin(pluginId, false);
@@ -325,24 +421,29 @@ public abstract class AbstractPluginManager implements PluginManager {
 
         // remove the plugin
         pluginWrapper.setPluginState(PluginState.UNLOADED);
-        plugins.remove(pluginId);
-        getResolvedPlugins().remove(pluginWrapper);
-        getUnresolvedPlugins().remove(pluginWrapper);
+        registryLock.writeLock().lock();
+        try {
+            plugins.remove(pluginId);
+            getResolvedPlugins().remove(pluginWrapper);
+            getUnresolvedPlugins().remove(pluginWrapper);
+        } finally {
+            registryLock.writeLock().unlock();
+        }
+        pluginTimings.remove(pluginId);
 
         firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
 
         // remove the classloader
-        Map<String, ClassLoader> pluginClassLoaders = getPluginClassLoaders();
-        if (pluginClassLoaders.containsKey(pluginId)) {
-            ClassLoader classLoader = pluginClassLoaders.remove(pluginId);
-            if (classLoader instanceof Closeable) {
-                try {
-                    ((Closeable) classLoader).close();
-                    classLoader = null; // help GC to collect the classloader
-                } catch (IOException e) {
-                    throw new PluginRuntimeException(e, "Cannot close classloader");
-                }
-            }
+        ClassLoader classLoader;
+        registryLock.writeLock().lock();
+        try {
+            classLoader = getPluginClassLoaders().remove(pluginId);
+        } finally {
+            registryLock.writeLock().unlock();
+        }
+        if (classLoader != null) {
+            pluginClassLoaderChanged(pluginId);
+            closeClassLoader(pluginId, classLoader);
         }
 
         // resolve the plugins again (update plugins graph)
@@ -353,6 +454,250 @@ public abstract class AbstractPluginManager implements PluginManager {
         return true;
     }
 
+    /**
+     * Reload the specified plugin from the specified location, without unloading it first.
+     * <p>
+     * The new version of the plugin (and of its dependents, that must be linked against the new classes)
+     * is loaded side-by-side with the current version and then it replaces the current version
+     * in one step, so all the next lookups (plugin, class loader, extensions) return the new version:
+     * {@link #getPlugin(String)}, {@link #getPlugins()}, {@link #getPluginClassLoader(String)} and
+     * {@link #whichPlugin(Class)} wait for the swap, they never see a half-swapped state.
+     * The current version is stopped and its class loader is closed only after all its in-flight usages
+     * (see {@link PluginWrapper#retain()}) are released, or after {@link #getDrainTimeout() drain timeout}.
+     * <p>
+     * The new version is started before the current version is stopped, so the {@link PluginStateListener}s
+     * receive the {@code STOPPED} and {@code UNLOADED} events of the current version after the {@code STARTED}
+     * event of the new version, with the same plugin id. A listener that keeps a state per plugin must check
+     * that the event is for the {@link PluginWrapper} it knows (see {@link WarmUpPluginStateListener}).
+     * The {@code RESOLVED} events of the new versions are fired during the swap, so a listener must not wait
+     * for another thread that looks up the plugins.
+     * <p>
+     * If the new version cannot be loaded or its dependencies cannot be resolved, the current version
+     * remains in place and an exception is thrown.
+     *
+     * @param pluginId the pluginId of the plugin to reload
+     * @param pluginPath the new plugin location
+     * @return the plugin state after reload
+     * @throws IllegalArgumentException if the plugin location does not exist
+     * @throws PluginRuntimeException if something goes wrong
+     */
+    @Override
+    public PluginState reloadPlugin(String pluginId, Path pluginPath) {
+        checkPluginId(pluginId);
+        if ((pluginPath == null) || Files.notExists(pluginPath)) {
+            throw new IllegalArgumentException(String.format("Specified plugin %s does not exist!", pluginPath));
+        }
+
+        log.info("Reload plugin '{}' from '{}'", getPluginLabel(pluginId), pluginPath);
+
+        // the plugin and its dependents in dependency order
+        List<PluginWrapper> oldPlugins = getPluginWithDependents(pluginId);
+        List<PluginWrapper> newPlugins = new ArrayList<>(oldPlugins.size());
+        try {
+            for (PluginWrapper oldPlugin : oldPlugins) {
+                Path path = oldPlugin.getPluginId().equals(pluginId) ? pluginPath : oldPlugin.getPluginPath();
+                PluginArchive archive = openPluginArchive(path);
+                try {
+                    PluginDescriptor pluginDescriptor = findPluginDescriptor(path);
+                    if (!oldPlugin.getPluginId().equals(pluginDescriptor.getPluginId())) {
+                        throw new PluginRuntimeException("Plugin '{}' cannot be reloaded from '{}' that contains the plugin '{}'",
+                            oldPlugin.getPluginId(), path, pluginDescriptor.getPluginId());
+                    }
+
+                    newPlugins.add(loadPluginWrapper(path, pluginDescriptor));
+                } finally {
+                    closePluginArchive(archive);
+                }
+            }
+
+            checkDependencies(newPlugins);
+        } catch (RuntimeException e) {
+            newPlugins.forEach(newPlugin -> closeClassLoader(newPlugin.getPluginId(), newPlugin.getPluginClassLoader()));
+            throw e;
+        }
+
+        // replace the old versions with the new versions, in one step for the concurrent lookups
+        registryLock.writeLock().lock();
+        try {
+            for (int i = 0; i < oldPlugins.size(); i++) {
+                PluginWrapper oldPlugin = oldPlugins.get(i);
+                PluginWrapper newPlugin = newPlugins.get(i);
+
+                resolvedPlugins.removeIf(plugin -> plugin == oldPlugin);
+                unresolvedPlugins.removeIf(plugin -> plugin == oldPlugin);
+                startedPlugins.removeIf(plugin -> plugin == oldPlugin);
+
+                addPlugin(newPlugin);
+                getUnresolvedPlugins().add(newPlugin);
+                getPluginClassLoaders().put(newPlugin.getPluginId(), newPlugin.getPluginClassLoader());
+                pluginClassLoaderChanged(newPlugin.getPluginId());
+            }
+            resolvePlugins();
+        } finally {
+            registryLock.writeLock().unlock();
+        }
+
+        // start the new versions of the started plugins
+        for (int i = 0; i < oldPlugins.size(); i++) {
+            PluginWrapper newPlugin = newPlugins.get(i);
+            if (oldPlugins.get(i).getPluginState().isStarted() && resolvedPlugins.contains(newPlugin)
+                && !newPlugin.getPluginState().isDisabled()) {
+                doStartPlugin(newPlugin);
+            }
+        }
+
+        // drain the old versions at once, then discard them in reverse order
+        drainPlugins(oldPlugins);
+        for (int i = oldPlugins.size() - 1; i >= 0; i--) {
+            discardPlugin(oldPlugins.get(i));
+        }
+
+        return getPlugin(pluginId).getPluginState();
+    }
+
+    /**
+     * Returns the plugin with all its (direct and indirect) dependents, in dependency order.
+     */
+    private List<PluginWrapper> getPluginWithDependents(String pluginId) {
+        Set<String> pluginIds = new HashSet<>();
+        List<String> dependents = new ArrayList<>(dependencyResolver.getDependents(pluginId));
+        while (!dependents.isEmpty()) {
+            String dependent = dependents.remove(0);
+            if (plugins.containsKey(dependent) && pluginIds.add(dependent)) {
+                dependents.addAll(dependencyResolver.getDependents(dependent));
+            }
+        }
+
+        List<PluginWrapper> result = new ArrayList<>();
+        result.add(getPlugin(pluginId));
+        for (PluginWrapper pluginWrapper : resolvedPlugins) {
+            if (pluginIds.contains(pluginWrapper.getPluginId())) {
+                result.add(pluginWrapper);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks that the loaded plugins, together with the given plugins (that replace the loaded plugins
+     * with the same id), have no dependency problem.
+     */
+    private void checkDependencies(List<PluginWrapper> pluginWrappers) {
+        Map<String, PluginDescriptor> descriptors = new LinkedHashMap<>();
+        plugins.values().forEach(plugin -> descriptors.put(plugin.getPluginId(), plugin.getDescriptor()));
+        pluginWrappers.forEach(plugin -> descriptors.put(plugin.getPluginId(), plugin.getDescriptor()));
+
+        DependencyResolver.Result result = new DependencyResolver(versionManager).resolve(new ArrayList<>(descriptors.values()));
+        if (result.hasCyclicDependency()) {
+            throw new DependencyResolver.CyclicDependencyException();
+        }
+
+        if (result.hasNotFoundDependencies()) {
+            throw new DependencyResolver.DependenciesNotFoundException(result.getNotFoundDependencies());
+        }
+
+        if (result.hasWrongVersionDependencies()) {
+            throw new DependencyResolver.DependenciesWrongVersionException(result.getWrongVersionDependencies());
+        }
+    }
+
+    /**
+     * Stops a replaced (and drained) plugin and closes its class loader.
+     */
+    private void discardPlugin(PluginWrapper pluginWrapper) {
+        String pluginLabel = getPluginLabel(pluginWrapper.getDescriptor());
+
+        PluginState pluginState = pluginWrapper.getPluginState();
+        if (pluginState.isStarted()) {
+            JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.STOP_PLUGIN).setPluginId(pluginWrapper.getPluginId());
+            long startTime = System.nanoTime();
+            try {
+                log.info("Stop plugin '{}'", pluginLabel);
+                pluginWrapper.getPlugin().stop();
+                pluginWrapper.setPluginState(PluginState.STOPPED);
+                pluginMetrics.timer(PluginMetrics.PLUGIN_STOP, pluginWrapper.getPluginId()).record(System.nanoTime() - startTime);
+            } catch (PluginRuntimeException e) {
+                log.error(e.getMessage(), e);
+                pluginWrapper.setPluginState(PluginState.FAILED);
+                pluginWrapper.setFailedException(e);
+            } finally {
+                event.finish();
+                firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
+            }
+        }
+
+        pluginState = pluginWrapper.getPluginState();
+        pluginWrapper.setPluginState(PluginState.UNLOADED);
+        firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
+
+        closeClassLoader(pluginWrapper.getPluginId(), pluginWrapper.getPluginClassLoader());
+    }
+
+    /**
+     * Stops accepting new usages (leases) of the plugin and waits until the active usages
+     * are released, or until the {@link #getDrainTimeout() drain timeout} elapses.
+     *
+     * @param pluginWrapper the plugin to drain
+     * @return {@code true} if the plugin has no active usages
+     */
+    protected boolean drainPlugin(PluginWrapper pluginWrapper) {
+        return drainPlugin(pluginWrapper, drainTimeout);
+    }
+
+    /**
+     * Stops accepting new usages (leases) of all the plugins and waits until their active usages
+     * are released, or until the {@link #getDrainTimeout() drain timeout} elapses.
+     * The plugins are drained concurrently, so they all wait at most for one drain timeout.
+     *
+     * @param pluginWrappers the plugins to drain
+     * @return {@code true} if the plugins have no active usages
+     */
+    protected boolean drainPlugins(Collection<PluginWrapper> pluginWrappers) {
+        // stop accepting new usages of all the plugins first
+        pluginWrappers.forEach(pluginWrapper -> pluginWrapper.getUsageCounter().startDraining());
+
+        long deadline = System.currentTimeMillis() + drainTimeout;
+        boolean drained = true;
+        for (PluginWrapper pluginWrapper : pluginWrappers) {
+            long remaining = Math.max(0, deadline - System.currentTimeMillis());
+            drained &= drainPlugin(pluginWrapper, remaining);
+        }
+
+        return drained;
+    }
+
+    private boolean drainPlugin(PluginWrapper pluginWrapper, long timeout) {
+        UsageCounter usageCounter = pluginWrapper.getUsageCounter();
+        try {
+            if (usageCounter.drain(timeout)) {
+                return true;
+            }
+
+            log.warn("Plugin '{}' is still in use ({} usages) after {} ms", getPluginLabel(pluginWrapper.getDescriptor()),
+                usageCounter.getCount(), drainTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the usages of plugin '{}'", getPluginLabel(pluginWrapper.getDescriptor()));
+        }
+
+        return false;
+    }
+
+    private void closeClassLoader(String pluginId, ClassLoader classLoader) {
+        if (classLoader instanceof Closeable) {
+            try {
+                ((Closeable) classLoader).close();
+            } catch (IOException e) {
+                throw new PluginRuntimeException(e, "Cannot close classloader");
+            }
+        }
+
+        if (classLoaderLeakDetector != null && classLoader != null) {
+            classLoaderLeakDetector.track(pluginId, classLoader);
+        }
+    }
+
     @Override
     public boolean deletePlugin(String pluginId) {
         checkPluginId(pluginId);
@@ -395,6 +740,8 @@ public abstract class AbstractPluginManager implements PluginManager {
                 doStartPlugin(pluginWrapper);
             }
         }
+
+        log.info("Plugins startup: {}", getStartupReport().getSummary());
     }
 
     /**
@@ -482,6 +829,7 @@ public abstract class AbstractPluginManager implements PluginManager {
                         log.error("Cannot start plugin '{}' because required dependency '{}' failed to start (state: {})",
                                 pluginId, dependency.getPluginId(), dependencyState);
 
+                        pluginMetrics.counter(PluginMetrics.PLUGIN_START_FAILURES, pluginId).increment();
                         pluginWrapper.setPluginState(PluginState.FAILED);
                         pluginWrapper.setFailedException(
                             new PluginRuntimeException("Required dependency '" + dependency.getPluginId() + "' failed to start")
@@ -506,17 +854,27 @@ public abstract class AbstractPluginManager implements PluginManager {
      */
     private PluginState doStartPlugin(PluginWrapper pluginWrapper) {
         PluginState pluginState = pluginWrapper.getPluginState();
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.START_PLUGIN).setPluginId(pluginWrapper.getPluginId());
+        long startTime = System.nanoTime();
         try {
             log.info("Start plugin '{}'", getPluginLabel(pluginWrapper.getDescriptor()));
-            pluginWrapper.getPlugin().start();
+            PluginTimings timings = getPluginTimings(pluginWrapper.getPluginId());
+            Plugin plugin = pluginWrapper.getPlugin();
+            long instantiatedTime = System.nanoTime();
+            timings.setInstantiationTime(instantiatedTime - startTime);
+            plugin.start();
+            timings.setStartTime(System.nanoTime() - instantiatedTime);
             pluginWrapper.setPluginState(PluginState.STARTED);
             pluginWrapper.setFailedException(null);
             startedPlugins.add(pluginWrapper);
+            pluginMetrics.timer(PluginMetrics.PLUGIN_START, pluginWrapper.getPluginId()).record(System.nanoTime() - startTime);
         } catch (Exception | LinkageError e) {
+            pluginMetrics.counter(PluginMetrics.PLUGIN_START_FAILURES, pluginWrapper.getPluginId()).increment();
             pluginWrapper.setPluginState(PluginState.FAILED);
             pluginWrapper.setFailedException(e);
             log.error("Unable to start plugin '{}'", getPluginLabel(pluginWrapper.getDescriptor()), e);
         } finally {
+            event.finish();
             firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
         }
         return pluginWrapper.getPluginState();
@@ -528,10 +886,10 @@ public abstract class AbstractPluginManager implements PluginManager {
     @Override
     public void stopPlugins() {
         // stop started plugins in reverse order
-        Collections.reverse(startedPlugins);
-        Iterator<PluginWrapper> itr = startedPlugins.iterator();
-        while (itr.hasNext()) {
-            PluginWrapper pluginWrapper = itr.next();
+        // (iterate over a copy, because a stopped plugin is removed from the started plugins)
+        List<PluginWrapper> pluginsToStop = new ArrayList<>(startedPlugins);
+        Collections.reverse(pluginsToStop);
+        for (PluginWrapper pluginWrapper : pluginsToStop) {
             PluginState pluginState = pluginWrapper.getPluginState();
             if (pluginState.isStarted()) {
                 doStopPlugin(pluginWrapper);
@@ -589,16 +947,20 @@ public abstract class AbstractPluginManager implements PluginManager {
      */
     private PluginState doStopPlugin(PluginWrapper pluginWrapper) {
         PluginState pluginState = pluginWrapper.getPluginState();
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.STOP_PLUGIN).setPluginId(pluginWrapper.getPluginId());
+        long startTime = System.nanoTime();
         try {
             log.info("Stop plugin '{}'", getPluginLabel(pluginWrapper.getDescriptor()));
             pluginWrapper.getPlugin().stop();
             pluginWrapper.setPluginState(PluginState.STOPPED);
             getStartedPlugins().remove(pluginWrapper);
+            pluginMetrics.timer(PluginMetrics.PLUGIN_STOP, pluginWrapper.getPluginId()).record(System.nanoTime() - startTime);
         } catch (PluginRuntimeException e) {
             log.error(e.getMessage(), e);
             pluginWrapper.setPluginState(PluginState.FAILED);
             pluginWrapper.setFailedException(e);
         } finally {
+            event.finish();
             firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
         }
         return pluginWrapper.getPluginState();
@@ -689,7 +1051,12 @@ public abstract class AbstractPluginManager implements PluginManager {
      */
     @Override
     public ClassLoader getPluginClassLoader(String pluginId) {
-        return pluginClassLoaders.get(pluginId);
+        registryLock.readLock().lock();
+        try {
+            return pluginClassLoaders.get(pluginId);
+        } finally {
+            registryLock.readLock().unlock();
+        }
     }
 
     @SuppressWarnings("rawtypes")
@@ -725,6 +1092,46 @@ public abstract class AbstractPluginManager implements PluginManager {
         return getExtensions(extensionFinder.find(type, pluginId));
     }
 
+    /**
+     * Retrieves the extensions for the specified extension point, each one with a lease on its plugin.
+     * If a plugin is reloaded in the meantime, the extensions are retrieved again.
+     */
+    @Override
+    public <T> List<ExtensionLease<T>> acquireExtensions(Class<T> type) {
+        for (int attempt = 1; ; attempt++) {
+            List<ExtensionWrapper<T>> extensionsWrapper = extensionFinder.find(type);
+            List<ExtensionLease<T>> leases = new ArrayList<>(extensionsWrapper.size());
+            boolean draining = false;
+            for (ExtensionWrapper<T> extensionWrapper : extensionsWrapper) {
+                PluginWrapper pluginWrapper = extensionWrapper.getPlugin();
+                if ((pluginWrapper != null) && !pluginWrapper.retain()) {
+                    // the plugin is being unloaded or it was replaced (reloaded), skip it on the last attempt
+                    draining = true;
+                    if (attempt < MAX_ACQUIRE_ATTEMPTS) {
+                        break;
+                    }
+
+                    continue;
+                }
+
+                try {
+                    leases.add(new ExtensionLease<>(pluginWrapper, extensionWrapper.getExtension()));
+                } catch (PluginRuntimeException e) {
+                    if (pluginWrapper != null) {
+                        pluginWrapper.release();
+                    }
+                    log.error("Cannot retrieve extension", e);
+                }
+            }
+
+            if (!draining || (attempt == MAX_ACQUIRE_ATTEMPTS)) {
+                return leases;
+            }
+
+            leases.forEach(ExtensionLease::close);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List getExtensions(String pluginId) {
@@ -780,10 +1187,15 @@ public abstract class AbstractPluginManager implements PluginManager {
     @Override
     public PluginWrapper whichPlugin(Class<?> clazz) {
         ClassLoader classLoader = clazz.getClassLoader();
-        for (PluginWrapper plugin : resolvedPlugins) {
-            if (plugin.getPluginClassLoader() == classLoader) {
-                return plugin;
+        registryLock.readLock().lock();
+        try {
+            for (PluginWrapper plugin : resolvedPlugins) {
+                if (plugin.getPluginClassLoader() == classLoader) {
+                    return plugin;
+                }
             }
+        } finally {
+            registryLock.readLock().unlock();
         }
 
         return null;
@@ -839,6 +1251,7 @@ public abstract class AbstractPluginManager implements PluginManager {
         startedPlugins = new ArrayList<>();
 
         pluginStateListeners = new ArrayList<>();
+        pluginTimings = new ConcurrentHashMap<>();
 
         if (pluginsRoots.isEmpty()) {
             pluginsRoots.addAll(createPluginsRoot());
@@ -920,19 +1333,38 @@ public abstract class AbstractPluginManager implements PluginManager {
      * @throws PluginRuntimeException if something goes wrong
      */
     protected void resolvePlugins() {
-        DependencyResolver.Result result = resolveDependencies();
+        DependencyResolver.Result result;
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.RESOLVE_DEPENDENCIES);
+        long startTime = System.nanoTime();
+        try {
+            result = resolveDependencies();
+        } finally {
+            event.finish();
+        }
+        long resolveTime = System.nanoTime() - startTime;
         List<String> sortedPlugins = result.getSortedPlugins();
 
         // move plugins from "unresolved" to "resolved"
         for (String pluginId : sortedPlugins) {
             PluginWrapper pluginWrapper = plugins.get(pluginId);
-            if (unresolvedPlugins.remove(pluginWrapper)) {
+            boolean unresolved;
+            registryLock.writeLock().lock();
+            try {
+                unresolved = unresolvedPlugins.remove(pluginWrapper);
+                if (unresolved) {
+                    resolvedPlugins.add(pluginWrapper);
+                }
+            } finally {
+                registryLock.writeLock().unlock();
+            }
+
+            if (unresolved) {
                 PluginState pluginState = pluginWrapper.getPluginState();
                 if (!pluginState.isDisabled()) {
                     pluginWrapper.setPluginState(PluginState.RESOLVED);
                 }
 
-                resolvedPlugins.add(pluginWrapper);
+                getPluginTimings(pluginId).setResolveTime(resolveTime);
                 log.info("Plugin '{}' resolved", getPluginLabel(pluginWrapper.getDescriptor()));
 
                 firePluginStateEvent(new PluginStateEvent(this, pluginWrapper, pluginState));
@@ -952,6 +1384,8 @@ public abstract class AbstractPluginManager implements PluginManager {
             return;
         }
 
+        pluginMetrics.counter(PluginMetrics.PLUGIN_STATE + "." + event.getPluginState().name(), event.getPlugin().getPluginId()).increment();
+
         for (PluginStateListener listener : pluginStateListeners) {
             log.trace("Fire '{}' to '{}'", event, listener);
             listener.pluginStateChanged(event);
@@ -967,41 +1401,172 @@ public abstract class AbstractPluginManager implements PluginManager {
      * @throws InvalidPluginDescriptorException if the plugin is invalid
      */
     protected PluginWrapper loadPluginFromPath(Path pluginPath) {
-        // Test for plugin path duplication
-        String pluginId = idForPath(pluginPath);
-        if (pluginId != null) {
-            throw new PluginAlreadyLoadedException(pluginId, pluginPath);
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.LOAD_PLUGIN);
+        long startTime = System.nanoTime();
+        PluginArchive archive = null;
+        try {
+            // Test for plugin path duplication
+            String pluginId = idForPath(pluginPath);
+            if (pluginId != null) {
+                throw new PluginAlreadyLoadedException(pluginId, pluginPath);
+            }
+
+            archive = openPluginArchive(pluginPath);
+
+            // Retrieve and validate the plugin descriptor
+            PluginDescriptor pluginDescriptor = findPluginDescriptor(pluginPath);
+
+            // Check there are no loaded plugins with the retrieved id
+            pluginId = pluginDescriptor.getPluginId();
+            event.setPluginId(pluginId);
+            if (plugins.containsKey(pluginId)) {
+                PluginWrapper loadedPlugin = getPlugin(pluginId);
+                throw new PluginRuntimeException("There is an already loaded plugin ({}) "
+                        + "with the same id ({}) as the plugin at path '{}'. Simultaneous loading "
+                        + "of plugins with the same PluginId is not currently supported.\n"
+                        + "As a workaround you may include PluginVersion and PluginProvider "
+                        + "in PluginId.",
+                    loadedPlugin, pluginId, pluginPath);
+            }
+
+            PluginWrapper pluginWrapper = loadPluginWrapper(pluginPath, pluginDescriptor);
+
+            pluginId = pluginDescriptor.getPluginId();
+
+            registryLock.writeLock().lock();
+            try {
+                // add plugin to the list with plugins
+                addPlugin(pluginWrapper);
+                getUnresolvedPlugins().add(pluginWrapper);
+
+                // add plugin class loader to the list with class loaders
+                getPluginClassLoaders().put(pluginId, pluginWrapper.getPluginClassLoader());
+            } finally {
+                registryLock.writeLock().unlock();
+            }
+            pluginClassLoaderChanged(pluginId);
+            pluginMetrics.timer(PluginMetrics.PLUGIN_LOAD, pluginId).record(System.nanoTime() - startTime);
+
+            return pluginWrapper;
+        } finally {
+            closePluginArchive(archive);
+            event.finish();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the plugin {@code zip} and {@code jar} files are memory-mapped once, while a plugin
+     * is loaded, and shared by the descriptor finders and the loaders (see {@link PluginArchive}).
+     * It's {@code false} by default (a memory-mapped file stays open while the plugin is loaded),
+     * the plugin managers enable it when their loaders memory-map the plugins anyway.
+     *
+     * @return {@code true} if the plugin files are shared as {@link PluginArchive}s
+     */
+    protected boolean isPluginArchiveShared() {
+        return false;
+    }
+
+    /**
+     * Returns the registry of the open plugin archives, to share with the descriptor finders and the loaders
+     * created by {@link #createPluginDescriptorFinder()} and {@link #createPluginLoader()}.
+     *
+     * @return the registry of the plugin archives
+     */
+    protected PluginArchiveRegistry getPluginArchiveRegistry() {
+        return pluginArchiveRegistry;
+    }
+
+    /**
+     * Opens the archive of a {@code zip} or {@code jar} plugin and keeps it open until
+     * {@link #closePluginArchive(PluginArchive)}, so the descriptor finders and the loaders
+     * read the file once (see {@link PluginArchiveRegistry#acquire(Path)}).
+     * The plugin class loader keeps its own reference, released when the plugin is unloaded.
+     *
+     * @return the archive or {@code null} if the archives are not shared or the plugin isn't a {@code zip} or {@code jar} file
+     * (or if it cannot be opened as plugin archive, then each component opens the file)
+     */
+    private PluginArchive openPluginArchive(Path pluginPath) {
+        if (!isPluginArchiveShared() || !FileUtils.isZipOrJarFile(pluginPath)) {
+            return null;
         }
 
-        // Retrieve and validate the plugin descriptor
+        try {
+            return pluginArchiveRegistry.acquire(pluginPath);
+        } catch (IOException e) {
+            log.debug("Cannot open '{}' as plugin archive: {}", pluginPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void closePluginArchive(PluginArchive archive) {
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * Notifies the plugin class loaders that the class loader of a plugin was added, replaced or removed,
+     * so the class loaders of its dependents drop what they cached about their dependencies.
+     *
+     * @param pluginId the id of the plugin whose class loader changed
+     * @see PluginClassLoader#dependencyChanged(String)
+     */
+    protected void pluginClassLoaderChanged(String pluginId) {
+        for (ClassLoader classLoader : getPluginClassLoaders().values()) {
+            if (classLoader instanceof PluginClassLoader) {
+                ((PluginClassLoader) classLoader).dependencyChanged(pluginId);
+            }
+        }
+    }
+
+    private PluginDescriptor findPluginDescriptor(Path pluginPath) {
         PluginDescriptorFinder pluginDescriptorFinder = getPluginDescriptorFinder();
         log.debug("Use '{}' to find plugins descriptors", pluginDescriptorFinder);
         log.debug("Finding plugin descriptor for plugin '{}'", pluginPath);
-        PluginDescriptor pluginDescriptor = pluginDescriptorFinder.find(pluginPath);
+        PluginDescriptor pluginDescriptor;
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.FIND_PLUGIN_DESCRIPTOR);
+        long startTime = System.nanoTime();
+        try {
+            pluginDescriptor = pluginDescriptorFinder.find(pluginPath);
+            event.setPluginId(pluginDescriptor.getPluginId());
+        } finally {
+            event.finish();
+        }
         validatePluginDescriptor(pluginDescriptor);
 
-        // Check there are no loaded plugins with the retrieved id
-        pluginId = pluginDescriptor.getPluginId();
-        if (plugins.containsKey(pluginId)) {
-            PluginWrapper loadedPlugin = getPlugin(pluginId);
-            throw new PluginRuntimeException("There is an already loaded plugin ({}) "
-                    + "with the same id ({}) as the plugin at path '{}'. Simultaneous loading "
-                    + "of plugins with the same PluginId is not currently supported.\n"
-                    + "As a workaround you may include PluginVersion and PluginProvider "
-                    + "in PluginId.",
-                loadedPlugin, pluginId, pluginPath);
-        }
+        // a new descriptor starts the timings of the plugin (again)
+        PluginTimings timings = new PluginTimings(pluginDescriptor.getPluginId());
+        timings.setDescriptorTime(System.nanoTime() - startTime);
+        pluginTimings.put(pluginDescriptor.getPluginId(), timings);
+
+        return pluginDescriptor;
+    }
 
+    /**
+     * Creates the plugin class loader and the plugin wrapper, without registering the plugin.
+     */
+    private PluginWrapper loadPluginWrapper(Path pluginPath, PluginDescriptor pluginDescriptor) {
         log.debug("Found descriptor {}", pluginDescriptor);
         String pluginClassName = pluginDescriptor.getPluginClass();
         log.debug("Class '{}' for plugin '{}'",  pluginClassName, pluginPath);
 
         // load plugin
         log.debug("Loading plugin '{}'", pluginPath);
-        ClassLoader pluginClassLoader = getPluginLoader().loadPlugin(pluginPath, pluginDescriptor);
+        ClassLoader pluginClassLoader;
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.CREATE_CLASS_LOADER).setPluginId(pluginDescriptor.getPluginId());
+        long startTime = System.nanoTime();
+        try {
+            pluginClassLoader = getPluginLoader().loadPlugin(pluginPath, pluginDescriptor);
+        } finally {
+            event.finish();
+        }
+        getPluginTimings(pluginDescriptor.getPluginId()).setClassLoaderTime(System.nanoTime() - startTime);
         log.debug("Loaded plugin '{}' with class loader '{}'", pluginPath, pluginClassLoader);
 
         PluginWrapper pluginWrapper = createPluginWrapper(pluginDescriptor, pluginPath, pluginClassLoader);
+        if (classListStore != null && pluginClassLoader instanceof PluginClassLoader) {
+            ((PluginClassLoader) pluginClassLoader).setRecordingLoadedClasses(true);
+        }
 
         // test for disabled plugin
         if (isPluginDisabled(pluginDescriptor.getPluginId())) {
@@ -1018,15 +1583,6 @@ public abstract class AbstractPluginManager implements PluginManager {
 
         log.debug("Created wrapper '{}' for plugin '{}'", pluginWrapper, pluginPath);
 
-        pluginId = pluginDescriptor.getPluginId();
-
-        // add plugin to the list with plugins
-        addPlugin(pluginWrapper);
-        getUnresolvedPlugins().add(pluginWrapper);
-
-        // add plugin class loader to the list with class loaders
-        getPluginClassLoaders().put(pluginId, pluginClassLoader);
-
         return pluginWrapper;
     }
 
@@ -1101,6 +1657,143 @@ public abstract class AbstractPluginManager implements PluginManager {
         this.exactVersionAllowed = exactVersionAllowed;
     }
 
+    /**
+     * Returns the maximum time (in milliseconds) that {@link #unloadPlugin(String)} and {@link #reloadPlugin(String, Path)}
+     * wait for the in-flight usages (leases) of a plugin, before the plugin is stopped and its class loader is closed.
+     * A plugin and its dependents are drained concurrently, so they wait at most for one drain timeout together.
+     *
+     * @return the drain timeout in milliseconds
+     */
+    public long getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) to wait for the in-flight usages of a plugin,
+     * before the plugin is stopped and its class loader is closed.
+     * The default is 30 seconds.
+     *
+     * @param drainTimeout the drain timeout in milliseconds
+     */
+    public void setDrainTimeout(long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+
+    @Override
+    public PluginMetrics getPluginMetrics() {
+        return pluginMetrics;
+    }
+
+    @Override
+    public PluginStartupReport getStartupReport() {
+        return new PluginStartupReport(pluginTimings.values());
+    }
+
+    @Override
+    public List<PluginFootprint> getPluginFootprints() {
+        List<PluginFootprint> footprints = new ArrayList<>();
+        for (PluginWrapper plugin : getPlugins()) {
+            footprints.add(getPluginFootprint(plugin.getPluginId()));
+        }
+        footprints.sort(Comparator.comparingLong(PluginFootprint::getApproximateMetaspaceSize).reversed());
+
+        return footprints;
+    }
+
+    /**
+     * Returns the memory footprint of a plugin.
+     *
+     * @param pluginId the id of the plugin
+     * @return the memory footprint of the plugin
+     * @throws PluginNotFoundException if the plugin is not loaded
+     */
+    public PluginFootprint getPluginFootprint(String pluginId) {
+        checkPluginId(pluginId);
+
+        ClassLoader classLoader = getPluginClassLoader(pluginId);
+        long loadedClassCount = 0;
+        long approximateMetaspaceSize = 0;
+        if (classLoader instanceof PluginClassLoader) {
+            PluginClassLoader pluginClassLoader = (PluginClassLoader) classLoader;
+            loadedClassCount = pluginClassLoader.getDefinedClassCount();
+            approximateMetaspaceSize = pluginClassLoader.getApproximateClassBytes();
+        }
+        ExtensionFactory extensionFactory = getExtensionFactory();
+        int extensionInstanceCount = (extensionFactory != null) ? extensionFactory.getExtensionInstanceCount(classLoader) : 0;
+
+        return new PluginFootprint(pluginId, loadedClassCount, approximateMetaspaceSize, extensionInstanceCount);
+    }
+
+    protected PluginTimings getPluginTimings(String pluginId) {
+        return pluginTimings.computeIfAbsent(pluginId, PluginTimings::new);
+    }
+
+    /**
+     * Set the {@link PluginMetrics} that the plugin manager, the plugin class loaders and the extension finders
+     * report into, and register the gauges of the plugin manager.
+     * It should be set before the plugins are loaded (a plugin class loader uses the metrics of its creation time).
+     * The default is {@link PluginMetrics#NOOP}.
+     *
+     * @param pluginMetrics the metrics
+     */
+    public void setPluginMetrics(PluginMetrics pluginMetrics) {
+        this.pluginMetrics = Objects.requireNonNull(pluginMetrics, "pluginMetrics cannot be null");
+        pluginMetrics.gauge(PluginMetrics.PLUGINS, null, plugins::size);
+        pluginMetrics.gauge(PluginMetrics.STARTED_PLUGINS, null, startedPlugins::size);
+        pluginMetrics.gauge(PluginMetrics.LEAKED_CLASS_LOADERS, null,
+            () -> (classLoaderLeakDetector != null) ? classLoaderLeakDetector.getLeaks().size() : 0);
+    }
+
+    public ClassLoaderLeakDetector getClassLoaderLeakDetector() {
+        return classLoaderLeakDetector;
+    }
+
+    /**
+     * Set the detector that tracks the class loaders of the unloaded plugins, to find the leaked ones.
+     * The default is {@code null} (no tracking).
+     *
+     * @param classLoaderLeakDetector the leak detector, or {@code null}
+     */
+    public void setClassLoaderLeakDetector(ClassLoaderLeakDetector classLoaderLeakDetector) {
+        this.classLoaderLeakDetector = classLoaderLeakDetector;
+    }
+
+    public ClassListStore getClassListStore() {
+        return classListStore;
+    }
+
+    /**
+     * Set the store of the class lists of the plugins.
+     * When a store is set, the class loaders of the plugins loaded afterward record the loaded classes,
+     * and {@link #writeClassLists()} writes them in the store (at the end of a training run).
+     * The default is {@code null} (no recording).
+     *
+     * @param classListStore the store of the class lists, or {@code null}
+     */
+    public void setClassListStore(ClassListStore classListStore) {
+        this.classListStore = classListStore;
+    }
+
+    /**
+     * Writes the classes loaded by each plugin in the {@link #getClassListStore()}.
+     * A plugin whose class list cannot be written is skipped (the error is logged).
+     *
+     * @throws IllegalStateException if no class list store is set
+     */
+    public void writeClassLists() {
+        if (classListStore == null) {
+            throw new IllegalStateException("No class list store");
+        }
+
+        for (PluginWrapper plugin : getPlugins()) {
+            try {
+                classListStore.write(plugin);
+            } catch (IOException e) {
+                log.error("Cannot write the class list of plugin '{}'", plugin.getPluginId(), e);
+            }
+        }
+    }
+
     @Override
     public VersionManager getVersionManager() {
         return versionManager;
@@ -1150,13 +1843,21 @@ public abstract class AbstractPluginManager implements PluginManager {
         return extensions;
     }
 
+    /**
+     * Resolves the dependencies of the loaded plugins.
+     * Only the plugins loaded or unloaded since the previous call are processed by the {@link DependencyResolver},
+     * so loading or unloading a single plugin doesn't resolve the whole graph again.
+     *
+     * @return the result of the resolve operation
+     * @throws PluginRuntimeException if something goes wrong
+     */
     protected DependencyResolver.Result resolveDependencies() {
         // retrieves the plugins descriptors
         List<PluginDescriptor> descriptors = plugins.values().stream()
             .map(PluginWrapper::getDescriptor)
             .collect(Collectors.toList());
 
-        DependencyResolver.Result result = dependencyResolver.resolve(descriptors);
+        DependencyResolver.Result result = dependencyResolver.update(descriptors);
 
         if (result.isOK()) {
             return result;
@@ -1219,7 +1920,12 @@ public abstract class AbstractPluginManager implements PluginManager {
     }
 
     void addPlugin(PluginWrapper pluginWrapper) {
-        plugins.put(pluginWrapper.getPluginId(), pluginWrapper);
+        registryLock.writeLock().lock();
+        try {
+            plugins.put(pluginWrapper.getPluginId(), pluginWrapper);
+        } finally {
+            registryLock.writeLock().unlock();
+        }
     }
 
     /**
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.ZipArchive;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.security.CodeSource;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The classes and resources of a plugin that are read directly from {@link ZipArchive}s
+ * (for example the {@code classes} directory and the {@code lib/*.jar} files of a plugin zip),
+ * without extraction on disk.
+ * <p>
+ * The resources are identified by URLs with the {@value #PROTOCOL} protocol, for example
+ * {@code pf4j:file:/plugins/my-plugin.zip!/lib/my-lib.jar!/my/package/MyClass.class}.
+ * These URLs can be opened only from the URL objects returned by this class (they hold their own
+ * {@link URLStreamHandler}), not from their string representation.
+ * <p>
+ * The entries of all archives are indexed (entry name to the first archive that contains it) when the archives
+ * are added, so a class or resource lookup is a single hash lookup, whatever the number of archives.
+ */
+public class ArchiveClassPath {
+
+    public static final String PROTOCOL = "pf4j";
+
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+    private final Map<String, Resource> index = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the entries of an archive to the class path.
+     *
+     * @param archive the archive
+     * @param prefix the directory of the archive that is the root of the class path
+     *     (for example {@code classes/}), or an empty string for the whole archive
+     * @param location the location of the archive (for example {@code file:/plugins/my-plugin.zip}),
+     *     used to create the URLs of the resources
+     */
+    public void add(ZipArchive archive, String prefix, String location) {
+        Source source;
+        try {
+            source = new Source(archive, prefix, location);
+        } catch (MalformedURLException e) {
+            throw new PluginRuntimeException(e, "Invalid location '{}'", location);
+        }
+
+        sources.add(source);
+        for (ZipArchive.Entry entry : archive.getEntries()) {
+            String entryName = entry.getName();
+            if (entryName.startsWith(prefix) && !entry.isDirectory()) {
+                String name = entryName.substring(prefix.length());
+                // the first archive wins, like in a class path
+                index.putIfAbsent(name, new Resource(source, entry, name));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return sources.isEmpty();
+    }
+
+    /**
+     * Finds the first resource with the given name.
+     *
+     * @param name the name of the resource (for example {@code my/package/MyClass.class})
+     * @return the resource or {@code null} if not found
+     */
+    public Resource getResource(String name) {
+        return index.get(name);
+    }
+
+    /**
+     * Finds the URLs of all resources with the given name.
+     *
+     * @param name the name of the resource
+     * @return the URLs of the resources, in the class path order
+     */
+    public List<URL> getResources(String name) {
+        if (!index.containsKey(name)) {
+            return Collections.emptyList();
+        }
+
+        List<URL> urls = new ArrayList<>();
+        for (Source source : sources) {
+            ZipArchive.Entry entry = source.archive.getEntry(source.prefix.concat(name));
+            if (entry != null) {
+                urls.add(new Resource(source, entry, name).getURL());
+            }
+        }
+
+        return urls;
+    }
+
+    /**
+     * Removes all archives from the class path.
+     * The archives are not closed, they are closed by their owner (see {@link PluginClassLoader#addOpenArchive(java.io.Closeable)}).
+     */
+    public void close() {
+        sources.clear();
+        index.clear();
+    }
+
+    /**
+     * A resource found in the class path.
+     */
+    public static class Resource {
+
+        private final Source source;
+        private final ZipArchive.Entry entry;
+        private final String name;
+
+        Resource(Source source, ZipArchive.Entry entry, String name) {
+            this.source = source;
+            this.entry = entry;
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public URL getURL() {
+            try {
+                return source.createURL(name);
+            } catch (MalformedURLException e) {
+                throw new PluginRuntimeException(e, "Cannot create URL for '{}'", name);
+            }
+        }
+
+        public byte[] getBytes() throws IOException {
+            return source.archive.getBytes(entry);
+        }
+
+        public CodeSource getCodeSource() {
+            return source.codeSource;
+        }
+
+    }
+
+    private static class Source {
+
+        private final ZipArchive archive;
+        private final String prefix;
+        private final String basePath;
+        private final URLStreamHandler handler;
+        private final CodeSource codeSource;
+
+        Source(ZipArchive archive, String prefix, String location) throws MalformedURLException {
+            this.archive = archive;
+            this.prefix = prefix;
+            this.basePath = location + "!/" + prefix;
+            this.handler = new Handler(this);
+            // a jar file on disk keeps its file URL as code source (as with URLClassLoader),
+            // that is required by the class data sharing (CDS) for the classes of the custom class loaders
+            URL codeSourceURL = (prefix.isEmpty() && location.startsWith("file:") && !location.contains("!/")) ? new URL(location) : createURL("");
+            this.codeSource = new CodeSource(codeSourceURL, (Certificate[]) null);
+        }
+
+        URL createURL(String name) throws MalformedURLException {
+            return new URL(PROTOCOL, "", -1, basePath.concat(name), handler);
+        }
+
+    }
+
+    private static class Handler extends URLStreamHandler {
+
+        private final Source source;
+
+        Handler(Source source) {
+            this.source = source;
+        }
+
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            String file = url.getFile();
+            if (!file.startsWith(source.basePath)) {
+                throw new FileNotFoundException(url.toString());
+            }
+
+            ZipArchive.Entry entry = source.archive.getEntry(source.prefix + file.substring(source.basePath.length()));
+            if (entry == null) {
+                throw new FileNotFoundException(url.toString());
+            }
+
+            return new ArchiveURLConnection(url, source.archive, entry);
+        }
+
+    }
+
+    private static class ArchiveURLConnection extends URLConnection {
+
+        private final ZipArchive archive;
+        private final ZipArchive.Entry entry;
+
+        ArchiveURLConnection(URL url, ZipArchive archive, ZipArchive.Entry entry) {
+            super(url);
+
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        @Override
+        public void connect() {
+            connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            connect();
+
+            return archive.getInputStream(entry);
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return entry.getSize();
+        }
+
+        @Override
+        public int getContentLength() {
+            return (int) entry.getSize();
+        }
+
+    }
+
+}
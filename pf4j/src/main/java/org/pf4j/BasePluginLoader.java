@@ -16,10 +16,13 @@
 package org.pf4j;
 
 import org.pf4j.util.FileUtils;
+import org.pf4j.util.ZipArchive;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -34,6 +37,9 @@ public class BasePluginLoader implements PluginLoader {
     protected PluginManager pluginManager;
     protected PluginClasspath pluginClasspath;
 
+    private boolean indexedJars;
+    private SharedLibraryRegistry sharedLibraryRegistry;
+
     public BasePluginLoader(PluginManager pluginManager, PluginClasspath pluginClasspath) {
         this.pluginManager = pluginManager;
         this.pluginClasspath = pluginClasspath;
@@ -74,15 +80,82 @@ public class BasePluginLoader implements PluginLoader {
     /**
      * Add all {@code *.jar} files from {@link PluginClasspath#getJarsDirectories()}
      * to the plugin's {@link ClassLoader}.
+     * The jars accepted by the {@link #getSharedLibraryRegistry()} (if any) are loaded together by one shared
+     * class loader, shared with the other plugins that bundle the same jars.
+     * If {@link #isIndexedJars()}, the other jars are memory-mapped and indexed (see {@link ArchiveClassPath}),
+     * else they are added as URLs.
      */
     protected void loadJars(Path pluginPath, PluginClassLoader pluginClassLoader) {
+        List<Path> sharedJars = new ArrayList<>();
         for (String jarsDirectory : pluginClasspath.getJarsDirectories()) {
             Path file = pluginPath.resolve(jarsDirectory);
             List<File> jars = FileUtils.getJars(file);
             for (File jar : jars) {
-                pluginClassLoader.addFile(jar);
+                if ((sharedLibraryRegistry != null) && sharedLibraryRegistry.isShared(jar.toPath())) {
+                    sharedJars.add(jar.toPath());
+                } else if (indexedJars) {
+                    addIndexedJar(jar.toPath(), pluginClassLoader);
+                } else {
+                    pluginClassLoader.addFile(jar);
+                }
             }
         }
+
+        if (!sharedJars.isEmpty()) {
+            addSharedJars(sharedJars, pluginClassLoader);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the jars of the plugins are memory-mapped and indexed,
+     * instead of being opened by the {@link java.net.URLClassLoader}.
+     * The default value is {@code false}.
+     */
+    public boolean isIndexedJars() {
+        return indexedJars;
+    }
+
+    /**
+     * Memory-maps the jars of the plugins and builds a single index (entry name to jar entry) for all jars
+     * of a plugin, so a class or resource lookup doesn't probe each jar.
+     * The resources are served with {@value ArchiveClassPath#PROTOCOL} URLs.
+     *
+     * @param indexedJars {@code true} to memory-map and index the jars
+     */
+    public void setIndexedJars(boolean indexedJars) {
+        this.indexedJars = indexedJars;
+    }
+
+    public SharedLibraryRegistry getSharedLibraryRegistry() {
+        return sharedLibraryRegistry;
+    }
+
+    /**
+     * Shares the identical library jars of the plugins (see {@link SharedLibraryRegistry}).
+     * The default value is {@code null} (each plugin defines its own copy of the library classes).
+     *
+     * @param sharedLibraryRegistry the registry of the shared libraries, or {@code null}
+     */
+    public void setSharedLibraryRegistry(SharedLibraryRegistry sharedLibraryRegistry) {
+        this.sharedLibraryRegistry = sharedLibraryRegistry;
+    }
+
+    private void addSharedJars(List<Path> jars, PluginClassLoader pluginClassLoader) {
+        try {
+            pluginClassLoader.addSharedLibrary(sharedLibraryRegistry.acquire(jars));
+        } catch (IOException e) {
+            throw new PluginRuntimeException(e, "Cannot read jars {}", jars);
+        }
+    }
+
+    private void addIndexedJar(Path jar, PluginClassLoader pluginClassLoader) {
+        try {
+            ZipArchive archive = ZipArchive.open(jar);
+            pluginClassLoader.addOpenArchive(archive);
+            pluginClassLoader.addArchive(archive, "", jar.toUri().toString());
+        } catch (IOException e) {
+            throw new PluginRuntimeException(e, "Cannot read jar '{}'", jar);
+        }
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package org.pf4j;
 
+import org.pf4j.util.DirectoryListingCache;
 import org.pf4j.util.FileUtils;
 
 import java.io.File;
@@ -25,6 +26,7 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +40,7 @@ public class BasePluginRepository implements PluginRepository {
 
     protected FileFilter filter;
     protected Comparator<File> comparator;
+    protected DirectoryListingCache directoryListingCache = new DirectoryListingCache();
 
     public BasePluginRepository(Path... pluginsRoots) {
         this(Arrays.asList(pluginsRoots));
@@ -69,6 +72,21 @@ public class BasePluginRepository implements PluginRepository {
         this.comparator = comparator;
     }
 
+    public DirectoryListingCache getDirectoryListingCache() {
+        return directoryListingCache;
+    }
+
+    /**
+     * Set the cache of the listings of the plugins roots.
+     * The repositories that list the same plugins roots can share a cache, so each root is read once
+     * (see {@link CompoundPluginRepository#add(PluginRepository)}).
+     *
+     * @param directoryListingCache the cache
+     */
+    public void setDirectoryListingCache(DirectoryListingCache directoryListingCache) {
+        this.directoryListingCache = Objects.requireNonNull(directoryListingCache, "directoryListingCache cannot be null");
+    }
+
     @Override
     public List<Path> getPluginPaths() {
         return pluginsRoots.stream()
@@ -94,11 +112,16 @@ public class BasePluginRepository implements PluginRepository {
         }
     }
 
+    /**
+     * Returns the files of a directory accepted by the filter.
+     * The files come from the {@link #getDirectoryListingCache() cache}, so the filter and the comparator
+     * read the attributes of the files without accessing the file system.
+     */
     protected Stream<File> streamFiles(Path directory, FileFilter filter) {
-        File[] files = directory.toFile().listFiles(filter);
-        return files != null
-            ? Arrays.stream(files)
-            : Stream.empty();
+        Stream<File> files = directoryListingCache.list(directory).stream();
+        return (filter != null)
+            ? files.filter(filter::accept)
+            : files;
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores the lists of classes loaded by the plugins during a training run (see
+ * {@link PluginClassLoader#setRecordingLoadedClasses(boolean)}), one file per plugin, keyed by the hash of the plugin
+ * content ({@code <pluginId>-<sha256>.classlist}). A class list is ignored when the plugin changes.
+ * <p>
+ * The class lists are the input for the warm-up of the plugins, and for the class data sharing (CDS) of the JVM.
+ * The JVM (13+) archives the classes defined by {@link PluginClassLoader} from jar files on disk, when the training run
+ * is started with {@code -XX:ArchiveClassesAtExit=plugins.jsa}; the next runs, started with
+ * {@code -XX:SharedArchiveFile=plugins.jsa}, reuse the parsed and verified classes of the archive when a plugin
+ * defines a class with the same bytes (an unchanged jar), and parse only the classes of the changed plugins.
+ * Loading the classes of the class list early makes sure that the archived classes are used before the first request.
+ * <p>
+ * The file format is the one of the JDK class lists ({@code -XX:DumpLoadedClassList}):
+ * one class name per line, with {@code /} as package separator.
+ * <p>
+ * The hash of a plugin is computed once and cached, keyed by the path, the size and the last modification time
+ * of the plugin (the sum of the sizes and the latest modification time of its files for a directory).
+ */
+public class ClassListStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassListStore.class);
+
+    public static final String FILE_EXTENSION = ".classlist";
+
+    private final Path directory;
+    private final Map<Path, PluginHash> pluginHashes = new ConcurrentHashMap<>();
+
+    public ClassListStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the class list file for the current content of the plugin.
+     *
+     * @param plugin the plugin
+     * @return the class list file (it may not exist)
+     * @throws IOException if the plugin content cannot be read
+     */
+    public Path getClassListFile(PluginWrapper plugin) throws IOException {
+        return directory.resolve(plugin.getPluginId() + "-" + getPluginHash(plugin.getPluginPath()) + FILE_EXTENSION);
+    }
+
+    /**
+     * Returns {@code true} if a class list exists for the current content of the plugin.
+     */
+    public boolean contains(PluginWrapper plugin) throws IOException {
+        return Files.exists(getClassListFile(plugin));
+    }
+
+    /**
+     * Reads the class list of the plugin.
+     *
+     * @param plugin the plugin
+     * @return the binary names of the classes in load order, or an empty list if there is no class list for
+     *     the current content of the plugin
+     * @throws IOException if the plugin content or the class list cannot be read
+     */
+    public List<String> read(PluginWrapper plugin) throws IOException {
+        Path file = getClassListFile(plugin);
+        if (Files.notExists(file)) {
+            return Collections.emptyList();
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> classNames = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                classNames.add(line.replace('/', '.'));
+            }
+        }
+
+        return classNames;
+    }
+
+    /**
+     * Writes the classes recorded by the class loader of the plugin, and deletes the class lists
+     * of the previous contents of the plugin.
+     *
+     * @param plugin the plugin
+     * @return the class list file, or {@code null} if the class loader of the plugin has no recorded classes
+     * @throws IOException if the class list cannot be written
+     */
+    public Path write(PluginWrapper plugin) throws IOException {
+        if (!(plugin.getPluginClassLoader() instanceof PluginClassLoader)) {
+            return null;
+        }
+
+        List<String> classNames = ((PluginClassLoader) plugin.getPluginClassLoader()).getRecordedClassNames();
+        if (classNames.isEmpty()) {
+            return null;
+        }
+
+        Set<String> lines = new LinkedHashSet<>(classNames.size());
+        for (String className : classNames) {
+            lines.add(className.replace('.', '/'));
+        }
+
+        Files.createDirectories(directory);
+        Path file = getClassListFile(plugin);
+        deleteClassLists(plugin.getPluginId());
+        FileUtils.writeLines(lines, file);
+        log.debug("Wrote {} classes of plugin '{}' in '{}'", lines.size(), plugin.getPluginId(), file);
+
+        return file;
+    }
+
+    private String getPluginHash(Path pluginPath) throws IOException {
+        long size;
+        long lastModified;
+        if (Files.isDirectory(pluginPath)) {
+            size = 0;
+            lastModified = 0;
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(pluginPath)) {
+                files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                size += Files.size(file);
+                lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+            }
+        } else {
+            size = Files.size(pluginPath);
+            lastModified = Files.getLastModifiedTime(pluginPath).toMillis();
+        }
+
+        PluginHash pluginHash = pluginHashes.get(pluginPath);
+        if ((pluginHash == null) || (pluginHash.size != size) || (pluginHash.lastModified != lastModified)) {
+            pluginHash = new PluginHash(FileUtils.hash(pluginPath), size, lastModified);
+            pluginHashes.put(pluginPath, pluginHash);
+        }
+
+        return pluginHash.hash;
+    }
+
+    private void deleteClassLists(String pluginId) throws IOException {
+        // exactly <pluginId>-<sha256>.classlist, not the class lists of a plugin with the id '<pluginId>-...'
+        Pattern pattern = Pattern.compile(Pattern.quote(pluginId) + "-[0-9a-f]{64}" + Pattern.quote(FILE_EXTENSION));
+        DirectoryStream.Filter<Path> filter = file -> pattern.matcher(file.getFileName().toString()).matches();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, filter)) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static class PluginHash {
+
+        private final String hash;
+        private final long size;
+        private final long lastModified;
+
+        PluginHash(String hash, long size, long lastModified) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the class loaders of the unloaded plugins and reports the class loaders
+ * that are still alive after a number of garbage collections.
+ * Such a class loader is leaked: something (a thread local, a static cache of the application,
+ * a listener, a running thread) still references it, and it keeps all the classes of the plugin
+ * (and their metaspace) alive.
+ * <p>
+ * The detector holds only weak references, so it doesn't prevent the class loaders from being collected.
+ * It's opt-in, see {@link AbstractPluginManager#setClassLoaderLeakDetector(ClassLoaderLeakDetector)}.
+ * Only the old generation or full garbage collections are counted, the young collections don't unload classes.
+ * The collections are counted with the {@code java.management} module; without it, no leak is reported.
+ * A leak is logged (once) the first time it's detected by {@link #getLeaks()},
+ * and the number of leaks is exposed by the {@link PluginMetrics#LEAKED_CLASS_LOADERS} gauge.
+ */
+public class ClassLoaderLeakDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassLoaderLeakDetector.class);
+
+    public static final int DEFAULT_GC_THRESHOLD = 3;
+
+    private static volatile boolean gcCountUnavailable;
+
+    private final int gcThreshold;
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<>();
+    private final Set<TrackedClassLoader> trackedClassLoaders = ConcurrentHashMap.newKeySet();
+
+    public ClassLoaderLeakDetector() {
+        this(DEFAULT_GC_THRESHOLD);
+    }
+
+    /**
+     * @param gcThreshold the number of garbage collections that an unloaded class loader
+     *                    must survive to be reported as leaked
+     */
+    public ClassLoaderLeakDetector(int gcThreshold) {
+        if (gcThreshold < 1) {
+            throw new IllegalArgumentException("gcThreshold must be positive");
+        }
+
+        this.gcThreshold = gcThreshold;
+    }
+
+    public int getGcThreshold() {
+        return gcThreshold;
+    }
+
+    /**
+     * Starts tracking the class loader of an unloaded plugin.
+     *
+     * @param pluginId the id of the plugin
+     * @param classLoader the class loader of the plugin (it's closed)
+     */
+    public void track(String pluginId, ClassLoader classLoader) {
+        expungeCollected();
+        trackedClassLoaders.add(new TrackedClassLoader(pluginId, classLoader, queue));
+    }
+
+    /**
+     * Returns the number of tracked class loaders that are not collected yet (leaked or not).
+     */
+    public int getTrackedCount() {
+        expungeCollected();
+
+        return trackedClassLoaders.size();
+    }
+
+    /**
+     * Returns the tracked class loaders that survived at least {@link #getGcThreshold()} garbage collections,
+     * the oldest first.
+     */
+    public List<Leak> getLeaks() {
+        expungeCollected();
+
+        long gcCount = getGcCount();
+        long now = System.nanoTime();
+        List<Leak> leaks = new ArrayList<>();
+        for (TrackedClassLoader tracked : trackedClassLoaders) {
+            long survivedGcs = gcCount - tracked.gcCount;
+            if (survivedGcs >= gcThreshold && tracked.get() != null) {
+                Leak leak = new Leak(tracked.pluginId, Duration.ofNanos(now - tracked.unloadTime), survivedGcs);
+                if (!tracked.reported) {
+                    tracked.reported = true;
+                    log.warn("Class loader of unloaded plugin '{}' is still alive after {} garbage collections ({} ms)",
+                        leak.getPluginId(), leak.getGcCount(), leak.getAge().toMillis());
+                }
+                leaks.add(leak);
+            }
+        }
+        leaks.sort(Comparator.comparing(Leak::getAge).reversed());
+
+        return leaks;
+    }
+
+    /**
+     * Stops tracking all class loaders.
+     */
+    public void clear() {
+        trackedClassLoaders.clear();
+    }
+
+    private void expungeCollected() {
+        Object reference;
+        while ((reference = queue.poll()) != null) {
+            trackedClassLoaders.remove(reference);
+        }
+    }
+
+    /**
+     * Returns the number of old generation or full garbage collections since the JVM start,
+     * the only ones that collect the classes, or {@code 0} if the {@code java.management} module is not available.
+     */
+    private static long getGcCount() {
+        if (gcCountUnavailable) {
+            return 0;
+        }
+
+        try {
+            return GcCounter.getCount();
+        } catch (LinkageError e) {
+            // "requires static java.management", the module is not in the module graph
+            gcCountUnavailable = true;
+            log.warn("Cannot count the garbage collections, the module 'java.management' is not available");
+            return 0;
+        }
+    }
+
+    /**
+     * A class loader of an unloaded plugin that is still alive.
+     */
+    public static class Leak {
+
+        private final String pluginId;
+        private final Duration age;
+        private final long gcCount;
+
+        Leak(String pluginId, Duration age, long gcCount) {
+            this.pluginId = pluginId;
+            this.age = age;
+            this.gcCount = gcCount;
+        }
+
+        public String getPluginId() {
+            return pluginId;
+        }
+
+        /**
+         * Returns the time since the plugin was unloaded.
+         */
+        public Duration getAge() {
+            return age;
+        }
+
+        /**
+         * Returns the number of garbage collections since the plugin was unloaded.
+         */
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Leak [pluginId=" + pluginId + ", age=" + age + ", gcCount=" + gcCount + "]";
+        }
+
+    }
+
+    /**
+     * Uses the {@code java.management} API, it's loaded only when the garbage collections are counted.
+     */
+    private static class GcCounter {
+
+        /**
+         * The young generation collectors, and the pauses beans that count the same cycles as the cycles beans.
+         * The classes are unloaded only by the old generation or full collections.
+         */
+        private static final Set<String> YOUNG_COLLECTORS = new HashSet<>(Arrays.asList(
+            "Copy", "PS Scavenge", "ParNew", "G1 Young Generation", "ZGC Minor Cycles"));
+
+        static long getCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                String name = gc.getName();
+                if (!YOUNG_COLLECTORS.contains(name) && !name.endsWith("Pauses")) {
+                    count += Math.max(0, gc.getCollectionCount());
+                }
+            }
+
+            return count;
+        }
+
+    }
+
+    private static class TrackedClassLoader extends WeakReference<ClassLoader> {
+
+        private final String pluginId;
+        private final long unloadTime = System.nanoTime();
+        private final long gcCount = getGcCount();
+        private volatile boolean reported;
+
+        TrackedClassLoader(String pluginId, ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+            super(classLoader, queue);
+            this.pluginId = pluginId;
+        }
+
+    }
+
+}
@@ -21,15 +21,25 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
+ * A {@link PluginDescriptorFinder} that delegates to a list of {@link PluginDescriptorFinder}s.
+ * <p>
+ * The applicable finders whose descriptor is present (see {@link PluginDescriptorFinder#hasDescriptor(Path)})
+ * are tried first, in order, so a plugin descriptor is usually read by the first finder tried,
+ * without reading (and failing on) the other descriptors.
+ * The other applicable finders are tried after them, in order.
+ * <p>
+ * It's thread safe if the finders are thread safe (the finders of PF4J are stateless).
+ *
  * @author Decebal Suiu
  */
 public class CompoundPluginDescriptorFinder implements PluginDescriptorFinder {
 
     private static final Logger log = LoggerFactory.getLogger(CompoundPluginDescriptorFinder.class);
 
-    private List<PluginDescriptorFinder> finders = new ArrayList<>();
+    private final List<PluginDescriptorFinder> finders = new CopyOnWriteArrayList<>();
 
     public CompoundPluginDescriptorFinder add(PluginDescriptorFinder finder) {
         if (finder == null) {
@@ -58,30 +68,62 @@ public class CompoundPluginDescriptorFinder implements PluginDescriptorFinder {
 
     @Override
     public PluginDescriptor find(Path pluginPath) {
-        for (PluginDescriptorFinder finder : finders) {
-            if (finder.isApplicable(pluginPath)) {
-                log.debug("'{}' is applicable for plugin '{}'", finder, pluginPath);
-                try {
-                    PluginDescriptor pluginDescriptor = finder.find(pluginPath);
-                    if (pluginDescriptor != null) {
-                        return pluginDescriptor;
-                    }
-                } catch (Exception e) {
-                    if (finders.indexOf(finder) == finders.size() - 1) {
-                        // it's the last finder
-                        log.error(e.getMessage(), e);
-                    } else {
-                        // log the exception and continue with the next finder
-                        log.debug(e.getMessage());
-                        log.debug("Try to continue with the next finder");
-                    }
+        List<PluginDescriptorFinder> candidates = getCandidates(pluginPath);
+        for (int i = 0; i < candidates.size(); i++) {
+            PluginDescriptorFinder finder = candidates.get(i);
+            try {
+                PluginDescriptor pluginDescriptor = finder.find(pluginPath);
+                if (pluginDescriptor != null) {
+                    return pluginDescriptor;
+                }
+            } catch (Exception e) {
+                if (i == candidates.size() - 1) {
+                    // it's the last finder
+                    log.error(e.getMessage(), e);
+                } else {
+                    // log the exception and continue with the next finder
+                    log.debug(e.getMessage());
+                    log.debug("Try to continue with the next finder");
                 }
-            } else {
-                log.debug("'{}' is not applicable for plugin '{}'", finder, pluginPath);
             }
         }
 
         throw new PluginRuntimeException("No PluginDescriptorFinder for plugin '{}'", pluginPath);
     }
 
+    /**
+     * Returns the applicable finders, the finders whose descriptor is present first.
+     */
+    private List<PluginDescriptorFinder> getCandidates(Path pluginPath) {
+        List<PluginDescriptorFinder> candidates = new ArrayList<>(finders.size());
+        List<PluginDescriptorFinder> others = new ArrayList<>(finders.size());
+        for (PluginDescriptorFinder finder : finders) {
+            if (!finder.isApplicable(pluginPath)) {
+                log.debug("'{}' is not applicable for plugin '{}'", finder, pluginPath);
+            } else if (hasDescriptor(finder, pluginPath)) {
+                log.debug("'{}' has a descriptor for plugin '{}'", finder, pluginPath);
+                candidates.add(finder);
+            } else {
+                log.debug("'{}' is applicable for plugin '{}'", finder, pluginPath);
+                others.add(finder);
+            }
+        }
+        candidates.addAll(others);
+
+        return candidates;
+    }
+
+    /**
+     * Probes the descriptor of a finder. If the probe fails, the finder is tried first, so its
+     * {@link PluginDescriptorFinder#find(Path)} reports the error (in the guarded loop of {@link #find(Path)}).
+     */
+    private static boolean hasDescriptor(PluginDescriptorFinder finder, Path pluginPath) {
+        try {
+            return finder.hasDescriptor(pluginPath);
+        } catch (Exception e) {
+            log.debug("Cannot probe the descriptor of plugin '{}' with '{}': {}", pluginPath, finder, e.getMessage());
+            return true;
+        }
+    }
+
 }
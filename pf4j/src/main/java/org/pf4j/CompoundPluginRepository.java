@@ -15,6 +15,8 @@
  */
 package org.pf4j;
 
+import org.pf4j.util.DirectoryListingCache;
+
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -34,12 +36,24 @@ import java.util.function.BooleanSupplier;
 public class CompoundPluginRepository implements PluginRepository {
 
     private final List<PluginRepository> repositories = new ArrayList<>();
+    private final DirectoryListingCache directoryListingCache = new DirectoryListingCache();
 
+    /**
+     * Add a {@link PluginRepository}.
+     * The {@link BasePluginRepository}s share the same {@link DirectoryListingCache},
+     * so the plugins roots listed by more than one repository are read once.
+     *
+     * @param repository the {@link PluginRepository} to add
+     * @return this {@link CompoundPluginRepository}
+     */
     public CompoundPluginRepository add(PluginRepository repository) {
         if (repository == null) {
             throw new IllegalArgumentException("null not allowed");
         }
 
+        if (repository instanceof BasePluginRepository) {
+            ((BasePluginRepository) repository).setDirectoryListingCache(directoryListingCache);
+        }
         repositories.add(repository);
 
         return this;
@@ -21,12 +21,14 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Default implementation of the {@link PluginManager} interface.
  * In essence, it is a {@link ZipPluginManager} plus a {@link JarPluginManager}.
  * So, it can load plugins from jar and zip, simultaneous.
+ * The zip files are expanded on disk, unless {@link #isExpandZip()} returns {@code false}.
  *
  * <p>This class is not thread-safe.
  *
@@ -37,6 +39,11 @@ public class DefaultPluginManager extends AbstractPluginManager {
     private static final Logger log = LoggerFactory.getLogger(DefaultPluginManager.class);
 
     public static final String PLUGINS_DIR_CONFIG_PROPERTY_NAME = "pf4j.pluginsConfigDir";
+    public static final String EXPAND_ZIP_PROPERTY_NAME = "pf4j.expandZip";
+    public static final String INDEXED_JARS_PROPERTY_NAME = "pf4j.indexedJars";
+    public static final String SHARED_LIBRARIES_PROPERTY_NAME = "pf4j.sharedLibraries";
+
+    private SharedLibraryRegistry sharedLibraryRegistry; // created lazily, from createPluginLoader()
 
     public DefaultPluginManager() {
         super();
@@ -52,9 +59,15 @@ public class DefaultPluginManager extends AbstractPluginManager {
 
     @Override
     protected PluginDescriptorFinder createPluginDescriptorFinder() {
+        PropertiesPluginDescriptorFinder propertiesPluginDescriptorFinder = new PropertiesPluginDescriptorFinder();
+        propertiesPluginDescriptorFinder.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
+        ManifestPluginDescriptorFinder manifestPluginDescriptorFinder = new ManifestPluginDescriptorFinder();
+        manifestPluginDescriptorFinder.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
         return new CompoundPluginDescriptorFinder()
-            .add(new PropertiesPluginDescriptorFinder())
-            .add(new ManifestPluginDescriptorFinder());
+            .add(propertiesPluginDescriptorFinder)
+            .add(manifestPluginDescriptorFinder);
     }
 
     @Override
@@ -92,15 +105,28 @@ public class DefaultPluginManager extends AbstractPluginManager {
         return new CompoundPluginRepository()
             .add(new DevelopmentPluginRepository(getPluginsRoots()), this::isDevelopment)
             .add(new JarPluginRepository(getPluginsRoots()), this::isNotDevelopment)
-            .add(new DefaultPluginRepository(getPluginsRoots()), this::isNotDevelopment);
+            .add(new DefaultPluginRepository(getPluginsRoots(), isExpandZip()), this::isNotDevelopment)
+            .add(new ZipPluginRepository(getPluginsRoots()), () -> isNotDevelopment() && !isExpandZip());
     }
 
     @Override
     protected PluginLoader createPluginLoader() {
+        JarPluginLoader jarPluginLoader = new JarPluginLoader(this);
+        jarPluginLoader.setIndexedJars(isIndexedJars());
+        jarPluginLoader.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
+        DefaultPluginLoader defaultPluginLoader = new DefaultPluginLoader(this);
+        defaultPluginLoader.setIndexedJars(isIndexedJars());
+        defaultPluginLoader.setSharedLibraryRegistry(getSharedLibraryRegistry());
+
+        ZipPluginLoader zipPluginLoader = new ZipPluginLoader(this);
+        zipPluginLoader.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
         return new CompoundPluginLoader()
             .add(new DevelopmentPluginLoader(this), this::isDevelopment)
-            .add(new JarPluginLoader(this), this::isNotDevelopment)
-            .add(new DefaultPluginLoader(this), this::isNotDevelopment);
+            .add(jarPluginLoader, this::isNotDevelopment)
+            .add(defaultPluginLoader, this::isNotDevelopment)
+            .add(zipPluginLoader, this::isNotDevelopment);
     }
 
     @Override
@@ -120,7 +146,64 @@ public class DefaultPluginManager extends AbstractPluginManager {
     }
 
     /**
-     * Load a plugin from disk. If the path is a zip file, first unpack.
+     * Returns {@code true} if the plugin zip files are expanded (extracted) on disk before they are loaded.
+     * Otherwise, the plugins are loaded directly from the zip files by {@link ZipPluginLoader}.
+     * The value is supplied by {@code System.getProperty("pf4j.expandZip", "true")}.
+     *
+     * @return {@code true} if the plugin zip files are expanded
+     */
+    protected boolean isExpandZip() {
+        return Boolean.parseBoolean(System.getProperty(EXPAND_ZIP_PROPERTY_NAME, "true"));
+    }
+
+    /**
+     * Returns {@code true} if the jar plugins and the jars of the (expanded) plugins are memory-mapped and indexed
+     * (see {@link BasePluginLoader#setIndexedJars(boolean)} and {@link JarPluginLoader#setIndexedJars(boolean)}).
+     * The value is supplied by {@code System.getProperty("pf4j.indexedJars", "false")}.
+     *
+     * @return {@code true} if the jars of the plugins are indexed
+     */
+    protected boolean isIndexedJars() {
+        return Boolean.parseBoolean(System.getProperty(INDEXED_JARS_PROPERTY_NAME, "false"));
+    }
+
+    /**
+     * The plugin files are shared only if the loaders memory-map them anyway
+     * (the jars are indexed or the zip files are not expanded).
+     */
+    @Override
+    protected boolean isPluginArchiveShared() {
+        return isIndexedJars() || !isExpandZip();
+    }
+
+    /**
+     * Returns the registry used to share the identical library jars of the plugins,
+     * or {@code null} if the libraries are not shared (the default).
+     * The libraries are shared if {@code System.getProperty("pf4j.sharedLibraries")} lists the names of the jars
+     * to share, as comma-separated glob patterns (for example {@code guava-*.jar,failureaccess-*.jar}).
+     *
+     * @return the registry of the shared libraries, or {@code null}
+     * @see SharedLibraryRegistry
+     */
+    protected SharedLibraryRegistry getSharedLibraryRegistry() {
+        if (sharedLibraryRegistry == null) {
+            List<String> jarNames = new ArrayList<>();
+            for (String jarName : System.getProperty(SHARED_LIBRARIES_PROPERTY_NAME, "").split(",")) {
+                jarName = jarName.trim();
+                if (!jarName.isEmpty()) {
+                    jarNames.add(jarName);
+                }
+            }
+            if (!jarNames.isEmpty()) {
+                sharedLibraryRegistry = new SharedLibraryRegistry(DefaultPluginLoader.class.getClassLoader(), jarNames);
+            }
+        }
+
+        return sharedLibraryRegistry;
+    }
+
+    /**
+     * Load a plugin from disk. If the path is a zip file, first unpack (see {@link #isExpandZip()}).
      *
      * @param pluginPath plugin location on disk
      * @return PluginWrapper for the loaded plugin or null if not loaded
@@ -129,14 +212,41 @@ public class DefaultPluginManager extends AbstractPluginManager {
     @Override
     protected PluginWrapper loadPluginFromPath(Path pluginPath) {
         // First unzip any ZIP files
-        try {
-            pluginPath = FileUtils.expandIfZip(pluginPath);
-        } catch (Exception e) {
-            log.warn("Failed to unzip " + pluginPath, e);
-            return null;
+        if (isExpandZip()) {
+            try {
+                pluginPath = FileUtils.expandIfZip(pluginPath);
+            } catch (Exception e) {
+                log.warn("Failed to unzip " + pluginPath, e);
+                return null;
+            }
         }
 
         return super.loadPluginFromPath(pluginPath);
     }
 
+    /**
+     * Reload a plugin from disk. If the path is a zip file, first unpack.
+     * <p>
+     * Use a zip with a different name (for example, a name that contains the version) than the zip
+     * of the current version, otherwise the directory of the current version is overwritten while it's in use.
+     *
+     * @param pluginId the unique plugin identifier, specified in its metadata
+     * @param pluginPath plugin location on disk
+     * @return the plugin state after reload
+     * @throws PluginRuntimeException if problems during reload
+     */
+    @Override
+    public PluginState reloadPlugin(String pluginId, Path pluginPath) {
+        // First unzip any ZIP files
+        if (isExpandZip()) {
+            try {
+                pluginPath = FileUtils.expandIfZip(pluginPath);
+            } catch (Exception e) {
+                throw new PluginRuntimeException(e, "Failed to unzip '{}'", pluginPath);
+            }
+        }
+
+        return super.reloadPlugin(pluginId, pluginPath);
+    }
+
 }
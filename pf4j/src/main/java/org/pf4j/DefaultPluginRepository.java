@@ -39,13 +39,25 @@ public class DefaultPluginRepository extends BasePluginRepository {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultPluginRepository.class);
 
+    private final boolean expandZips;
+
     public DefaultPluginRepository(Path... pluginsRoots) {
         this(Arrays.asList(pluginsRoots));
     }
 
     public DefaultPluginRepository(List<Path> pluginsRoots) {
+        this(pluginsRoots, true);
+    }
+
+    /**
+     * @param pluginsRoots the plugins roots
+     * @param expandZips if {@code true}, the plugin zip files are expanded before the plugin directories are listed
+     */
+    public DefaultPluginRepository(List<Path> pluginsRoots, boolean expandZips) {
         super(pluginsRoots);
 
+        this.expandZips = expandZips;
+
         AndFileFilter pluginsFilter = new AndFileFilter(new DirectoryFileFilter());
         pluginsFilter.addFileFilter(new NotFileFilter(createHiddenPluginFilter()));
         setFilter(pluginsFilter);
@@ -53,7 +65,9 @@ public class DefaultPluginRepository extends BasePluginRepository {
 
     @Override
     public List<Path> getPluginPaths() {
-        extractZipFiles();
+        if (expandZips) {
+            extractZipFiles();
+        }
         return super.getPluginPaths();
     }
 
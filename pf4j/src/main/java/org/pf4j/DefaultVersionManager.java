@@ -17,16 +17,41 @@ package org.pf4j;
 
 import com.github.zafarkhaja.semver.Version;
 import com.github.zafarkhaja.semver.expr.Expression;
+import com.github.zafarkhaja.semver.expr.ExpressionParser;
 import org.pf4j.util.StringUtils;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * Default implementation for {@link VersionManager}.
  * This implementation uses jSemVer (a Java implementation of the SemVer Specification).
+ * <p>
+ * The parsed versions and the compiled constraints are kept in bounded (LRU) caches,
+ * because the same strings are checked again on each dependencies resolve.
  *
  * @author Decebal Suiu
  */
 public class DefaultVersionManager implements VersionManager {
 
+    public static final int DEFAULT_CACHE_SIZE = 512;
+
+    private final Cache<String, Version> versions;
+    private final Cache<String, Expression> constraints;
+
+    public DefaultVersionManager() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize the maximum number of versions (and constraints) kept in cache; zero disables the cache
+     */
+    public DefaultVersionManager(int cacheSize) {
+        versions = new Cache<>(cacheSize);
+        constraints = new Cache<>(cacheSize);
+    }
+
     /**
      * Checks if a version satisfies the specified SemVer {@link Expression} string.
      * If the constraint is empty or null then the method returns true.
@@ -39,12 +64,60 @@ public class DefaultVersionManager implements VersionManager {
      */
     @Override
     public boolean checkVersionConstraint(String version, String constraint) {
-        return StringUtils.isNullOrEmpty(constraint) || "*".equals(constraint) || Version.parse(version).satisfies(constraint);
+        return StringUtils.isNullOrEmpty(constraint) || "*".equals(constraint) || parseVersion(version).satisfies(parseConstraint(constraint));
     }
 
     @Override
     public int compareVersions(String v1, String v2) {
-        return Version.parse(v1).compareTo(Version.parse(v2));
+        return parseVersion(v1).compareTo(parseVersion(v2));
+    }
+
+    /**
+     * Parses a version string, using the cache.
+     *
+     * @param version the version string
+     * @return the parsed version
+     */
+    protected Version parseVersion(String version) {
+        return versions.get(version, Version::parse);
+    }
+
+    /**
+     * Parses (compiles) a SemVer {@link Expression} string, using the cache.
+     *
+     * @param constraint the constraint string
+     * @return the compiled expression
+     */
+    protected Expression parseConstraint(String constraint) {
+        return constraints.get(constraint, expression -> ExpressionParser.newInstance().parse(expression));
+    }
+
+    /**
+     * A thread safe LRU cache. The values that cannot be computed (parse exceptions) are not cached.
+     */
+    private static class Cache<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxSize;
+
+        Cache(int maxSize) {
+            super(16, 0.75f, true);
+
+            this.maxSize = maxSize;
+        }
+
+        synchronized V get(K key, Function<? super K, ? extends V> mappingFunction) {
+            if (maxSize <= 0) {
+                return mappingFunction.apply(key);
+            }
+
+            return computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+
     }
 
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DelegationPolicy} decides, by package, which classes a {@link PluginClassLoader} delegates
+ * to the system or to the parent class loader, before its {@link ClassLoadingStrategy} is applied.
+ * <p>
+ * The packages are compiled in a trie (one node per package segment), so a decision costs one walk
+ * over the package segments of the class name, without allocation; the most specific package wins.
+ * The {@link #DEFAULT} policy delegates:
+ * <ul>
+ * <li>{@code java.*} to the system class loader</li>
+ * <li>{@code jdk.*}, {@code sun.*} and {@code org.pf4j.*} (the plugin engine) to the parent class loader,
+ * except {@code org.pf4j.test.*} (test utilities that are part of the plugins)</li>
+ * </ul>
+ * Use {@link #builder()} to add packages, for example the packages of the application API
+ * (always loaded by the parent) or {@code javax.*}:
+ * <pre>{@code
+ * DelegationPolicy policy = DelegationPolicy.builder()
+ *     .parent("javax.xml", "com.example.api")
+ *     .build();
+ * pluginClassLoader.setDelegationPolicy(policy);
+ * }</pre>
+ */
+public class DelegationPolicy {
+
+    public static final DelegationPolicy DEFAULT = builder().build();
+
+    private final Node root;
+
+    private DelegationPolicy(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a builder that contains the rules of the {@link #DEFAULT} policy.
+     */
+    public static Builder builder() {
+        return new Builder()
+            .system("java")
+            .parent("jdk", "sun", "org.pf4j")
+            .strategy("org.pf4j.test");
+    }
+
+    /**
+     * Returns the delegation of the class with the specified name (the rule of its most specific package).
+     *
+     * @param className the binary name of the class
+     * @return the delegation
+     */
+    public Delegation getDelegation(String className) {
+        Node node = root;
+        Delegation delegation = root.delegation;
+        int start = 0;
+        int end;
+        // the last segment is the simple name of the class
+        while (node.segments.length > 0 && (end = className.indexOf('.', start)) >= 0) {
+            node = node.getChild(className, start, end - start);
+            if (node == null) {
+                break;
+            }
+            if (node.delegation != null) {
+                delegation = node.delegation;
+            }
+            start = end + 1;
+        }
+
+        return delegation;
+    }
+
+    public enum Delegation {
+
+        /**
+         * Load the class with the system class loader.
+         */
+        SYSTEM,
+
+        /**
+         * Load the class with the parent class loader.
+         */
+        PARENT,
+
+        /**
+         * Load the class using the {@link ClassLoadingStrategy} of the plugin class loader.
+         */
+        STRATEGY
+
+    }
+
+    /**
+     * Builder for {@link DelegationPolicy}.
+     */
+    public static class Builder {
+
+        private final Map<String, Delegation> rules = new LinkedHashMap<>();
+
+        /**
+         * Delegates the classes of the packages (and subpackages) to the system class loader.
+         */
+        public Builder system(String... packageNames) {
+            return add(Delegation.SYSTEM, packageNames);
+        }
+
+        /**
+         * Delegates the classes of the packages (and subpackages) to the parent class loader.
+         */
+        public Builder parent(String... packageNames) {
+            return add(Delegation.PARENT, packageNames);
+        }
+
+        /**
+         * Loads the classes of the packages (and subpackages) using the {@link ClassLoadingStrategy}.
+         * It's useful to exclude subpackages of a package that is delegated to the parent.
+         */
+        public Builder strategy(String... packageNames) {
+            return add(Delegation.STRATEGY, packageNames);
+        }
+
+        public DelegationPolicy build() {
+            MutableNode root = new MutableNode();
+            root.delegation = Delegation.STRATEGY;
+            for (Map.Entry<String, Delegation> rule : rules.entrySet()) {
+                MutableNode node = root;
+                for (String segment : rule.getKey().split("\\.")) {
+                    node = node.children.computeIfAbsent(segment, key -> new MutableNode());
+                }
+                node.delegation = rule.getValue();
+            }
+
+            return new DelegationPolicy(root.compile());
+        }
+
+        private Builder add(Delegation delegation, String... packageNames) {
+            for (String packageName : packageNames) {
+                String name = packageName.endsWith(".") ? packageName.substring(0, packageName.length() - 1) : packageName;
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Empty package name");
+                }
+                rules.remove(name); // the last rule of a package wins
+                rules.put(name, delegation);
+            }
+
+            return this;
+        }
+
+    }
+
+    private static class MutableNode {
+
+        private final Map<String, MutableNode> children = new LinkedHashMap<>();
+        private Delegation delegation;
+
+        Node compile() {
+            List<String> segments = new ArrayList<>(children.keySet());
+            Node[] nodes = new Node[segments.size()];
+            int i = 0;
+            for (MutableNode child : children.values()) {
+                nodes[i++] = child.compile();
+            }
+
+            return new Node(segments.toArray(new String[0]), nodes, delegation);
+        }
+
+    }
+
+    private static class Node {
+
+        private final String[] segments;
+        private final Node[] children;
+        private final Delegation delegation;
+
+        Node(String[] segments, Node[] children, Delegation delegation) {
+            this.segments = segments;
+            this.children = children;
+            this.delegation = delegation;
+        }
+
+        Node getChild(String className, int offset, int length) {
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == length && className.regionMatches(offset, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+}
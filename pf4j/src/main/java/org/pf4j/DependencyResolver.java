@@ -17,13 +17,15 @@ package org.pf4j;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.pf4j.util.DirectedGraph;
+import org.pf4j.util.IndexedDirectedGraph;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class builds a dependency graph for a list of plugins (descriptors).
@@ -34,6 +36,9 @@ import java.util.Map;
  * <p>
  * Only some attributes (pluginId, dependencies and pluginVersion) from {@link PluginDescriptor} are used in
  * the process of {@code resolve} operation.
+ * <p>
+ * After a {@code resolve}, single plugins can be added or removed with {@link #addPlugin(PluginDescriptor)}
+ * and {@link #removePlugin(String)}, that update only the affected part of the graph.
  *
  * @author Decebal Suiu
  */
@@ -43,12 +48,21 @@ public class DependencyResolver {
 
     private final VersionManager versionManager;
 
-    private DirectedGraph<String> dependenciesGraph; // the value is 'pluginId'
-    private DirectedGraph<String> dependentsGraph; // the value is 'pluginId'
+    // the edges go from dependent to dependency, the reverse edges go from dependency to dependent
+    private IndexedDirectedGraph<String> graph; // the value is 'pluginId'
     private boolean resolved;
 
+    // the state of the last resolve operation, updated by the incremental operations
+    private final Map<String, PluginDescriptor> pluginByIds = new HashMap<>();
+    private final Set<String> sortedPlugins = new LinkedHashSet<>(); // the value is 'pluginId'
+    private final Set<String> notFoundDependencies = new LinkedHashSet<>(); // the value is 'pluginId'
+    private final List<WrongDependencyVersion> wrongVersionDependencies = new ArrayList<>();
+    private boolean cyclicDependency;
+
     public DependencyResolver(VersionManager versionManager) {
         this.versionManager = versionManager;
+
+        graph = new IndexedDirectedGraph<>();
     }
 
     /**
@@ -58,33 +72,35 @@ public class DependencyResolver {
      * @return a {@link Result} object
      */
     public Result resolve(List<PluginDescriptor> plugins) {
-        // create graphs
-        dependenciesGraph = new DirectedGraph<>();
-        dependentsGraph = new DirectedGraph<>();
+        // create graph
+        graph = new IndexedDirectedGraph<>();
 
-        // populate graphs
-        Map<String, PluginDescriptor> pluginByIds = new HashMap<>();
+        // populate graph
+        pluginByIds.clear();
         for (PluginDescriptor plugin : plugins) {
-            addPlugin(plugin);
+            addToGraph(plugin);
             pluginByIds.put(plugin.getPluginId(), plugin);
         }
 
-        log.debug("Graph: {}", dependenciesGraph);
+        log.debug("Graph: {}", graph);
 
         // get a sorted list of dependencies
-        List<String> sortedPlugins = dependenciesGraph.reverseTopologicalSort();
+        List<String> sortedPlugins = graph.reverseTopologicalSort();
         log.debug("Plugins order: {}", sortedPlugins);
 
-        // create the result object
-        Result result = new Result(sortedPlugins);
-
         resolved = true;
+        cyclicDependency = sortedPlugins == null;
+        this.sortedPlugins.clear();
+        notFoundDependencies.clear();
+        wrongVersionDependencies.clear();
 
         if (sortedPlugins != null) { // no cyclic dependency
+            this.sortedPlugins.addAll(sortedPlugins);
+
             // detect not found dependencies
             for (String pluginId : sortedPlugins) {
                 if (!pluginByIds.containsKey(pluginId)) {
-                    result.addNotFoundDependency(pluginId);
+                    notFoundDependencies.add(pluginId);
                 }
             }
         }
@@ -92,21 +108,149 @@ public class DependencyResolver {
         // check dependencies versions
         for (PluginDescriptor plugin : plugins) {
             String pluginId = plugin.getPluginId();
-            String existingVersion = plugin.getVersion();
-
-            List<String> dependents = getDependents(pluginId);
-            while (!dependents.isEmpty()) {
-                String dependentId = dependents.remove(0);
-                PluginDescriptor dependent = pluginByIds.get(dependentId);
-                String requiredVersion = getDependencyVersionSupport(dependent, pluginId);
-                boolean ok = checkDependencyVersion(requiredVersion, existingVersion);
-                if (!ok) {
-                    result.addWrongDependencyVersion(new WrongDependencyVersion(pluginId, dependentId, existingVersion, requiredVersion));
-                }
+            for (String dependentId : getDependents(pluginId)) {
+                checkVersion(pluginId, dependentId);
             }
         }
 
-        return result;
+        return createResult();
+    }
+
+    /**
+     * Resolve the dependencies for the given plugins, starting from the result of the previous resolve operation.
+     * Only the plugins that were added, removed or replaced (a different descriptor instance) since the previous
+     * operation are processed, using {@link #addPlugin(PluginDescriptor)} and {@link #removePlugin(String)}.
+     * If there is no previous result, or if there are too many changes, a full {@link #resolve(List)} is performed.
+     *
+     * @param plugins the list of plugins
+     * @return a {@link Result} object
+     */
+    public Result update(List<PluginDescriptor> plugins) {
+        if (!resolved || cyclicDependency) {
+            return resolve(plugins);
+        }
+
+        Map<String, PluginDescriptor> newPluginByIds = new HashMap<>();
+        List<PluginDescriptor> addedPlugins = new ArrayList<>();
+        for (PluginDescriptor plugin : plugins) {
+            newPluginByIds.put(plugin.getPluginId(), plugin);
+            if (pluginByIds.get(plugin.getPluginId()) != plugin) {
+                addedPlugins.add(plugin);
+            }
+        }
+
+        List<String> removedPlugins = new ArrayList<>();
+        for (Map.Entry<String, PluginDescriptor> entry : pluginByIds.entrySet()) {
+            if (newPluginByIds.get(entry.getKey()) != entry.getValue()) {
+                removedPlugins.add(entry.getKey());
+            }
+        }
+
+        if (removedPlugins.size() + addedPlugins.size() > plugins.size() / 2) {
+            // a full resolve is cheaper
+            return resolve(plugins);
+        }
+
+        log.debug("Update graph with added plugins {} and removed plugins {}", addedPlugins, removedPlugins);
+        for (String pluginId : removedPlugins) {
+            removePlugin(pluginId);
+        }
+        for (PluginDescriptor plugin : addedPlugins) {
+            addPlugin(plugin);
+        }
+
+        return createResult();
+    }
+
+    /**
+     * Adds (or replaces) a plugin to the result of the previous resolve operation.
+     * Only the plugin and its (direct and indirect) dependents are sorted again,
+     * and only the versions of their dependencies are checked again.
+     *
+     * @param plugin the plugin to add
+     * @return a {@link Result} object for all plugins
+     */
+    public Result addPlugin(PluginDescriptor plugin) {
+        String pluginId = plugin.getPluginId();
+        if (pluginByIds.containsKey(pluginId)) {
+            removePlugin(pluginId);
+        }
+
+        if (cyclicDependency) {
+            // cannot update a graph with cycles, resolve all plugins again
+            List<PluginDescriptor> plugins = new ArrayList<>(pluginByIds.values());
+            plugins.add(plugin);
+
+            return resolve(plugins);
+        }
+
+        addToGraph(plugin);
+        pluginByIds.put(pluginId, plugin);
+        notFoundDependencies.remove(pluginId);
+        resolved = true;
+
+        // the dependencies are sorted before the plugin, including the not found dependencies
+        List<String> dependencies = getDependencies(pluginId);
+        for (String dependencyId : dependencies) {
+            if (!pluginByIds.containsKey(dependencyId)) {
+                notFoundDependencies.add(dependencyId);
+                sortedPlugins.add(dependencyId);
+            }
+        }
+
+        // move the plugin and its dependents at the end, in dependency order
+        List<String> affectedPlugins = graph.reverseTopologicalSort(pluginId);
+        if (affectedPlugins == null) {
+            // a cycle that goes through this plugin
+            return resolve(new ArrayList<>(pluginByIds.values()));
+        }
+        sortedPlugins.removeAll(affectedPlugins);
+        sortedPlugins.addAll(affectedPlugins);
+
+        log.debug("Plugins order: {}", sortedPlugins);
+
+        // check the versions on the edges of the plugin
+        for (String dependencyId : dependencies) {
+            checkVersion(dependencyId, pluginId);
+        }
+        for (String dependentId : getDependents(pluginId)) {
+            checkVersion(pluginId, dependentId);
+        }
+
+        return createResult();
+    }
+
+    /**
+     * Removes a plugin from the result of the previous resolve operation.
+     * If other plugins depend on the removed plugin, it becomes a not found dependency.
+     *
+     * @param pluginId the unique plugin identifier, specified in its metadata
+     * @return a {@link Result} object for all plugins
+     */
+    public Result removePlugin(String pluginId) {
+        if (pluginByIds.remove(pluginId) == null) {
+            return createResult();
+        }
+
+        if (cyclicDependency) {
+            // the removed plugin can break the cycle, resolve all plugins again
+            return resolve(new ArrayList<>(pluginByIds.values()));
+        }
+
+        wrongVersionDependencies.removeIf(wrongVersionDependency -> pluginId.equals(wrongVersionDependency.getDependencyId())
+            || pluginId.equals(wrongVersionDependency.getDependentId()));
+
+        // remove the edges to its dependencies
+        for (String dependencyId : getDependencies(pluginId)) {
+            graph.removeEdge(pluginId, dependencyId);
+            removeIfNotRequired(dependencyId);
+        }
+
+        if (!removeIfNotRequired(pluginId)) {
+            notFoundDependencies.add(pluginId);
+        }
+
+        return createResult();
     }
 
     /**
@@ -117,7 +261,7 @@ public class DependencyResolver {
      */
     public List<String> getDependencies(String pluginId) {
         checkResolved();
-        return new ArrayList<>(dependenciesGraph.getNeighbors(pluginId));
+        return graph.getNeighbors(pluginId);
     }
 
     /**
@@ -128,7 +272,7 @@ public class DependencyResolver {
      */
     public List<String> getDependents(String pluginId) {
         checkResolved();
-        return new ArrayList<>(dependentsGraph.getNeighbors(pluginId));
+        return graph.getReverseNeighbors(pluginId);
     }
 
     /**
@@ -142,12 +286,11 @@ public class DependencyResolver {
         return versionManager.checkVersionConstraint(existingVersion, requiredVersion);
     }
 
-    private void addPlugin(PluginDescriptor descriptor) {
+    private void addToGraph(PluginDescriptor descriptor) {
         String pluginId = descriptor.getPluginId();
         List<PluginDependency> dependencies = descriptor.getDependencies();
         if (dependencies.isEmpty()) {
-            dependenciesGraph.addVertex(pluginId);
-            dependentsGraph.addVertex(pluginId);
+            graph.addVertex(pluginId);
         } else {
             boolean edgeAdded = false;
             for (PluginDependency dependency : dependencies) {
@@ -155,19 +298,55 @@ public class DependencyResolver {
                 // if an optional dependency is missing.
                 if (!dependency.isOptional()) {
                     edgeAdded = true;
-                    dependenciesGraph.addEdge(pluginId, dependency.getPluginId());
-                    dependentsGraph.addEdge(dependency.getPluginId(), pluginId);
+                    graph.addEdge(pluginId, dependency.getPluginId());
                 }
             }
 
             // Register the plugin without dependencies, if all of its dependencies are optional.
             if (!edgeAdded) {
-                dependenciesGraph.addVertex(pluginId);
-                dependentsGraph.addVertex(pluginId);
+                graph.addVertex(pluginId);
             }
         }
     }
 
+    /**
+     * Removes a plugin, that is not loaded, from the graph if no other plugin depends on it.
+     */
+    private boolean removeIfNotRequired(String pluginId) {
+        if (pluginByIds.containsKey(pluginId) || (graph.inDegree(pluginId) > 0)) {
+            return false;
+        }
+
+        graph.removeVertex(pluginId);
+        sortedPlugins.remove(pluginId);
+        notFoundDependencies.remove(pluginId);
+
+        return true;
+    }
+
+    private void checkVersion(String dependencyId, String dependentId) {
+        PluginDescriptor dependency = pluginByIds.get(dependencyId);
+        PluginDescriptor dependent = pluginByIds.get(dependentId);
+        if ((dependency == null) || (dependent == null)) {
+            return;
+        }
+
+        String existingVersion = dependency.getVersion();
+        String requiredVersion = getDependencyVersionSupport(dependent, dependencyId);
+        boolean ok = checkDependencyVersion(requiredVersion, existingVersion);
+        if (!ok) {
+            wrongVersionDependencies.add(new WrongDependencyVersion(dependencyId, dependentId, existingVersion, requiredVersion));
+        }
+    }
+
+    private Result createResult() {
+        Result result = new Result(cyclicDependency ? null : new ArrayList<>(sortedPlugins));
+        notFoundDependencies.forEach(result::addNotFoundDependency);
+        wrongVersionDependencies.forEach(result::addWrongDependencyVersion);
+
+        return result;
+    }
+
     private void checkResolved() {
         if (!resolved) {
             throw new IllegalStateException("Call 'resolve' method first");
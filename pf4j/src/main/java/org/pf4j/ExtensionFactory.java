@@ -28,4 +28,16 @@ public interface ExtensionFactory {
      */
     <T> T create(Class<T> extensionClass);
 
+    /**
+     * Returns the number of extension instances kept (cached) by this factory,
+     * for the extension classes loaded by the given class loader.
+     * The default implementation returns {@code 0} (the factory doesn't keep the instances).
+     *
+     * @param classLoader the class loader of the extension classes (usually a plugin class loader)
+     * @return the number of kept extension instances
+     */
+    default int getExtensionInstanceCount(ClassLoader classLoader) {
+        return 0;
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+/**
+ * A {@link PluginLease} on the plugin that contributes an extension.
+ * While the lease is active, the extension can be used safely, because the class loader
+ * of its plugin is not closed.
+ * <p>
+ * Use it in a {@code try-with-resources} statement:
+ * <pre>{@code
+ * for (ExtensionLease<Greeting> lease : pluginManager.acquireExtensions(Greeting.class)) {
+ *     try (ExtensionLease<Greeting> l = lease) {
+ *         l.getExtension().getGreeting();
+ *     }
+ * }
+ * }</pre>
+ *
+ * @see ExtensionWrapper#acquire()
+ * @see PluginManager#acquireExtensions(Class)
+ */
+public class ExtensionLease<T> extends PluginLease {
+
+    private final T extension;
+
+    ExtensionLease(PluginWrapper plugin, T extension) {
+        super(plugin);
+
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the extension instance.
+     *
+     * @return the extension instance
+     * @throws IllegalStateException if the lease has been closed
+     */
+    public T getExtension() {
+        if (isClosed()) {
+            throw new IllegalStateException("Lease is closed");
+        }
+
+        return extension;
+    }
+
+}
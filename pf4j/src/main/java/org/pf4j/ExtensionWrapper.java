@@ -25,22 +25,69 @@ public class ExtensionWrapper<T> implements Comparable<ExtensionWrapper<T>> {
 
     private final ExtensionDescriptor descriptor;
     private final ExtensionFactory extensionFactory;
+    private final PluginWrapper plugin;
     private T extension; // cache
 
     public ExtensionWrapper(ExtensionDescriptor descriptor, ExtensionFactory extensionFactory) {
+        this(descriptor, extensionFactory, null);
+    }
+
+    /**
+     * @param descriptor the extension descriptor
+     * @param extensionFactory the factory used to create the extension instance
+     * @param plugin the plugin that contributes the extension, or {@code null} for an extension from classpath
+     */
+    public ExtensionWrapper(ExtensionDescriptor descriptor, ExtensionFactory extensionFactory, PluginWrapper plugin) {
         this.descriptor = descriptor;
         this.extensionFactory = extensionFactory;
+        this.plugin = plugin;
     }
 
     @SuppressWarnings("unchecked")
     public T getExtension() {
         if (extension == null) {
-            extension = (T) extensionFactory.create(descriptor.extensionClass);
+            JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.CREATE_EXTENSION)
+                .setExtension(descriptor.extensionClass.getName())
+                .setPluginId((plugin != null) ? plugin.getPluginId() : null);
+            try {
+                extension = (T) extensionFactory.create(descriptor.extensionClass);
+            } finally {
+                event.finish();
+            }
         }
 
         return extension;
     }
 
+    /**
+     * Acquires a lease on the plugin that contributes this extension and creates the extension instance
+     * (if it's not created yet). The extension can be used safely until the lease is closed.
+     *
+     * @return the lease
+     * @throws PluginRuntimeException if the plugin is being unloaded or reloaded
+     */
+    public ExtensionLease<T> acquire() {
+        PluginLease.checkRetain(plugin);
+        try {
+            return new ExtensionLease<>(plugin, getExtension());
+        } catch (RuntimeException e) {
+            if (plugin != null) {
+                plugin.release();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the plugin that contributes this extension.
+     *
+     * @return the plugin or {@code null} for an extension from classpath
+     */
+    public PluginWrapper getPlugin() {
+        return plugin;
+    }
+
     public ExtensionDescriptor getDescriptor() {
         return descriptor;
     }
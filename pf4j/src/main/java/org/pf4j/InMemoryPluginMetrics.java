@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A {@link PluginMetrics} that keeps the metrics in memory.
+ * It's useful for tests, diagnostics, or to export the metrics periodically.
+ */
+public class InMemoryPluginMetrics implements PluginMetrics {
+
+    private final Map<Map.Entry<String, String>, InMemoryCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Map.Entry<String, String>, InMemoryTimer> timers = new ConcurrentHashMap<>();
+    private final Map<Map.Entry<String, String>, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public InMemoryCounter counter(String name, String pluginId) {
+        return counters.computeIfAbsent(key(name, pluginId), k -> new InMemoryCounter());
+    }
+
+    @Override
+    public InMemoryTimer timer(String name, String pluginId) {
+        return timers.computeIfAbsent(key(name, pluginId), k -> new InMemoryTimer());
+    }
+
+    @Override
+    public void gauge(String name, String pluginId, Supplier<? extends Number> value) {
+        gauges.put(key(name, pluginId), value);
+    }
+
+    /**
+     * Returns the value of a counter, or {@code 0} if the counter doesn't exist.
+     */
+    public long getCount(String name, String pluginId) {
+        InMemoryCounter counter = counters.get(key(name, pluginId));
+
+        return (counter != null) ? counter.getCount() : 0;
+    }
+
+    /**
+     * Returns a timer, or {@code null} if the timer doesn't exist.
+     */
+    public InMemoryTimer getTimer(String name, String pluginId) {
+        return timers.get(key(name, pluginId));
+    }
+
+    /**
+     * Returns the current value of a gauge, or {@code null} if the gauge doesn't exist.
+     */
+    public Number getGaugeValue(String name, String pluginId) {
+        Supplier<? extends Number> gauge = gauges.get(key(name, pluginId));
+
+        return (gauge != null) ? gauge.get() : null;
+    }
+
+    /**
+     * Removes all metrics.
+     */
+    public void clear() {
+        counters.clear();
+        timers.clear();
+        gauges.clear();
+    }
+
+    private static Map.Entry<String, String> key(String name, String pluginId) {
+        return new AbstractMap.SimpleImmutableEntry<>(name, pluginId);
+    }
+
+    public static class InMemoryCounter implements Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void increment() {
+            count.increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(getCount());
+        }
+
+    }
+
+    public static class InMemoryTimer implements Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        @Override
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalTime(TimeUnit unit) {
+            return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        public long getMaxTime(TimeUnit unit) {
+            return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + getCount() + ", total=" + getTotalTime(TimeUnit.MICROSECONDS) + "us, max=" + getMaxTime(TimeUnit.MICROSECONDS) + "us";
+        }
+
+    }
+
+}
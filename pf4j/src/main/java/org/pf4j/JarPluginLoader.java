@@ -17,8 +17,10 @@ package org.pf4j;
 
 import org.pf4j.util.FileUtils;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Objects;
 
 /**
  * @author Decebal Suiu
@@ -27,6 +29,9 @@ public class JarPluginLoader implements PluginLoader {
 
     protected PluginManager pluginManager;
 
+    private boolean indexedJars;
+    private PluginArchiveRegistry pluginArchiveRegistry = new PluginArchiveRegistry();
+
     public JarPluginLoader(PluginManager pluginManager) {
         this.pluginManager = pluginManager;
     }
@@ -36,10 +41,47 @@ public class JarPluginLoader implements PluginLoader {
         return Files.exists(pluginPath) && FileUtils.isJarFile(pluginPath);
     }
 
+    /**
+     * Returns {@code true} if the plugin jar is read from its (memory-mapped and indexed) {@link PluginArchive},
+     * shared with the descriptor finders, instead of being opened again by the {@link java.net.URLClassLoader}.
+     * The default value is {@code false}.
+     */
+    public boolean isIndexedJars() {
+        return indexedJars;
+    }
+
+    /**
+     * @param indexedJars {@code true} to read the plugin jar from its {@link PluginArchive}
+     * @see BasePluginLoader#setIndexedJars(boolean)
+     */
+    public void setIndexedJars(boolean indexedJars) {
+        this.indexedJars = indexedJars;
+    }
+
+    /**
+     * Shares the archives of the plugin jars with the plugin manager (see {@link PluginArchiveRegistry}),
+     * when the jars are indexed. By default the loader has its own registry.
+     *
+     * @param pluginArchiveRegistry the registry of the plugin manager
+     */
+    public void setPluginArchiveRegistry(PluginArchiveRegistry pluginArchiveRegistry) {
+        this.pluginArchiveRegistry = Objects.requireNonNull(pluginArchiveRegistry);
+    }
+
     @Override
     public ClassLoader loadPlugin(Path pluginPath, PluginDescriptor pluginDescriptor) {
         PluginClassLoader pluginClassLoader = createPluginClassLoader(pluginPath, pluginDescriptor);
-        pluginClassLoader.addFile(pluginPath.toFile());
+        if (indexedJars) {
+            try {
+                PluginArchive archive = pluginArchiveRegistry.acquire(pluginPath);
+                pluginClassLoader.addOpenArchive(archive);
+                pluginClassLoader.addArchive(archive.getZipArchive(), "", pluginPath.toUri().toString());
+            } catch (IOException e) {
+                throw new PluginRuntimeException(e, "Cannot read jar '{}'", pluginPath);
+            }
+        } else {
+            pluginClassLoader.addFile(pluginPath.toFile());
+        }
 
         return pluginClassLoader;
     }
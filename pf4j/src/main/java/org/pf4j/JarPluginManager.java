@@ -36,14 +36,26 @@ public class JarPluginManager extends DefaultPluginManager {
 
     @Override
     protected PluginDescriptorFinder createPluginDescriptorFinder() {
-        return new ManifestPluginDescriptorFinder();
+        ManifestPluginDescriptorFinder pluginDescriptorFinder = new ManifestPluginDescriptorFinder();
+        pluginDescriptorFinder.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
+        return pluginDescriptorFinder;
     }
 
     @Override
     protected PluginLoader createPluginLoader() {
+        JarPluginLoader jarPluginLoader = new JarPluginLoader(this);
+        jarPluginLoader.setIndexedJars(isIndexedJars());
+        jarPluginLoader.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
         return new CompoundPluginLoader()
             .add(new DevelopmentPluginLoader(this), this::isDevelopment)
-            .add(new JarPluginLoader(this), this::isNotDevelopment);
+            .add(jarPluginLoader, this::isNotDevelopment);
+    }
+
+    @Override
+    protected boolean isPluginArchiveShared() {
+        return isIndexedJars();
     }
 
     @Override
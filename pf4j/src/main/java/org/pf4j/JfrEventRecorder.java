@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Java Flight Recorder (JFR) implementation of {@link JfrEvents}, for Java 11+.
+ * There is a JFR event type for each {@link JfrEvents.Type}, named {@code org.pf4j.<Name>} (for example
+ * {@code org.pf4j.StartPlugin}), in the {@code PF4J} category.
+ * No event is created when its type is not enabled by a running recording.
+ */
+class JfrEventRecorder implements JfrEvents.Recorder {
+
+    private final EventType[] eventTypes = new EventType[JfrEvents.Type.values().length];
+
+    JfrEventRecorder() {
+        // the module descriptor (compiled for Java 9) doesn't require 'jdk.jfr'
+        Module module = getClass().getModule();
+        if (module.isNamed()) {
+            Module jfrModule = ModuleLayer.boot().findModule("jdk.jfr")
+                .orElseThrow(() -> new IllegalStateException("Cannot find module 'jdk.jfr'"));
+            module.addReads(jfrModule);
+        }
+
+        for (JfrEvents.Type type : JfrEvents.Type.values()) {
+            eventTypes[type.ordinal()] = EventType.getEventType(createEvent(type).getClass());
+        }
+    }
+
+    @Override
+    public JfrEvents.Event begin(JfrEvents.Type type) {
+        if (!eventTypes[type.ordinal()].isEnabled()) {
+            return JfrEvents.noopEvent();
+        }
+
+        PluginEvent event = createEvent(type);
+        event.begin();
+
+        return event;
+    }
+
+    private static PluginEvent createEvent(JfrEvents.Type type) {
+        switch (type) {
+            case LOAD_PLUGIN:
+                return new LoadPluginEvent();
+            case FIND_PLUGIN_DESCRIPTOR:
+                return new FindPluginDescriptorEvent();
+            case CREATE_CLASS_LOADER:
+                return new CreateClassLoaderEvent();
+            case RESOLVE_DEPENDENCIES:
+                return new ResolveDependenciesEvent();
+            case START_PLUGIN:
+                return new StartPluginEvent();
+            case STOP_PLUGIN:
+                return new StopPluginEvent();
+            case FIND_EXTENSIONS:
+                return new FindExtensionsEvent();
+            case CREATE_EXTENSION:
+                return new CreateExtensionEvent();
+            default:
+                throw new IllegalArgumentException("Unknown event type " + type);
+        }
+    }
+
+    @Category("PF4J")
+    abstract static class PluginEvent extends jdk.jfr.Event implements JfrEvents.Event {
+
+        @Label("Plugin Id")
+        String pluginId;
+
+        @Label("Extension Point")
+        String extensionPoint;
+
+        @Label("Extension")
+        String extension;
+
+        @Override
+        public JfrEvents.Event setPluginId(String pluginId) {
+            this.pluginId = pluginId;
+
+            return this;
+        }
+
+        @Override
+        public JfrEvents.Event setExtensionPoint(String extensionPoint) {
+            this.extensionPoint = extensionPoint;
+
+            return this;
+        }
+
+        @Override
+        public JfrEvents.Event setExtension(String extension) {
+            this.extension = extension;
+
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            end();
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+
+    }
+
+    @Name("org.pf4j.LoadPlugin")
+    @Label("Load Plugin")
+    @Description("Load of a plugin from its path (descriptor, class loader and wrapper)")
+    static class LoadPluginEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.FindPluginDescriptor")
+    @Label("Find Plugin Descriptor")
+    @Description("Lookup of the descriptor of a plugin")
+    static class FindPluginDescriptorEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.CreateClassLoader")
+    @Label("Create Class Loader")
+    @Description("Creation of the class loader of a plugin")
+    static class CreateClassLoaderEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.ResolveDependencies")
+    @Label("Resolve Dependencies")
+    @Description("Resolve of the plugin dependencies")
+    static class ResolveDependenciesEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.StartPlugin")
+    @Label("Start Plugin")
+    @Description("Start of a plugin")
+    static class StartPluginEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.StopPlugin")
+    @Label("Stop Plugin")
+    @Description("Stop of a plugin")
+    static class StopPluginEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.FindExtensions")
+    @Label("Find Extensions")
+    @Description("Lookup of the extensions of an extension point")
+    static class FindExtensionsEvent extends PluginEvent {
+    }
+
+    @Name("org.pf4j.CreateExtension")
+    @Label("Create Extension")
+    @Description("Creation of an extension instance")
+    static class CreateExtensionEvent extends PluginEvent {
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Java Flight Recorder (JFR) events for the plugin lifecycle and for the extension lookup.
+ * Each event has a duration and, if it applies, the plugin id, the extension point and the extension class.
+ * <p>
+ * The JFR events are available on Java 11+ (the recorder is a class of the multi-release jar,
+ * in {@code META-INF/versions/11}). On Java 8, or if it's disabled with {@code -Dpf4j.jfr=false},
+ * the events are no-op.
+ * The events are in the {@code PF4J} category, for example:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=app.jfr ...
+ * jfr print --categories PF4J app.jfr
+ * </pre>
+ * <p>
+ * Usage:
+ * <pre>
+ * JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.START_PLUGIN).setPluginId(pluginId);
+ * try {
+ *     ...
+ * } finally {
+ *     event.finish();
+ * }
+ * </pre>
+ */
+public final class JfrEvents {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrEvents.class);
+
+    /**
+     * The system property used to disable the JFR events ({@code -Dpf4j.jfr=false}).
+     */
+    public static final String ENABLED_PROPERTY_NAME = "pf4j.jfr";
+
+    static final String RECORDER_CLASS_NAME = "org.pf4j.JfrEventRecorder";
+
+    private static final Recorder recorder = createRecorder();
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Returns {@code true} if the JFR events are recorded (Java 11+ and not disabled).
+     */
+    public static boolean isEnabled() {
+        return recorder != NoopRecorder.INSTANCE;
+    }
+
+    /**
+     * Begins the timing of an event.
+     * The event is recorded when {@link Event#finish()} is called.
+     *
+     * @param type the event type
+     * @return the event
+     */
+    public static Event begin(Type type) {
+        return recorder.begin(type);
+    }
+
+    /**
+     * Returns the event that records nothing, for the recorders.
+     */
+    static Event noopEvent() {
+        return NoopRecorder.INSTANCE;
+    }
+
+    private static Recorder createRecorder() {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY_NAME, "true"))) {
+            return NoopRecorder.INSTANCE;
+        }
+
+        try {
+            Class<?> recorderClass = Class.forName(RECORDER_CLASS_NAME, true, JfrEvents.class.getClassLoader());
+            return (Recorder) recorderClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            // Java 8 or the classes directory (not the multi-release jar)
+            return NoopRecorder.INSTANCE;
+        } catch (Exception | LinkageError e) {
+            // for example a runtime image without the 'jdk.jfr' module
+            log.debug("JFR events are not available", e);
+            return NoopRecorder.INSTANCE;
+        }
+    }
+
+    /**
+     * The event types.
+     */
+    public enum Type {
+
+        /** Load of a plugin from its path (descriptor, class loader and wrapper). */
+        LOAD_PLUGIN,
+        /** Lookup of the descriptor of a plugin. */
+        FIND_PLUGIN_DESCRIPTOR,
+        /** Creation of the class loader of a plugin. */
+        CREATE_CLASS_LOADER,
+        /** Resolve of the plugin dependencies. */
+        RESOLVE_DEPENDENCIES,
+        /** {@link Plugin#start()} */
+        START_PLUGIN,
+        /** {@link Plugin#stop()} */
+        STOP_PLUGIN,
+        /** Lookup of the extensions of an extension point. */
+        FIND_EXTENSIONS,
+        /** Creation of an extension instance. */
+        CREATE_EXTENSION
+
+    }
+
+    /**
+     * An event that is timed from {@link JfrEvents#begin(Type)} to {@link #finish()}.
+     * An event is not thread safe, it's used in the thread that created it.
+     */
+    public interface Event {
+
+        Event setPluginId(String pluginId);
+
+        Event setExtensionPoint(String extensionPoint);
+
+        Event setExtension(String extension);
+
+        /**
+         * Ends the timing and records the event (if the event type is enabled in the recording).
+         */
+        void finish();
+
+    }
+
+    /**
+     * Creates the events.
+     * The JFR implementation is {@value #RECORDER_CLASS_NAME}.
+     */
+    interface Recorder {
+
+        Event begin(Type type);
+
+    }
+
+    private static class NoopRecorder implements Recorder, Event {
+
+        static final NoopRecorder INSTANCE = new NoopRecorder();
+
+        @Override
+        public Event begin(Type type) {
+            return this;
+        }
+
+        @Override
+        public Event setPluginId(String pluginId) {
+            return this;
+        }
+
+        @Override
+        public Event setExtensionPoint(String extensionPoint) {
+            return this;
+        }
+
+        @Override
+        public Event setExtension(String extension) {
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            // nothing
+        }
+
+    }
+
+}
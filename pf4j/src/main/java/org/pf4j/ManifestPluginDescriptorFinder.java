@@ -24,6 +24,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -48,11 +54,51 @@ public class ManifestPluginDescriptorFinder implements PluginDescriptorFinder {
     public static final String PLUGIN_REQUIRES = "Plugin-Requires";
     public static final String PLUGIN_LICENSE = "Plugin-License";
 
+    private static final String ZIP_MANIFEST_NAME = "classes/" + JarFile.MANIFEST_NAME;
+
+    /**
+     * The known locations of the manifest in a plugin directory: the root, the classes directory of
+     * an expanded plugin zip and the classes directories of a plugin project (development mode).
+     */
+    private static final List<String> DIRECTORY_MANIFEST_NAMES = getDirectoryManifestNames();
+
+    private PluginArchiveRegistry pluginArchiveRegistry = new PluginArchiveRegistry();
+
+    /**
+     * Reads the plugin files from the archives already open by the plugin manager (see {@link PluginArchiveRegistry#get(Path)}).
+     * By default the finder has its own (empty) registry, so it opens the plugin files.
+     *
+     * @param pluginArchiveRegistry the registry of the plugin manager
+     */
+    public void setPluginArchiveRegistry(PluginArchiveRegistry pluginArchiveRegistry) {
+        this.pluginArchiveRegistry = Objects.requireNonNull(pluginArchiveRegistry);
+    }
+
     @Override
     public boolean isApplicable(Path pluginPath) {
         return Files.exists(pluginPath) && (Files.isDirectory(pluginPath) || FileUtils.isZipOrJarFile(pluginPath));
     }
 
+    @Override
+    public boolean hasDescriptor(Path pluginPath) {
+        try {
+            if (Files.isDirectory(pluginPath)) {
+                return findManifestInDirectory(pluginPath) != null;
+            }
+
+            if (FileUtils.isZipOrJarFile(pluginPath)) {
+                String manifestName = FileUtils.isJarFile(pluginPath) ? JarFile.MANIFEST_NAME : ZIP_MANIFEST_NAME;
+                return pluginArchiveRegistry.containsEntry(pluginPath, manifestName);
+            }
+        } catch (Exception e) {
+            // let find() report the error
+            log.debug("Cannot probe the manifest of '{}': {}", pluginPath, e.getMessage());
+            return true;
+        }
+
+        return false;
+    }
+
     @Override
     public PluginDescriptor find(Path pluginPath) {
         Manifest manifest = readManifest(pluginPath);
@@ -117,6 +163,15 @@ public class ManifestPluginDescriptorFinder implements PluginDescriptorFinder {
     }
 
     protected Manifest readManifestFromJar(Path jarPath) {
+        PluginArchive archive = pluginArchiveRegistry.get(jarPath);
+        if (archive != null) {
+            try {
+                return readManifestFromArchive(archive, JarFile.MANIFEST_NAME);
+            } catch (IOException e) {
+                throw new PluginRuntimeException(e, "Cannot read manifest from {}", jarPath);
+            }
+        }
+
         try (JarFile jar = new JarFile(jarPath.toFile())) {
             return jar.getManifest();
         } catch (IOException e) {
@@ -125,8 +180,23 @@ public class ManifestPluginDescriptorFinder implements PluginDescriptorFinder {
     }
 
     protected Manifest readManifestFromZip(Path zipPath) {
+        PluginArchive archive = pluginArchiveRegistry.get(zipPath);
+        if (archive != null) {
+            Manifest manifest;
+            try {
+                manifest = readManifestFromArchive(archive, ZIP_MANIFEST_NAME);
+            } catch (IOException e) {
+                throw new PluginRuntimeException(e, "Cannot read manifest from {}", zipPath);
+            }
+            if (manifest == null) {
+                throw new PluginRuntimeException("Cannot find '{}' in {}", ZIP_MANIFEST_NAME, zipPath);
+            }
+
+            return manifest;
+        }
+
         try (ZipFile zip = new ZipFile(zipPath.toFile())) {
-            ZipEntry manifestEntry = zip.getEntry("classes/META-INF/MANIFEST.MF");
+            ZipEntry manifestEntry = zip.getEntry(ZIP_MANIFEST_NAME);
             try (InputStream manifestInput = zip.getInputStream(manifestEntry)) {
                 return new Manifest(manifestInput);
             }
@@ -135,9 +205,29 @@ public class ManifestPluginDescriptorFinder implements PluginDescriptorFinder {
         }
     }
 
+    /**
+     * Reads a manifest from the (shared) {@link PluginArchive} of a plugin, already open by the plugin manager.
+     *
+     * @return the manifest or {@code null} if the archive doesn't contain the manifest
+     */
+    private static Manifest readManifestFromArchive(PluginArchive archive, String manifestName) throws IOException {
+        InputStream input = archive.getInputStream(manifestName);
+        if (input == null) {
+            return null;
+        }
+
+        try (InputStream manifestInput = input) {
+            return new Manifest(manifestInput);
+        }
+    }
+
     protected Manifest readManifestFromDirectory(Path pluginPath) {
-        // legacy (the path is something like "classes/META-INF/MANIFEST.MF")
-        Path manifestPath = FileUtils.findFile(pluginPath,"MANIFEST.MF");
+        Path manifestPath = findManifestInDirectory(pluginPath);
+        if (manifestPath == null) {
+            // legacy (the manifest is somewhere in the plugin directory)
+            log.debug("Search the manifest of '{}' in the whole directory", pluginPath);
+            manifestPath = FileUtils.findFile(pluginPath, "MANIFEST.MF");
+        }
         if (manifestPath == null) {
             throw new PluginRuntimeException("Cannot find the manifest path");
         }
@@ -154,4 +244,34 @@ public class ManifestPluginDescriptorFinder implements PluginDescriptorFinder {
         }
     }
 
+    /**
+     * Probes the known locations of the manifest in a plugin directory.
+     *
+     * @return the manifest path or {@code null} if the manifest is not in a known location
+     */
+    private static Path findManifestInDirectory(Path pluginPath) {
+        for (String manifestName : DIRECTORY_MANIFEST_NAMES) {
+            Path manifestPath = pluginPath.resolve(manifestName);
+            if (Files.isRegularFile(manifestPath)) {
+                return manifestPath;
+            }
+        }
+
+        return null;
+    }
+
+    private static List<String> getDirectoryManifestNames() {
+        Set<String> classesDirectories = new LinkedHashSet<>();
+        classesDirectories.addAll(new DefaultPluginClasspath().getClassesDirectories());
+        classesDirectories.addAll(new DevelopmentPluginClasspath().getClassesDirectories());
+
+        List<String> manifestNames = new ArrayList<>();
+        manifestNames.add(JarFile.MANIFEST_NAME);
+        for (String classesDirectory : classesDirectories) {
+            manifestNames.add(classesDirectory + "/" + JarFile.MANIFEST_NAME);
+        }
+
+        return Collections.unmodifiableList(manifestNames);
+    }
+
 }
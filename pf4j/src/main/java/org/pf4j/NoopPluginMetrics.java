@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link PluginMetrics} that records nothing.
+ * It's the default {@link PluginMetrics}.
+ */
+public class NoopPluginMetrics implements PluginMetrics {
+
+    public static final NoopPluginMetrics INSTANCE = new NoopPluginMetrics();
+
+    private static final Counter NOOP_COUNTER = () -> {};
+    private static final Timer NOOP_TIMER = nanos -> {};
+
+    @Override
+    public Counter counter(String name, String pluginId) {
+        return NOOP_COUNTER;
+    }
+
+    @Override
+    public Timer timer(String name, String pluginId) {
+        return NOOP_TIMER;
+    }
+
+    @Override
+    public void gauge(String name, String pluginId, Supplier<? extends Number> value) {
+        // nothing
+    }
+
+}
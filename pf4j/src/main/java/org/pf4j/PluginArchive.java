@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.ZipArchive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A plugin {@code zip} or {@code jar} file, opened once and shared by the components that read it
+ * while a plugin is loaded: the descriptor finders ({@link ManifestPluginDescriptorFinder},
+ * {@link PropertiesPluginDescriptorFinder}), the loaders ({@link ZipPluginLoader}, {@link JarPluginLoader})
+ * and, through the plugin class loader, the extension finders.
+ * The central directory of the file is read once (see {@link ZipArchive}).
+ * <p>
+ * The archives are opened by a {@link PluginArchiveRegistry} (one per plugin manager) and they are reference-counted:
+ * each {@link PluginArchiveRegistry#acquire(Path)} must be followed by a {@link #close()}, and the file
+ * (its memory mapping) is closed when the last reference is closed.
+ */
+public class PluginArchive implements Closeable {
+
+    private final PluginArchiveRegistry registry;
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    private final ZipArchive zipArchive;
+
+    private int usageCount; // guarded by registry
+
+    PluginArchive(PluginArchiveRegistry registry, Path path, BasicFileAttributes attributes, ZipArchive zipArchive) {
+        this.registry = registry;
+        this.path = path;
+        this.size = attributes.size();
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+        this.zipArchive = zipArchive;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public ZipArchive getZipArchive() {
+        return zipArchive;
+    }
+
+    public boolean containsEntry(String entryName) {
+        return zipArchive.getEntry(entryName) != null;
+    }
+
+    /**
+     * Returns an input stream for an entry, or {@code null} if the entry doesn't exist.
+     *
+     * @param entryName the name of the entry
+     * @return the input stream or {@code null}
+     * @throws IOException if the entry cannot be read
+     */
+    public InputStream getInputStream(String entryName) throws IOException {
+        ZipArchive.Entry entry = zipArchive.getEntry(entryName);
+
+        return (entry != null) ? zipArchive.getInputStream(entry) : null;
+    }
+
+    /**
+     * Releases this reference to the archive; the file is closed when all references are released.
+     */
+    @Override
+    public void close() {
+        registry.release(this);
+    }
+
+    boolean isUpToDate(BasicFileAttributes attributes) {
+        return (size == attributes.size()) && (lastModified == attributes.lastModifiedTime().toMillis());
+    }
+
+    void retain() {
+        usageCount++;
+    }
+
+    boolean releaseAndCheckUnused() {
+        return --usageCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginArchive [path=" + path + "]";
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.ZipArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * The open {@link PluginArchive}s of a plugin manager, so the components that read a plugin file
+ * don't need to pass its archive to each other.
+ * <p>
+ * {@link #acquire(Path)} returns the archive already open for a file (as long as the file is not modified),
+ * or opens it; the archive is closed when all the references returned by {@link #acquire(Path)} are closed.
+ * The plugin manager keeps the archive of a plugin open while the plugin is loaded
+ * (see {@link AbstractPluginManager#isPluginArchiveShared()}), and the plugin class loader keeps it open
+ * until the plugin is unloaded, so the file is released (and can be deleted or replaced) after
+ * {@link PluginManager#unloadPlugin(String)}.
+ * <p>
+ * The file is memory-mapped, so the archives are opt-in: they are opened only by the components that are
+ * configured to memory-map the plugins ({@link ZipPluginLoader}, {@link JarPluginLoader#setIndexedJars(boolean)}),
+ * and by the plugin manager that uses them.
+ * The descriptor finders only use an archive that is already open (see {@link #get(Path)}).
+ */
+public class PluginArchiveRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginArchiveRegistry.class);
+
+    private final Map<Path, PluginArchive> archives = new HashMap<>();
+
+    /**
+     * Returns the archive of a plugin file, opening the file only if it's not already open.
+     * The caller must close the archive when it's no longer used.
+     *
+     * @param path the plugin {@code zip} or {@code jar} file
+     * @return the archive
+     * @throws IOException if the file cannot be read or if it is not a valid zip file
+     */
+    public PluginArchive acquire(Path path) throws IOException {
+        Path key = getKey(path);
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        synchronized (this) {
+            PluginArchive archive = archives.get(key);
+            if ((archive != null) && archive.isUpToDate(attributes)) {
+                archive.retain();
+                return archive;
+            }
+        }
+
+        // open the file outside the lock, the plugins can be loaded in parallel
+        PluginArchive openedArchive = new PluginArchive(this, path, attributes, ZipArchive.open(key));
+        synchronized (this) {
+            PluginArchive archive = archives.get(key);
+            if ((archive != null) && archive.isUpToDate(attributes)) {
+                // opened meanwhile by another thread
+                openedArchive.getZipArchive().close();
+            } else {
+                // an archive of the previous version of the file stays open until it is released
+                log.debug("Open plugin archive '{}'", path);
+                archive = openedArchive;
+                archives.put(key, archive);
+            }
+            archive.retain();
+
+            return archive;
+        }
+    }
+
+    /**
+     * Returns the archive already open for a plugin file, without opening the file.
+     * The caller doesn't own a reference to the archive, so it must use the archive only while
+     * another component keeps it open.
+     *
+     * @param path the plugin {@code zip} or {@code jar} file
+     * @return the archive or {@code null} if the file is not open (or it was modified)
+     */
+    public PluginArchive get(Path path) {
+        Path key = getKey(path);
+        PluginArchive archive;
+        synchronized (this) {
+            archive = archives.get(key);
+        }
+        if (archive == null) {
+            return null;
+        }
+
+        try {
+            return archive.isUpToDate(Files.readAttributes(key, BasicFileAttributes.class)) ? archive : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a plugin file contains an entry, using the archive already open for the file
+     * (see {@link #get(Path)}) or else a {@link ZipFile}, without memory-mapping the file.
+     *
+     * @param path the plugin {@code zip} or {@code jar} file
+     * @param entryName the name of the entry
+     * @return {@code true} if the file contains the entry
+     * @throws IOException if the file cannot be read or if it is not a valid zip file
+     */
+    public boolean containsEntry(Path path, String entryName) throws IOException {
+        PluginArchive archive = get(path);
+        if (archive != null) {
+            return archive.containsEntry(entryName);
+        }
+
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            return zip.getEntry(entryName) != null;
+        }
+    }
+
+    /**
+     * Returns the number of open archives.
+     */
+    public synchronized int size() {
+        return archives.size();
+    }
+
+    synchronized void release(PluginArchive archive) {
+        if (archive.releaseAndCheckUnused()) {
+            log.debug("Close plugin archive '{}'", archive.getPath());
+            archives.remove(getKey(archive.getPath()), archive);
+            archive.getZipArchive().close();
+        }
+    }
+
+    private static Path getKey(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+}
@@ -15,19 +15,33 @@
  */
 package org.pf4j;
 
+import org.pf4j.util.ZipArchive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * One instance of this class should be created for every available plug-in.
@@ -43,12 +57,32 @@ public class PluginClassLoader extends URLClassLoader {
 
     private static final Logger log = LoggerFactory.getLogger(PluginClassLoader.class);
 
-    private static final String JAVA_PACKAGE_PREFIX = "java.";
-    private static final String PLUGIN_PACKAGE_PREFIX = "org.pf4j.";
+    private static final int MAX_RESOURCE_CACHE_SIZE = 1024;
+
+    /**
+     * The size used for a class whose class file size is unknown (a class read by {@link URLClassLoader} from a jar),
+     * in {@link #getApproximateClassBytes()}.
+     */
+    static final int ESTIMATED_CLASS_SIZE = 2048;
 
     private final PluginManager pluginManager;
     private final PluginDescriptor pluginDescriptor;
     private final ClassLoadingStrategy classLoadingStrategy;
+    private volatile DelegationPolicy delegationPolicy = DelegationPolicy.DEFAULT;
+    private final ArchiveClassPath archiveClassPath = new ArchiveClassPath();
+    private final List<SharedLibraryClassLoader> sharedLibraries = new CopyOnWriteArrayList<>();
+    private final List<Closeable> openArchives = new CopyOnWriteArrayList<>();
+    private volatile boolean hasURLs;
+    private volatile Queue<String> recordedClassNames;
+    private final Map<String, Optional<URL>> resourceCache = new ConcurrentHashMap<>();
+    private final Map<String, List<URL>> resourcesCache = new ConcurrentHashMap<>();
+    private final AtomicLong resourceCacheGeneration = new AtomicLong();
+    private volatile ClassLoader[] dependencyClassLoaders; // null if it must be computed again
+    private final PluginMetrics.Counter classLoads;
+    private final PluginMetrics.Counter classNotFound;
+    private final LongAdder definedClassCount = new LongAdder();
+    private final LongAdder sizedClassCount = new LongAdder();
+    private final LongAdder sizedClassBytes = new LongAdder();
     private boolean closed;
 
     public PluginClassLoader(PluginManager pluginManager, PluginDescriptor pluginDescriptor, ClassLoader parent) {
@@ -81,6 +115,14 @@ public class PluginClassLoader extends URLClassLoader {
         this.pluginManager = pluginManager;
         this.pluginDescriptor = pluginDescriptor;
         this.classLoadingStrategy = classLoadingStrategy;
+
+        PluginMetrics pluginMetrics = (pluginManager != null) ? pluginManager.getPluginMetrics() : null;
+        if (pluginMetrics == null) {
+            pluginMetrics = PluginMetrics.NOOP;
+        }
+        String pluginId = (pluginDescriptor != null) ? pluginDescriptor.getPluginId() : null;
+        classLoads = pluginMetrics.counter(PluginMetrics.CLASS_LOADS, pluginId);
+        classNotFound = pluginMetrics.counter(PluginMetrics.CLASS_NOT_FOUND, pluginId);
     }
 
     /**
@@ -92,6 +134,49 @@ public class PluginClassLoader extends URLClassLoader {
     public void addURL(URL url) {
         log.debug("Add '{}'", url);
         super.addURL(url);
+        hasURLs = true;
+        clearResourceCache();
+    }
+
+    /**
+     * Adds the entries of an archive to the search path for classes and resources,
+     * so that they are read directly from the archive, without extraction.
+     * The archives are searched after the URLs.
+     *
+     * @param archive the archive
+     * @param prefix the directory of the archive that is the root of the search path, or an empty string
+     * @param location the location of the archive, used to create the URLs of the resources
+     * @see ArchiveClassPath#add(ZipArchive, String, String)
+     * @see #addOpenArchive(Closeable)
+     */
+    public void addArchive(ZipArchive archive, String prefix, String location) {
+        log.debug("Add '{}' from '{}'", prefix, archive);
+        archiveClassPath.add(archive, prefix, location);
+        clearResourceCache();
+    }
+
+    /**
+     * Keeps an archive (a {@link ZipArchive} or a reference to a {@link PluginArchive}) open while this class loader
+     * is open: the archive is closed by {@link #close()}, after the archives are removed from the search path.
+     *
+     * @param archive the archive read by this class loader
+     */
+    public void addOpenArchive(Closeable archive) {
+        openArchives.add(archive);
+    }
+
+    /**
+     * Adds a shared library to the search path for classes and resources.
+     * The shared libraries are searched after the URLs and the archives (in the {@link ClassLoadingStrategy.Source#PLUGIN} step)
+     * and they are released when this class loader is closed.
+     *
+     * @param sharedLibrary the shared library
+     * @see SharedLibraryRegistry#acquire(java.nio.file.Path)
+     */
+    public void addSharedLibrary(SharedLibraryClassLoader sharedLibrary) {
+        log.debug("Add shared library {}", sharedLibrary);
+        sharedLibraries.add(sharedLibrary);
+        clearResourceCache();
     }
 
     /**
@@ -115,15 +200,22 @@ public class PluginClassLoader extends URLClassLoader {
      * If the requested class cannot be found in this class loader, the parent class loader will be consulted
      * via the standard {@link ClassLoader#loadClass(String)} mechanism.
      * Use {@link #classLoadingStrategy} to change the loading strategy.
+     * The classes already loaded by this class loader are returned immediately, before any other check.
      *
      * @param className the name of the class
      * @return the loaded class
      */
     @Override
     public Class<?> loadClass(String className) throws ClassNotFoundException {
+        // fast path: the class was already loaded by (or through) this class loader
+        Class<?> loadedClass = findLoadedClass(className);
+        if (loadedClass != null) {
+            return loadedClass;
+        }
+
         synchronized (getClassLoadingLock(className)) {
             // first check whether it's a system class, delegate to the system loader
-            if (className.startsWith(JAVA_PACKAGE_PREFIX)) {
+            if (delegationPolicy.getDelegation(className) == DelegationPolicy.Delegation.SYSTEM) {
                 return findSystemClass(className);
             }
 
@@ -135,8 +227,8 @@ public class PluginClassLoader extends URLClassLoader {
 
             log.trace("Received request to load class '{}'", className);
 
-            // second check whether it's already been loaded
-            Class<?> loadedClass = findLoadedClass(className);
+            // second check whether it's been loaded in the meantime
+            loadedClass = findLoadedClass(className);
             if (loadedClass != null) {
                 log.trace("Found loaded class '{}'", className);
                 return loadedClass;
@@ -151,6 +243,8 @@ public class PluginClassLoader extends URLClassLoader {
                             break;
                         case PLUGIN:
                             c = findClass(className);
+                            classLoads.increment();
+                            recordClass(className);
                             break;
                         case DEPENDENCIES:
                             c = loadClassFromDependencies(className);
@@ -166,6 +260,7 @@ public class PluginClassLoader extends URLClassLoader {
                 }
             }
 
+            classNotFound.increment();
             throw new ClassNotFoundException(className);
         }
     }
@@ -181,6 +276,19 @@ public class PluginClassLoader extends URLClassLoader {
      */
     @Override
     public URL getResource(String name) {
+        Optional<URL> cachedUrl = resourceCache.get(name);
+        if (cachedUrl != null) {
+            return cachedUrl.orElse(null);
+        }
+
+        long generation = resourceCacheGeneration.get();
+        URL url = lookupResource(name);
+        cacheResource(resourceCache, name, Optional.ofNullable(url), generation);
+
+        return url;
+    }
+
+    private URL lookupResource(String name) {
         ClassLoadingStrategy loadingStrategy = getClassLoadingStrategy(name);
         log.trace("Received request to load resource '{}'", name);
         for (ClassLoadingStrategy.Source classLoadingSource : loadingStrategy.getSources()) {
@@ -208,8 +316,26 @@ public class PluginClassLoader extends URLClassLoader {
         return null;
     }
 
+    /**
+     * Finds all the resources with the given name, in the order of the {@link #classLoadingStrategy}.
+     * A resource that is found in more than one place (for example in the plugin and in a dependency that
+     * shares a library) is returned once.
+     */
     @Override
     public Enumeration<URL> getResources(String name) throws IOException {
+        List<URL> cachedResources = resourcesCache.get(name);
+        if (cachedResources != null) {
+            return Collections.enumeration(cachedResources);
+        }
+
+        long generation = resourceCacheGeneration.get();
+        List<URL> resources = lookupResources(name);
+        cacheResource(resourcesCache, name, resources, generation);
+
+        return Collections.enumeration(resources);
+    }
+
+    private List<URL> lookupResources(String name) throws IOException {
         List<URL> resources = new ArrayList<>();
         ClassLoadingStrategy loadingStrategy = getClassLoadingStrategy(name);
         log.trace("Received request to load resources '{}'", name);
@@ -229,9 +355,268 @@ public class PluginClassLoader extends URLClassLoader {
             }
         }
 
+        // remove the duplicates (compare the external forms, URL.equals can resolve the host names)
+        Set<String> externalForms = new HashSet<>();
+        resources.removeIf(url -> !externalForms.add(url.toExternalForm()));
+
+        return Collections.unmodifiableList(resources);
+    }
+
+    /**
+     * Drops the cached results of {@link #getResource(String)} and {@link #getResources(String)}.
+     * The cache is cleared automatically when the search path of this class loader changes
+     * and when the class loader of a dependency changes.
+     */
+    public void clearResourceCache() {
+        resourceCacheGeneration.incrementAndGet();
+        resourceCache.clear();
+        resourcesCache.clear();
+    }
+
+    /**
+     * Called by the {@link PluginManager} when the class loader of a plugin is added, replaced or removed.
+     *
+     * @param pluginId the id of the plugin whose class loader changed
+     */
+    public void dependencyChanged(String pluginId) {
+        for (PluginDependency dependency : pluginDescriptor.getDependencies()) {
+            if (dependency.getPluginId().equals(pluginId)) {
+                dependencyClassLoaders = null;
+                clearResourceCache();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the class loaders of the dependencies of the plugin, in the order of the dependencies.
+     * The missing optional dependencies are skipped.
+     * <p>
+     * The array is computed once and reused, until the class loader of a dependency changes
+     * (see {@link #dependencyChanged(String)}); it is not cached while a required dependency is missing.
+     *
+     * @return the class loaders of the dependencies (don't modify the array)
+     */
+    protected ClassLoader[] getDependencyClassLoaders() {
+        ClassLoader[] classLoaders = dependencyClassLoaders;
+        if (classLoaders != null) {
+            return classLoaders;
+        }
+
+        List<PluginDependency> dependencies = pluginDescriptor.getDependencies();
+        List<ClassLoader> result = new ArrayList<>(dependencies.size());
+        boolean complete = true;
+        for (PluginDependency dependency : dependencies) {
+            ClassLoader classLoader = pluginManager.getPluginClassLoader(dependency.getPluginId());
+            if (classLoader != null) {
+                result.add(classLoader);
+            } else if (!dependency.isOptional()) {
+                complete = false;
+            }
+        }
+
+        classLoaders = result.toArray(new ClassLoader[0]);
+        if (complete) {
+            dependencyClassLoaders = classLoaders;
+        }
+
+        return classLoaders;
+    }
+
+    private <T> void cacheResource(Map<String, T> cache, String name, T value, long generation) {
+        if (cache.size() >= MAX_RESOURCE_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(name, value);
+        if (generation != resourceCacheGeneration.get()) {
+            // the cache was cleared during the lookup, the value can be stale
+            cache.remove(name);
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String className) throws ClassNotFoundException {
+        if (archiveClassPath.isEmpty() && sharedLibraries.isEmpty()) {
+            return findClassInURLs(className);
+        }
+
+        if (hasURLs) {
+            try {
+                return findClassInURLs(className);
+            } catch (ClassNotFoundException e) {
+                // try the archives and the shared libraries
+            }
+        }
+
+        if (!archiveClassPath.isEmpty()) {
+            ArchiveClassPath.Resource resource = archiveClassPath.getResource(className.replace('.', '/').concat(".class"));
+            if (resource != null) {
+                return defineClass(className, resource);
+            }
+        }
+
+        for (SharedLibraryClassLoader sharedLibrary : sharedLibraries) {
+            Class<?> c = sharedLibrary.findLibraryClass(className);
+            if (c != null) {
+                return c;
+            }
+        }
+
+        throw new ClassNotFoundException(className);
+    }
+
+    private Class<?> defineClass(String className, ArchiveClassPath.Resource resource) throws ClassNotFoundException {
+        byte[] bytes;
+        try {
+            bytes = resource.getBytes();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+        }
+
+        int index = className.lastIndexOf('.');
+        if (index > 0) {
+            String packageName = className.substring(0, index);
+            if (getPackage(packageName) == null) {
+                try {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                } catch (IllegalArgumentException e) {
+                    // defined in the meantime by another thread
+                }
+            }
+        }
+
+        Class<?> c = defineClass(className, bytes, 0, bytes.length, resource.getCodeSource());
+        classDefined(bytes.length);
+
+        return c;
+    }
+
+    private Class<?> findClassInURLs(String className) throws ClassNotFoundException {
+        Class<?> c = super.findClass(className);
+        classDefined(getClassFileSize(c));
+
+        return c;
+    }
+
+    /**
+     * Returns the size of the class file of a class read from a directory, or {@code -1} if the size
+     * is unknown (reading the size of a jar entry would open the jar again).
+     */
+    private static long getClassFileSize(Class<?> c) {
+        try {
+            CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+            URL location = (codeSource != null) ? codeSource.getLocation() : null;
+            // the URL of a directory ends with '/' (see URLClassLoader), no file system access for the jars
+            if ((location != null) && "file".equals(location.getProtocol()) && location.getPath().endsWith("/")) {
+                File directory = new File(location.toURI());
+                return new File(directory, c.getName().replace('.', '/').concat(".class")).length();
+            }
+        } catch (URISyntaxException | IllegalArgumentException | SecurityException e) {
+            // unknown size
+        }
+
+        return -1;
+    }
+
+    private void classDefined(long classFileSize) {
+        definedClassCount.increment();
+        if (classFileSize > 0) {
+            sizedClassCount.increment();
+            sizedClassBytes.add(classFileSize);
+        }
+    }
+
+    /**
+     * Returns the number of classes defined by this class loader
+     * (the classes of the shared libraries are defined by the shared library class loaders).
+     */
+    public long getDefinedClassCount() {
+        return definedClassCount.sum();
+    }
+
+    /**
+     * Returns the approximate size of the classes defined by this class loader, computed from the class files
+     * (a class whose class file size is unknown counts for {@value #ESTIMATED_CLASS_SIZE} bytes).
+     * The metaspace used by the classes is of the same order.
+     */
+    public long getApproximateClassBytes() {
+        // read the sized classes first, a class is counted as defined before it's counted as sized
+        long sizedClasses = sizedClassCount.sum();
+        long sizedBytes = sizedClassBytes.sum();
+        long unsizedClasses = Math.max(0, definedClassCount.sum() - sizedClasses);
+
+        return sizedBytes + unsizedClasses * ESTIMATED_CLASS_SIZE;
+    }
+
+    @Override
+    public URL findResource(String name) {
+        URL url = hasURLs ? super.findResource(name) : null;
+        if ((url == null) && !archiveClassPath.isEmpty()) {
+            ArchiveClassPath.Resource resource = archiveClassPath.getResource(name);
+            if (resource != null) {
+                url = resource.getURL();
+            }
+        }
+        for (int i = 0; (url == null) && (i < sharedLibraries.size()); i++) {
+            url = sharedLibraries.get(i).findResource(name);
+        }
+
+        return url;
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (archiveClassPath.isEmpty() && sharedLibraries.isEmpty()) {
+            return super.findResources(name);
+        }
+
+        List<URL> resources = new ArrayList<>();
+        if (hasURLs) {
+            resources.addAll(Collections.list(super.findResources(name)));
+        }
+        resources.addAll(archiveClassPath.getResources(name));
+        for (SharedLibraryClassLoader sharedLibrary : sharedLibraries) {
+            resources.addAll(Collections.list(sharedLibrary.findResources(name)));
+        }
+
         return Collections.enumeration(resources);
     }
 
+    /**
+     * Starts (or stops) recording the names of the classes that are loaded from the plugin's class path,
+     * in load order. The recorded names are used to generate class lists (see {@link ClassListStore}).
+     *
+     * @param recording {@code true} to record the loaded classes
+     */
+    public void setRecordingLoadedClasses(boolean recording) {
+        if (recording && recordedClassNames == null) {
+            recordedClassNames = new ConcurrentLinkedQueue<>();
+        } else if (!recording) {
+            recordedClassNames = null;
+        }
+    }
+
+    public boolean isRecordingLoadedClasses() {
+        return recordedClassNames != null;
+    }
+
+    /**
+     * Returns the names of the classes loaded from the plugin's class path since the recording started,
+     * in load order.
+     */
+    public List<String> getRecordedClassNames() {
+        Queue<String> classNames = recordedClassNames;
+
+        return (classNames != null) ? new ArrayList<>(classNames) : Collections.emptyList();
+    }
+
+    private void recordClass(String className) {
+        Queue<String> classNames = recordedClassNames;
+        if (classNames != null) {
+            classNames.add(className);
+        }
+    }
+
     private ClassLoadingStrategy getClassLoadingStrategy(String name) {
         ClassLoadingStrategy loadingStrategy = classLoadingStrategy;
         if (IndexedExtensionFinder.EXTENSIONS_RESOURCE.equals(name)) {
@@ -243,8 +628,9 @@ public class PluginClassLoader extends URLClassLoader {
     /**
      * Determines whether a class should be delegated to the parent class loader.
      * <p>
-     * By default, classes in the {@code org.pf4j} package are delegated to the parent class loader,
-     * except for test utilities ({@code org.pf4j.test}) which are part of the plugin's test classpath.
+     * By default, it follows the {@link #getDelegationPolicy() delegation policy}: classes in the {@code org.pf4j}
+     * package are delegated to the parent class loader, except for test utilities ({@code org.pf4j.test})
+     * which are part of the plugin's test classpath.
      * <p>
      * This method can be overridden by subclasses to customize which packages should be excluded
      * from parent delegation. This is useful for framework extensions or custom class loading policies.
@@ -253,8 +639,22 @@ public class PluginClassLoader extends URLClassLoader {
      * @return {@code true} if the class should be loaded by the parent class loader, {@code false} otherwise
      */
     protected boolean shouldDelegateToParent(String className) {
-        return className.startsWith(PLUGIN_PACKAGE_PREFIX)
-            && !className.startsWith("org.pf4j.test");
+        return delegationPolicy.getDelegation(className) == DelegationPolicy.Delegation.PARENT;
+    }
+
+    public DelegationPolicy getDelegationPolicy() {
+        return delegationPolicy;
+    }
+
+    /**
+     * Set the policy that decides which classes are delegated to the system or to the parent class loader,
+     * before the {@link ClassLoadingStrategy} is applied.
+     * The default is {@link DelegationPolicy#DEFAULT}.
+     *
+     * @param delegationPolicy the delegation policy
+     */
+    public void setDelegationPolicy(DelegationPolicy delegationPolicy) {
+        this.delegationPolicy = Objects.requireNonNull(delegationPolicy);
     }
 
     /**
@@ -265,6 +665,21 @@ public class PluginClassLoader extends URLClassLoader {
     @Override
     public void close() throws IOException {
         super.close();
+        archiveClassPath.close();
+        if (!closed) {
+            sharedLibraries.forEach(SharedLibraryClassLoader::release);
+            for (Closeable archive : openArchives) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    log.error("Cannot close {}", archive, e);
+                }
+            }
+        }
+        sharedLibraries.clear();
+        openArchives.clear();
+        clearResourceCache();
+        dependencyClassLoaders = null;
 
         closed = true;
     }
@@ -286,15 +701,7 @@ public class PluginClassLoader extends URLClassLoader {
      */
     protected Class<?> loadClassFromDependencies(String className) {
         log.trace("Search in dependencies for class '{}'", className);
-        List<PluginDependency> dependencies = pluginDescriptor.getDependencies();
-        for (PluginDependency dependency : dependencies) {
-            ClassLoader classLoader = pluginManager.getPluginClassLoader(dependency.getPluginId());
-
-            // If the dependency is marked as optional, its class loader might not be available.
-            if (classLoader == null && dependency.isOptional()) {
-                continue;
-            }
-
+        for (ClassLoader classLoader : getDependencyClassLoaders()) {
             try {
                 return classLoader.loadClass(className);
             } catch (ClassNotFoundException e) {
@@ -313,16 +720,8 @@ public class PluginClassLoader extends URLClassLoader {
      */
     protected URL findResourceFromDependencies(String name) {
         log.trace("Search in dependencies for resource '{}'", name);
-        List<PluginDependency> dependencies = pluginDescriptor.getDependencies();
-        for (PluginDependency dependency : dependencies) {
-            PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader(dependency.getPluginId());
-
-            // If the dependency is marked as optional, its class loader might not be available.
-            if (classLoader == null && dependency.isOptional()) {
-                continue;
-            }
-
-            URL url = classLoader.findResource(name);
+        for (ClassLoader classLoader : getDependencyClassLoaders()) {
+            URL url = ((PluginClassLoader) classLoader).findResource(name);
             if (Objects.nonNull(url)) {
                 return url;
             }
@@ -341,16 +740,8 @@ public class PluginClassLoader extends URLClassLoader {
     protected Collection<URL> findResourcesFromDependencies(String name) throws IOException {
         log.trace("Search in dependencies for resources '{}'", name);
         List<URL> results = new ArrayList<>();
-        List<PluginDependency> dependencies = pluginDescriptor.getDependencies();
-        for (PluginDependency dependency : dependencies) {
-            PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader(dependency.getPluginId());
-
-            // If the dependency is marked as optional, its class loader might not be available.
-            if (classLoader == null && dependency.isOptional()) {
-                continue;
-            }
-
-            results.addAll(Collections.list(classLoader.findResources(name)));
+        for (ClassLoader classLoader : getDependencyClassLoaders()) {
+            results.addAll(Collections.list(((PluginClassLoader) classLoader).findResources(name)));
         }
 
         return results;
@@ -36,6 +36,18 @@ public interface PluginDescriptorFinder {
      */
     boolean isApplicable(Path pluginPath);
 
+    /**
+     * Returns {@code true} if the plugin descriptor read by this finder is present in the given {@code pluginPath}.
+     * It's a cheap check, that probes the known locations of the descriptor without reading it,
+     * used by {@link CompoundPluginDescriptorFinder} to select a finder before calling {@link #find(Path)}.
+     * The default implementation returns {@link #isApplicable(Path)}.
+     *
+     * @param pluginPath the plugin path
+     */
+    default boolean hasDescriptor(Path pluginPath) {
+        return isApplicable(pluginPath);
+    }
+
     /**
      * Find the plugin descriptor for the given {@code pluginPath}.
      *
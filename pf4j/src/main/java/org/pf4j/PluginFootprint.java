@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+/**
+ * The memory footprint of a plugin: the classes defined by its class loader and the extension instances
+ * kept by the {@link ExtensionFactory}.
+ * It's computed from counters, so it's cheap enough to be polled (for example from a health endpoint).
+ *
+ * @see PluginManager#getPluginFootprints()
+ */
+public class PluginFootprint {
+
+    private final String pluginId;
+    private final long loadedClassCount;
+    private final long approximateMetaspaceSize;
+    private final int extensionInstanceCount;
+
+    public PluginFootprint(String pluginId, long loadedClassCount, long approximateMetaspaceSize, int extensionInstanceCount) {
+        this.pluginId = pluginId;
+        this.loadedClassCount = loadedClassCount;
+        this.approximateMetaspaceSize = approximateMetaspaceSize;
+        this.extensionInstanceCount = extensionInstanceCount;
+    }
+
+    public String getPluginId() {
+        return pluginId;
+    }
+
+    /**
+     * Returns the number of classes defined by the plugin class loader.
+     */
+    public long getLoadedClassCount() {
+        return loadedClassCount;
+    }
+
+    /**
+     * Returns the approximate metaspace used by the classes of the plugin, in bytes
+     * (see {@link PluginClassLoader#getApproximateClassBytes()}).
+     */
+    public long getApproximateMetaspaceSize() {
+        return approximateMetaspaceSize;
+    }
+
+    /**
+     * Returns the number of extension instances of the plugin kept by the {@link ExtensionFactory}
+     * (see {@link ExtensionFactory#getExtensionInstanceCount(ClassLoader)}).
+     */
+    public int getExtensionInstanceCount() {
+        return extensionInstanceCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginFootprint [pluginId=" + pluginId
+            + ", loadedClassCount=" + loadedClassCount
+            + ", approximateMetaspaceSize=" + approximateMetaspaceSize
+            + ", extensionInstanceCount=" + extensionInstanceCount + "]";
+    }
+
+}
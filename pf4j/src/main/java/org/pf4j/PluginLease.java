@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A lease on a plugin, that marks an in-flight usage of the plugin.
+ * While a lease is active, the plugin manager doesn't stop the plugin and doesn't close its class loader
+ * on unload or reload (it waits until the lease is closed or until the drain timeout elapses).
+ * <p>
+ * Use it in a {@code try-with-resources} statement:
+ * <pre>{@code
+ * try (PluginLease lease = pluginManager.acquirePlugin("myPlugin")) {
+ *     // use the plugin
+ * }
+ * }</pre>
+ *
+ * @see PluginManager#acquirePlugin(String)
+ * @see PluginWrapper#retain()
+ */
+public class PluginLease implements AutoCloseable {
+
+    private final PluginWrapper plugin;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PluginLease(PluginWrapper plugin) {
+        this.plugin = plugin;
+    }
+
+    static void checkRetain(PluginWrapper plugin) {
+        if ((plugin != null) && !plugin.retain()) {
+            throw new PluginRuntimeException("Plugin '{}' is being unloaded", plugin.getPluginId());
+        }
+    }
+
+    /**
+     * Returns the leased plugin.
+     *
+     * @return the leased plugin or {@code null} if the lease is for the application
+     */
+    public PluginWrapper getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns whether this lease has been closed.
+     *
+     * @return {@code true} if this lease has been closed, {@code false} otherwise
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Releases the lease. Calling this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true) && (plugin != null)) {
+            plugin.release();
+        }
+    }
+
+}
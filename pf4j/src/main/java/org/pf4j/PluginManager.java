@@ -16,7 +16,11 @@
 package org.pf4j;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -119,6 +123,80 @@ public interface PluginManager {
      */
     boolean unloadPlugin(String pluginId);
 
+    /**
+     * Reload a plugin from its current location.
+     *
+     * @param pluginId the unique plugin identifier, specified in its metadata
+     * @return the plugin state after reload
+     * @throws PluginRuntimeException if something goes wrong
+     * @see #reloadPlugin(String, Path)
+     */
+    default PluginState reloadPlugin(String pluginId) {
+        PluginWrapper pluginWrapper = getPlugin(pluginId);
+        if (pluginWrapper == null) {
+            throw new PluginNotFoundException(pluginId);
+        }
+
+        return reloadPlugin(pluginId, pluginWrapper.getPluginPath());
+    }
+
+    /**
+     * Reload a plugin from the specified location (for example a new version of the plugin).
+     * The plugin found at the location must have the same id.
+     * If the plugin was started, the reloaded plugin is started too.
+     * <p>
+     * The default implementation unloads the plugin and loads it again, so it's not safe for
+     * in-flight usages of the plugin.
+     *
+     * @param pluginId the unique plugin identifier, specified in its metadata
+     * @param pluginPath the new plugin location
+     * @return the plugin state after reload
+     * @throws PluginRuntimeException if something goes wrong
+     */
+    default PluginState reloadPlugin(String pluginId, Path pluginPath) {
+        PluginWrapper pluginWrapper = getPlugin(pluginId);
+        if (pluginWrapper == null) {
+            throw new PluginNotFoundException(pluginId);
+        }
+
+        boolean started = pluginWrapper.getPluginState().isStarted();
+        unloadPlugin(pluginId);
+        String reloadedPluginId = loadPlugin(pluginPath);
+        if (!pluginId.equals(reloadedPluginId)) {
+            throw new PluginRuntimeException("Plugin '{}' was reloaded with a different id '{}'", pluginId, reloadedPluginId);
+        }
+
+        return started ? startPlugin(pluginId) : getPlugin(pluginId).getPluginState();
+    }
+
+    /**
+     * Acquires a lease on the specified plugin.
+     * While the lease is active, the plugin is not stopped and its class loader is not closed
+     * on unload or reload.
+     *
+     * @param pluginId the unique plugin identifier, specified in its metadata
+     * @return the lease, that must be closed after use
+     * @throws PluginNotFoundException if the plugin does not exist
+     * @throws PluginRuntimeException if the plugin is being unloaded
+     */
+    default PluginLease acquirePlugin(String pluginId) {
+        while (true) {
+            PluginWrapper pluginWrapper = getPlugin(pluginId);
+            if (pluginWrapper == null) {
+                throw new PluginNotFoundException(pluginId);
+            }
+
+            if (pluginWrapper.retain()) {
+                return new PluginLease(pluginWrapper);
+            }
+
+            // try again if the plugin was replaced in the meantime (reload)
+            if (getPlugin(pluginId) == pluginWrapper) {
+                throw new PluginRuntimeException("Plugin '{}' is being unloaded", pluginId);
+            }
+        }
+    }
+
     /**
      * Disables a plugin from being loaded.
      *
@@ -164,6 +242,53 @@ public interface PluginManager {
 
     <T> List<T> getExtensions(Class<T> type, String pluginId);
 
+    /**
+     * Retrieves the extensions for the specified extension point, each one with a lease on its plugin.
+     * The extensions of plugins that are being unloaded are skipped.
+     *
+     * @param type the extension point
+     * @return the leased extensions; each lease must be closed after use
+     * @see ExtensionLease
+     */
+    default <T> List<ExtensionLease<T>> acquireExtensions(Class<T> type) {
+        // a plugin can be unloaded or reloaded while the leases are acquired, so retry (a few times)
+        for (int attempt = 1; ; attempt++) {
+            List<T> extensions = getExtensions(type);
+
+            // map the class loaders to their plugins once, not for each extension
+            Map<ClassLoader, PluginWrapper> plugins = new IdentityHashMap<>();
+            for (PluginWrapper plugin : getResolvedPlugins()) {
+                plugins.put(plugin.getPluginClassLoader(), plugin);
+            }
+
+            List<ExtensionLease<T>> leases = new ArrayList<>(extensions.size());
+            boolean retry = false;
+            for (T extension : extensions) {
+                ClassLoader classLoader = extension.getClass().getClassLoader();
+                PluginWrapper pluginWrapper = plugins.get(classLoader);
+                if (pluginWrapper == null) {
+                    if (classLoader instanceof PluginClassLoader) {
+                        // the plugin was unloaded or replaced (reloaded) meanwhile, never lease it as an application extension
+                        retry = true;
+                    } else {
+                        leases.add(new ExtensionLease<>(null, extension));
+                    }
+                } else if (pluginWrapper.retain()) {
+                    leases.add(new ExtensionLease<>(pluginWrapper, extension));
+                } else {
+                    // the plugin is being unloaded or it was replaced (reloaded)
+                    retry = true;
+                }
+            }
+
+            if (!retry || (attempt == 3)) {
+                return leases;
+            }
+
+            leases.forEach(ExtensionLease::close);
+        }
+    }
+
     /**
      * Retrieves the extensions for the specified plugin.
      *
@@ -195,6 +320,31 @@ public interface PluginManager {
         return !isDevelopment();
     }
 
+    /**
+     * Returns the {@link PluginMetrics} that the plugin manager, the plugin class loaders and the extension
+     * finders report into.
+     * The default implementation returns {@link PluginMetrics#NOOP}.
+     */
+    default PluginMetrics getPluginMetrics() {
+        return PluginMetrics.NOOP;
+    }
+
+    /**
+     * Returns the time spent in loading and starting each plugin.
+     * The default implementation returns an empty report.
+     */
+    default PluginStartupReport getStartupReport() {
+        return PluginStartupReport.empty();
+    }
+
+    /**
+     * Returns the memory footprint of each loaded plugin, the largest (approximate metaspace) first.
+     * The default implementation returns an empty list.
+     */
+    default List<PluginFootprint> getPluginFootprints() {
+        return Collections.emptyList();
+    }
+
     /**
      * Retrieves the {@link PluginWrapper} that loaded the given class 'clazz'.
      */
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.function.Supplier;
+
+/**
+ * A lightweight metrics SPI (counters, timers and gauges), without dependencies, that
+ * {@link AbstractPluginManager}, {@link PluginClassLoader} and {@link AbstractExtensionFinder} report into.
+ * Implement it to bridge to a metrics system (Micrometer, Dropwizard, ...).
+ * <p>
+ * A metric is identified by its name (see the constants) and by a plugin id ({@code null} for the metrics
+ * that are not related to a plugin).
+ * The counters and timers are requested once and kept by the callers, so they must be cheap and thread safe.
+ *
+ * @see NoopPluginMetrics
+ * @see InMemoryPluginMetrics
+ * @see AbstractPluginManager#setPluginMetrics(PluginMetrics)
+ */
+public interface PluginMetrics {
+
+    PluginMetrics NOOP = NoopPluginMetrics.INSTANCE;
+
+    /** Timer of {@link AbstractPluginManager#loadPluginFromPath(java.nio.file.Path)}, per plugin. */
+    String PLUGIN_LOAD = "pf4j.plugin.load";
+
+    /** Timer of {@link Plugin#start()}, per plugin. */
+    String PLUGIN_START = "pf4j.plugin.start";
+
+    /** Timer of {@link Plugin#stop()}, per plugin. */
+    String PLUGIN_STOP = "pf4j.plugin.stop";
+
+    /** Counter of the failed starts, per plugin. */
+    String PLUGIN_START_FAILURES = "pf4j.plugin.start.failures";
+
+    /**
+     * Counters of the state transitions, per plugin.
+     * The name of a counter is this prefix followed by the new state (for example {@code pf4j.plugin.state.STARTED}).
+     */
+    String PLUGIN_STATE = "pf4j.plugin.state";
+
+    /** Gauge of the number of loaded plugins. */
+    String PLUGINS = "pf4j.plugins";
+
+    /** Gauge of the number of started plugins. */
+    String STARTED_PLUGINS = "pf4j.plugins.started";
+
+    /** Counter of the classes loaded from the plugin class path, per plugin. */
+    String CLASS_LOADS = "pf4j.classloader.loads";
+
+    /** Counter of the classes not found by the plugin class loader, per plugin. */
+    String CLASS_NOT_FOUND = "pf4j.classloader.notFound";
+
+    /** Counter of the extension lookups answered from the cache of the extension finder. */
+    String EXTENSION_CACHE_HITS = "pf4j.extensions.cache.hits";
+
+    /** Counter of the extension lookups that read the extension storages (index files, service files). */
+    String EXTENSION_CACHE_MISSES = "pf4j.extensions.cache.misses";
+
+    /** Gauge of the class loaders of the unloaded plugins that are still alive (see {@link ClassLoaderLeakDetector}). */
+    String LEAKED_CLASS_LOADERS = "pf4j.classloaders.leaked";
+
+    /**
+     * Returns the counter with the given name.
+     *
+     * @param name the name of the counter
+     * @param pluginId the plugin id or {@code null}
+     * @return the counter
+     */
+    Counter counter(String name, String pluginId);
+
+    /**
+     * Returns the timer with the given name.
+     *
+     * @param name the name of the timer
+     * @param pluginId the plugin id or {@code null}
+     * @return the timer
+     */
+    Timer timer(String name, String pluginId);
+
+    /**
+     * Registers a gauge, a value that is read when the metrics are collected.
+     *
+     * @param name the name of the gauge
+     * @param pluginId the plugin id or {@code null}
+     * @param value the supplier of the value
+     */
+    void gauge(String name, String pluginId, Supplier<? extends Number> value);
+
+    /**
+     * A monotonic counter.
+     */
+    interface Counter {
+
+        void increment();
+
+    }
+
+    /**
+     * A timer that records durations.
+     */
+    interface Timer {
+
+        /**
+         * Records a duration.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        void record(long nanos);
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A snapshot of the {@link PluginTimings} of the loaded plugins, the slowest plugin first.
+ * Use it to find the plugins that slow down the application startup.
+ *
+ * @see PluginManager#getStartupReport()
+ */
+public class PluginStartupReport {
+
+    /**
+     * The number of plugins listed in {@link #getSummary()}.
+     */
+    private static final int SLOWEST_PLUGINS = 3;
+
+    private final List<PluginTimings> plugins;
+
+    public PluginStartupReport(Collection<PluginTimings> plugins) {
+        List<PluginTimings> sorted = plugins.stream()
+            .map(PluginTimings::copy)
+            .sorted(Comparator.comparing(PluginTimings::getTotalTime).reversed())
+            .collect(Collectors.toList());
+        this.plugins = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Returns an empty report.
+     */
+    public static PluginStartupReport empty() {
+        return new PluginStartupReport(Collections.emptyList());
+    }
+
+    /**
+     * Returns the timings of all plugins, sorted by total time (the slowest first).
+     */
+    public List<PluginTimings> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * Returns the timings of a plugin, or {@code null} if the plugin isn't in the report.
+     */
+    public PluginTimings getPlugin(String pluginId) {
+        for (PluginTimings timings : plugins) {
+            if (timings.getPluginId().equals(pluginId)) {
+                return timings;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the time spent in the plugins' own steps (descriptor, class loader, instantiation and start),
+     * plus the longest dependency resolution pass.
+     */
+    public Duration getTotalTime() {
+        Duration total = Duration.ZERO;
+        Duration resolve = Duration.ZERO;
+        for (PluginTimings timings : plugins) {
+            total = total.plus(timings.getTotalTime()).minus(timings.getResolveTime());
+            if (timings.getResolveTime().compareTo(resolve) > 0) {
+                resolve = timings.getResolveTime();
+            }
+        }
+
+        return total.plus(resolve);
+    }
+
+    /**
+     * Returns a one-line summary, for example
+     * {@code 12 plugins in 840.3 ms (slowest: plugin1 320.5 ms, plugin2 110.0 ms, plugin3 95.2 ms)}.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder()
+            .append(plugins.size()).append(" plugins in ")
+            .append(PluginTimings.toMillis(getTotalTime().toNanos())).append(" ms");
+
+        if (!plugins.isEmpty()) {
+            List<String> slowest = new ArrayList<>();
+            for (PluginTimings timings : plugins.subList(0, Math.min(SLOWEST_PLUGINS, plugins.size()))) {
+                slowest.add(timings.getPluginId() + " " + PluginTimings.toMillis(timings.getTotalTime().toNanos()) + " ms");
+            }
+            summary.append(" (slowest: ").append(String.join(", ", slowest)).append(')');
+        }
+
+        return summary.toString();
+    }
+
+    /**
+     * Returns a table with the timings (in milliseconds) of all plugins.
+     */
+    @Override
+    public String toString() {
+        String format = "%-30s %12s %12s %12s %12s %12s %12s%n";
+        StringBuilder table = new StringBuilder(String.format(format,
+            "Plugin", "Descriptor", "ClassLoader", "Resolve", "Instantiate", "Start", "Total"));
+        for (PluginTimings timings : plugins) {
+            table.append(String.format(format,
+                timings.getPluginId(),
+                PluginTimings.toMillis(timings.getDescriptorTime().toNanos()),
+                PluginTimings.toMillis(timings.getClassLoaderTime().toNanos()),
+                PluginTimings.toMillis(timings.getResolveTime().toNanos()),
+                PluginTimings.toMillis(timings.getInstantiationTime().toNanos()),
+                PluginTimings.toMillis(timings.getStartTime().toNanos()),
+                PluginTimings.toMillis(timings.getTotalTime().toNanos())));
+        }
+
+        return table.toString();
+    }
+
+}
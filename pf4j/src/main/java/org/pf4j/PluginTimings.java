@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * The time spent by the {@link PluginManager} in each step of loading and starting a plugin.
+ * A step that didn't run (yet) has a zero duration.
+ * <p>
+ * The dependency resolution runs for all the plugins loaded together,
+ * so the resolution time of a plugin is the duration of the pass that resolved it.
+ *
+ * @see PluginStartupReport
+ */
+public class PluginTimings {
+
+    private final String pluginId;
+
+    private volatile long descriptorTime;
+    private volatile long classLoaderTime;
+    private volatile long resolveTime;
+    private volatile long instantiationTime;
+    private volatile long startTime;
+
+    public PluginTimings(String pluginId) {
+        this.pluginId = pluginId;
+    }
+
+    public String getPluginId() {
+        return pluginId;
+    }
+
+    /**
+     * Returns the time spent in {@link PluginDescriptorFinder#find(java.nio.file.Path)}.
+     */
+    public Duration getDescriptorTime() {
+        return Duration.ofNanos(descriptorTime);
+    }
+
+    /**
+     * Returns the time spent in {@link PluginLoader#loadPlugin(java.nio.file.Path, PluginDescriptor)}.
+     */
+    public Duration getClassLoaderTime() {
+        return Duration.ofNanos(classLoaderTime);
+    }
+
+    /**
+     * Returns the duration of the dependency resolution pass that resolved the plugin.
+     */
+    public Duration getResolveTime() {
+        return Duration.ofNanos(resolveTime);
+    }
+
+    /**
+     * Returns the time spent in {@link PluginFactory#create(PluginWrapper)}.
+     */
+    public Duration getInstantiationTime() {
+        return Duration.ofNanos(instantiationTime);
+    }
+
+    /**
+     * Returns the time spent in {@link Plugin#start()}.
+     */
+    public Duration getStartTime() {
+        return Duration.ofNanos(startTime);
+    }
+
+    public Duration getTotalTime() {
+        return Duration.ofNanos(descriptorTime + classLoaderTime + resolveTime + instantiationTime + startTime);
+    }
+
+    void setDescriptorTime(long nanos) {
+        descriptorTime = nanos;
+    }
+
+    void setClassLoaderTime(long nanos) {
+        classLoaderTime = nanos;
+    }
+
+    void setResolveTime(long nanos) {
+        resolveTime = nanos;
+    }
+
+    void setInstantiationTime(long nanos) {
+        instantiationTime = nanos;
+    }
+
+    void setStartTime(long nanos) {
+        startTime = nanos;
+    }
+
+    PluginTimings copy() {
+        PluginTimings copy = new PluginTimings(pluginId);
+        copy.descriptorTime = descriptorTime;
+        copy.classLoaderTime = classLoaderTime;
+        copy.resolveTime = resolveTime;
+        copy.instantiationTime = instantiationTime;
+        copy.startTime = startTime;
+
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginTimings [pluginId=" + pluginId
+            + ", descriptor=" + toMillis(descriptorTime)
+            + " ms, classLoader=" + toMillis(classLoaderTime)
+            + " ms, resolve=" + toMillis(resolveTime)
+            + " ms, instantiation=" + toMillis(instantiationTime)
+            + " ms, start=" + toMillis(startTime)
+            + " ms]";
+    }
+
+    static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+}
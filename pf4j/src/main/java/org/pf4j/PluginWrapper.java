@@ -33,6 +33,7 @@ public class PluginWrapper {
     private final RuntimeMode runtimeMode;
 
     private Throwable failedException;
+    private final UsageCounter usageCounter = new UsageCounter();
 
     Plugin plugin; // cache
 
@@ -188,6 +189,40 @@ public class PluginWrapper {
         return failedException;
     }
 
+    /**
+     * Marks the beginning of an in-flight usage of this plugin (for example a call into one of its extensions).
+     * Each successful call must be paired with a call to {@link #release()}, usually in a {@code finally} block.
+     * <p>
+     * While a plugin is in use, {@link PluginManager#reloadPlugin(String)} doesn't stop it and doesn't close
+     * its class loader (it waits until all the usages are released).
+     *
+     * @return {@code true} if the usage was registered, {@code false} if the plugin is being reloaded
+     * (in this case retrieve again the plugin from the {@link PluginManager})
+     */
+    public boolean retain() {
+        return usageCounter.acquire();
+    }
+
+    /**
+     * Marks the end of an in-flight usage registered with {@link #retain()}.
+     */
+    public void release() {
+        usageCounter.release();
+    }
+
+    /**
+     * Returns the number of in-flight usages of this plugin.
+     *
+     * @return the number of in-flight usages
+     */
+    public int getUsageCount() {
+        return usageCounter.getCount();
+    }
+
+    UsageCounter getUsageCounter() {
+        return usageCounter;
+    }
+
     /**
      * Used internally by the framework to set the exception with which the plugin fails to start.
      *
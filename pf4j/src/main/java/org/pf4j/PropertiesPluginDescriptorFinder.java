@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Objects;
 import java.util.Properties;
 
 /**
@@ -49,6 +50,14 @@ public class PropertiesPluginDescriptorFinder implements PluginDescriptorFinder
 
     protected String propertiesFileName;
 
+    /**
+     * {@code true} if {@link #getPropertiesPath(Path, String)} is not overridden,
+     * so the properties file can be read from the shared {@link PluginArchive} of a plugin.
+     */
+    private final boolean defaultPropertiesPath = !overridesPropertiesPath(getClass());
+
+    private PluginArchiveRegistry pluginArchiveRegistry = new PluginArchiveRegistry();
+
     public PropertiesPluginDescriptorFinder() {
         this(DEFAULT_PROPERTIES_FILE_NAME);
     }
@@ -57,11 +66,43 @@ public class PropertiesPluginDescriptorFinder implements PluginDescriptorFinder
         this.propertiesFileName = propertiesFileName;
     }
 
+    /**
+     * Reads the plugin files from the archives already open by the plugin manager (see {@link PluginArchiveRegistry#get(Path)}).
+     * By default the finder has its own (empty) registry, so it opens the plugin files.
+     *
+     * @param pluginArchiveRegistry the registry of the plugin manager
+     */
+    public void setPluginArchiveRegistry(PluginArchiveRegistry pluginArchiveRegistry) {
+        this.pluginArchiveRegistry = Objects.requireNonNull(pluginArchiveRegistry);
+    }
+
     @Override
     public boolean isApplicable(Path pluginPath) {
         return Files.exists(pluginPath) && (Files.isDirectory(pluginPath) || FileUtils.isZipOrJarFile(pluginPath));
     }
 
+    @Override
+    public boolean hasDescriptor(Path pluginPath) {
+        try {
+            if (Files.isDirectory(pluginPath)) {
+                Path propertiesPath = defaultPropertiesPath ? pluginPath.resolve(propertiesFileName)
+                    : getPropertiesPath(pluginPath, propertiesFileName);
+                return Files.isRegularFile(propertiesPath);
+            }
+
+            if (FileUtils.isZipOrJarFile(pluginPath)) {
+                // a relocated properties file in an archive is looked up only by find()
+                return !defaultPropertiesPath || pluginArchiveRegistry.containsEntry(pluginPath, propertiesFileName);
+            }
+        } catch (Exception e) {
+            // let find() report the error
+            log.debug("Cannot probe the properties file of '{}': {}", pluginPath, e.getMessage());
+            return true;
+        }
+
+        return false;
+    }
+
     @Override
     public PluginDescriptor find(Path pluginPath) {
         Properties properties = readProperties(pluginPath);
@@ -70,6 +111,13 @@ public class PropertiesPluginDescriptorFinder implements PluginDescriptorFinder
     }
 
     protected Properties readProperties(Path pluginPath) {
+        if (defaultPropertiesPath && FileUtils.isZipOrJarFile(pluginPath)) {
+            PluginArchive archive = pluginArchiveRegistry.get(pluginPath);
+            if (archive != null) {
+                return readPropertiesFromArchive(archive);
+            }
+        }
+
         Path propertiesPath = getPropertiesPath(pluginPath, propertiesFileName);
         if (propertiesPath == null) {
             throw new PluginRuntimeException("Cannot find the properties path");
@@ -94,6 +142,27 @@ public class PropertiesPluginDescriptorFinder implements PluginDescriptorFinder
         return properties;
     }
 
+    /**
+     * Reads the properties file from the (shared) {@link PluginArchive} of a plugin, already open by the plugin manager,
+     * without opening a zip file system.
+     * It's used only if {@link #getPropertiesPath(Path, String)} is not overridden.
+     */
+    private Properties readPropertiesFromArchive(PluginArchive archive) {
+        Properties properties = new Properties();
+        try (InputStream input = archive.getInputStream(propertiesFileName)) {
+            if (input == null) {
+                throw new PluginRuntimeException("Cannot find '{}' in {}", propertiesFileName, archive.getPath());
+            }
+
+            log.debug("Lookup plugin descriptor in '{}' of '{}'", propertiesFileName, archive.getPath());
+            properties.load(input);
+        } catch (IOException e) {
+            throw new PluginRuntimeException(e);
+        }
+
+        return properties;
+    }
+
     protected Path getPropertiesPath(Path pluginPath, String propertiesFileName) {
         if (Files.isDirectory(pluginPath)) {
             return pluginPath.resolve(Paths.get(propertiesFileName));
@@ -107,6 +176,19 @@ public class PropertiesPluginDescriptorFinder implements PluginDescriptorFinder
         }
     }
 
+    private static boolean overridesPropertiesPath(Class<?> finderClass) {
+        for (Class<?> clazz = finderClass; clazz != PropertiesPluginDescriptorFinder.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod("getPropertiesPath", Path.class, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // continue with the superclass
+            }
+        }
+
+        return false;
+    }
+
     protected PluginDescriptor createPluginDescriptor(Properties properties) {
         DefaultPluginDescriptor pluginDescriptor = createPluginDescriptorInstance();
 
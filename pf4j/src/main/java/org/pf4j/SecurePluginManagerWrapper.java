@@ -140,6 +140,16 @@ public class SecurePluginManagerWrapper implements PluginManager {
         }
     }
 
+    @Override
+    public PluginState reloadPlugin(String pluginId) {
+        throw new IllegalAccessError(PLUGIN_PREFIX + currentPluginId + " tried to execute reloadPlugin!");
+    }
+
+    @Override
+    public PluginState reloadPlugin(String pluginId, Path pluginPath) {
+        throw new IllegalAccessError(PLUGIN_PREFIX + currentPluginId + " tried to execute reloadPlugin!");
+    }
+
     @Override
     public boolean disablePlugin(String pluginId) {
         if (currentPluginId.equals(pluginId)) {
@@ -232,6 +242,21 @@ public class SecurePluginManagerWrapper implements PluginManager {
         return original.getExtensionFactory();
     }
 
+    @Override
+    public PluginMetrics getPluginMetrics() {
+        return original.getPluginMetrics();
+    }
+
+    @Override
+    public PluginStartupReport getStartupReport() {
+        return original.getStartupReport();
+    }
+
+    @Override
+    public List<PluginFootprint> getPluginFootprints() {
+        return original.getPluginFootprints();
+    }
+
     @Override
     public RuntimeMode getRuntimeMode() {
         return original.getRuntimeMode();
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+/**
+ * The {@link ClassLoader} of the library jars that are shared by all plugins that bundle the same jars
+ * (same content), see {@link SharedLibraryRegistry}.
+ * <p>
+ * The {@link PluginClassLoader}s that use a shared library search it in the {@link ClassLoadingStrategy.Source#PLUGIN}
+ * step, after their own class path (see {@link PluginClassLoader#addSharedLibrary(SharedLibraryClassLoader)}).
+ * The classes are delegated to the system or to the parent class loader according to the {@link DelegationPolicy}
+ * of the registry, the other classes are loaded from the jars first, then from the parent class loader.
+ * The jars see each other, but they cannot see the classes of the plugins.
+ */
+public class SharedLibraryClassLoader extends URLClassLoader {
+
+    private final SharedLibraryRegistry registry;
+    private final String key;
+    private int usageCount; // guarded by registry
+
+    SharedLibraryClassLoader(SharedLibraryRegistry registry, String key, URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+
+        this.registry = registry;
+        this.key = key;
+    }
+
+    /**
+     * Returns the content hashes (SHA-256) of the library jars, sorted and comma separated.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the number of plugin class loaders that use this library.
+     */
+    public int getUsageCount() {
+        synchronized (registry) {
+            return usageCount;
+        }
+    }
+
+    /**
+     * Finds a class in the library jars only (no delegation to the parent).
+     *
+     * @param className the name of the class
+     * @return the class or {@code null} if the libraries don't contain it
+     */
+    public Class<?> findLibraryClass(String className) {
+        synchronized (getClassLoadingLock(className)) {
+            Class<?> loadedClass = findLoadedClass(className);
+            if (loadedClass != null) {
+                return loadedClass;
+            }
+
+            try {
+                return findClass(className);
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+        switch (registry.getDelegationPolicy().getDelegation(className)) {
+            case SYSTEM:
+                return findSystemClass(className);
+            case PARENT:
+                return getParent().loadClass(className);
+            default:
+                break;
+        }
+
+        Class<?> c = findLibraryClass(className);
+        if (c == null) {
+            return super.loadClass(className, resolve);
+        }
+
+        if (resolve) {
+            resolveClass(c);
+        }
+
+        return c;
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = findResource(name);
+
+        return (url != null) ? url : super.getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        return findResources(name);
+    }
+
+    /**
+     * Called by {@link PluginClassLoader#close()}.
+     * The library is closed when no plugin class loader uses it.
+     */
+    void release() {
+        registry.release(this);
+    }
+
+    void retain() {
+        usageCount++;
+    }
+
+    boolean releaseAndCheckUnused() {
+        return --usageCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedLibraryClassLoader " + Arrays.toString(getURLs());
+    }
+
+}
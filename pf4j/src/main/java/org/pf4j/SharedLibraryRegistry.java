@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Deduplicates the library jars that are bundled by many plugins (for example the same Guava or Jackson jars),
+ * so that their classes are defined (and compiled) only once.
+ * The jars to share are listed explicitly, with a {@link FileFilter} or with jar name patterns
+ * (see {@link #SharedLibraryRegistry(ClassLoader, List)}); the other jars stay in the plugin class loader.
+ * <p>
+ * The jars are identified by the SHA-256 hash of their content. The shared jars of a plugin are loaded together,
+ * by one {@link SharedLibraryClassLoader}, so the libraries that depend on each other (for example
+ * {@code jackson-databind} and {@code jackson-core}) see each other; all plugins that contain the same set
+ * of shared jars (same hashes) use the same {@link SharedLibraryClassLoader}.
+ * That's the limitation: two plugins share a library only if they bundle the same versions of all the listed jars.
+ * So list the common libraries (with their dependencies) that the plugins bundle, not all the jars;
+ * a plugin that bundles only a part of the listed jars (or other versions) gets its own shared class loader.
+ * <p>
+ * A shared library cannot see the classes of the plugin that uses it, so only the libraries that don't depend
+ * on the plugin classes (or on the jars that are not shared) should be shared.
+ * The shared class loaders delegate to the parent class loader according to a {@link DelegationPolicy}
+ * (see {@link #setDelegationPolicy(DelegationPolicy)}).
+ * The shared class loader is closed when the last plugin class loader that uses it is closed.
+ *
+ * @see BasePluginLoader#setSharedLibraryRegistry(SharedLibraryRegistry)
+ */
+public class SharedLibraryRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedLibraryRegistry.class);
+
+    private final ClassLoader parent;
+    private final FileFilter filter;
+    private final Map<String, SharedLibraryClassLoader> classLoaders = new HashMap<>();
+
+    private volatile DelegationPolicy delegationPolicy = DelegationPolicy.DEFAULT;
+
+    /**
+     * Shares the library jars with a name that matches one of the glob patterns (for example {@code guava-*.jar}).
+     *
+     * @param parent the parent of the shared class loaders (usually the parent of the plugin class loaders)
+     * @param jarNames the glob patterns of the names of the jars to share
+     */
+    public SharedLibraryRegistry(ClassLoader parent, List<String> jarNames) {
+        this(parent, createFilter(jarNames));
+    }
+
+    /**
+     * @param parent the parent of the shared class loaders (usually the parent of the plugin class loaders)
+     * @param filter selects the library jars that can be shared
+     */
+    public SharedLibraryRegistry(ClassLoader parent, FileFilter filter) {
+        this.parent = parent;
+        this.filter = Objects.requireNonNull(filter);
+    }
+
+    /**
+     * Returns {@code true} if the library jar can be shared.
+     */
+    public boolean isShared(Path jar) {
+        return filter.accept(jar.toFile());
+    }
+
+    /**
+     * Returns the shared class loader for the content of the jar, creating it if it's the first jar with this content.
+     *
+     * @param jar the library jar
+     * @return the shared class loader
+     * @throws IOException if the jar cannot be read
+     * @see #acquire(List)
+     */
+    public SharedLibraryClassLoader acquire(Path jar) throws IOException {
+        return acquire(Collections.singletonList(jar));
+    }
+
+    /**
+     * Returns the shared class loader for the content of the jars (the shared jars of a plugin),
+     * creating it if it's the first plugin with this set of jars.
+     * The caller must release the class loader when it's no longer used
+     * ({@link PluginClassLoader#close()} does it for its shared libraries).
+     *
+     * @param jars the library jars
+     * @return the shared class loader
+     * @throws IOException if a jar cannot be read
+     */
+    public SharedLibraryClassLoader acquire(List<Path> jars) throws IOException {
+        // the same set of jars, in any order
+        Set<String> hashes = new TreeSet<>();
+        URL[] urls = new URL[jars.size()];
+        for (int i = 0; i < urls.length; i++) {
+            Path jar = jars.get(i);
+            hashes.add(FileUtils.hash(jar));
+            urls[i] = jar.toUri().toURL();
+        }
+        String key = String.join(",", hashes);
+
+        synchronized (this) {
+            SharedLibraryClassLoader classLoader = classLoaders.get(key);
+            if (classLoader == null) {
+                log.debug("Share libraries {} ({})", jars, key);
+                classLoader = new SharedLibraryClassLoader(this, key, urls, parent);
+                classLoaders.put(key, classLoader);
+            } else {
+                log.debug("Reuse shared libraries {} for {}", classLoader, jars);
+            }
+            classLoader.retain();
+
+            return classLoader;
+        }
+    }
+
+    public DelegationPolicy getDelegationPolicy() {
+        return delegationPolicy;
+    }
+
+    /**
+     * Sets the {@link DelegationPolicy} of the shared class loaders, usually the policy of the plugin class loaders.
+     * The default is {@link DelegationPolicy#DEFAULT}.
+     *
+     * @param delegationPolicy the delegation policy
+     */
+    public void setDelegationPolicy(DelegationPolicy delegationPolicy) {
+        this.delegationPolicy = Objects.requireNonNull(delegationPolicy);
+    }
+
+    private static FileFilter createFilter(List<String> jarNames) {
+        List<PathMatcher> matchers = new ArrayList<>(jarNames.size());
+        for (String jarName : jarNames) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + jarName));
+        }
+
+        return file -> {
+            Path fileName = file.toPath().getFileName();
+            return matchers.stream().anyMatch(matcher -> matcher.matches(fileName));
+        };
+    }
+
+    /**
+     * Returns the number of shared class loaders (distinct sets of shared jars).
+     */
+    public synchronized int size() {
+        return classLoaders.size();
+    }
+
+    synchronized void release(SharedLibraryClassLoader classLoader) {
+        if (classLoader.releaseAndCheckUnused()) {
+            classLoaders.remove(classLoader.getKey());
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                log.error("Cannot close {}", classLoader, e);
+            }
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 /**
  * An {@link ExtensionFactory} that always returns a specific instance.
  * Optional, you can specify the extension classes for which you want singletons.
+ * The instances are cached and created under the lock of the factory, so it's thread-safe.
  *
  * @author Decebal Suiu
  * @author Ajith Kumar
@@ -40,14 +41,16 @@ public class SingletonExtensionFactory extends DefaultExtensionFactory {
 
         pluginManager.addPluginStateListener(event -> {
             if (!event.getPluginState().isStarted()) {
-                cache.remove(event.getPlugin().getPluginClassLoader());
+                synchronized (this) {
+                    cache.remove(event.getPlugin().getPluginClassLoader());
+                }
             }
         });
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public <T> T create(Class<T> extensionClass) {
+    public synchronized <T> T create(Class<T> extensionClass) {
         String extensionClassName = extensionClass.getName();
         ClassLoader extensionClassLoader = extensionClass.getClassLoader();
 
@@ -69,4 +72,11 @@ public class SingletonExtensionFactory extends DefaultExtensionFactory {
         return extension;
     }
 
+    @Override
+    public synchronized int getExtensionInstanceCount(ClassLoader classLoader) {
+        Map<String, Object> classLoaderBucket = cache.get(classLoader);
+
+        return (classLoaderBucket != null) ? classLoaderBucket.size() : 0;
+    }
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the in-flight usages of a plugin.
+ * Before the class loader of a plugin is closed, the counter is drained: no new usages are accepted
+ * and the caller waits until all the active usages are released.
+ * <p>
+ * The counter is striped (see {@link LongAdder}), so concurrent usages of the same plugin
+ * don't contend on a single memory location. It keeps two monotonic sums, the acquired and the released
+ * usages, so an extra release is detected (and rejected) instead of driving the count below zero.
+ */
+final class UsageCounter {
+
+    private static final long MAX_WAIT = 10; // milliseconds
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private volatile boolean draining;
+
+    /**
+     * Registers a new usage.
+     *
+     * @return {@code true} if the usage was registered, {@code false} if the counter is draining
+     */
+    boolean acquire() {
+        acquired.increment();
+        if (draining) {
+            // the counter is draining, undo the increment
+            release();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Releases a usage registered with {@link #acquire()}.
+     *
+     * @throws IllegalStateException if there is no usage to release
+     */
+    void release() {
+        released.increment();
+        if (getCount() < 0) {
+            // more releases than acquisitions, compensate so the count never goes below zero
+            acquired.increment();
+            throw new IllegalStateException("No usage to release");
+        }
+
+        if (draining && getCount() == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of active usages.
+     * The released usages are summed first, so a concurrent usage may be counted as still active,
+     * but a released usage is never counted without its acquisition.
+     */
+    int getCount() {
+        long releasedCount = released.sum();
+
+        return (int) (acquired.sum() - releasedCount);
+    }
+
+    boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Stops accepting new usages, without waiting for the active usages.
+     */
+    void startDraining() {
+        draining = true;
+    }
+
+    /**
+     * Stops accepting new usages and waits until all the active usages are released.
+     *
+     * @param timeout the maximum time to wait in milliseconds; zero or negative means don't wait at all
+     * @return {@code true} if all the usages were released, {@code false} if the timeout elapsed before
+     */
+    synchronized boolean drain(long timeout) throws InterruptedException {
+        startDraining();
+
+        long deadline = System.currentTimeMillis() + timeout;
+        while (getCount() > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+
+            // the sums of a striped counter aren't atomic snapshots, so don't rely only on notifications
+            wait(Math.min(remaining, MAX_WAIT));
+        }
+
+        return true;
+    }
+
+    /**
+     * Accepts new usages again, after a {@link #drain(long) drain} of a plugin that remains in use
+     * (e.g. its unload failed).
+     */
+    synchronized void undrain() {
+        draining = false;
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * It's an implementation of {@link PluginStateListener} that warms up the started plugins:
+ * it loads in background, with the plugin's class loader, the classes that the plugin declares
+ * (in the {@value #WARM_UP_RESOURCE} resource, one class name per line) and the classes recorded
+ * in a {@link ClassListStore}, so the first requests don't pay for class loading.
+ * <p>
+ * The classes are loaded on a bounded pool of daemon threads. By default, the classes are not initialized
+ * (no static initializer is run). The warm-up of a plugin stops when the plugin is no longer started.
+ * <p>
+ * Usage: {@code pluginManager.addPluginStateListener(new WarmUpPluginStateListener(classListStore, 2))}.
+ */
+public class WarmUpPluginStateListener implements PluginStateListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpPluginStateListener.class);
+
+    /**
+     * The resource of a plugin with the classes to warm up.
+     */
+    public static final String WARM_UP_RESOURCE = "META-INF/pf4j/warm-up.classlist";
+
+    private final ClassListStore classListStore;
+    private final ExecutorService executor;
+    private final Map<String, WarmUp> warmUps = new ConcurrentHashMap<>();
+
+    private boolean initialize;
+
+    /**
+     * Warms up only the declared classes, on a single thread.
+     */
+    public WarmUpPluginStateListener() {
+        this(null, 1);
+    }
+
+    /**
+     * @param classListStore the store of the recorded classes, or {@code null} to warm up only the declared classes
+     * @param threads the maximum number of threads used for the warm-up
+     */
+    public WarmUpPluginStateListener(ClassListStore classListStore, int threads) {
+        this.classListStore = classListStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "pf4j-warm-up-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    public boolean isInitialize() {
+        return initialize;
+    }
+
+    /**
+     * Set to {@code true} to also initialize the warmed up classes (run their static initializers).
+     * The default is {@code false}.
+     *
+     * @param initialize {@code true} to initialize the classes
+     */
+    public void setInitialize(boolean initialize) {
+        this.initialize = initialize;
+    }
+
+    @Override
+    public void pluginStateChanged(PluginStateEvent event) {
+        PluginWrapper plugin = event.getPlugin();
+        if (event.getPluginState() == PluginState.STARTED) {
+            warmUps.put(plugin.getPluginId(), new WarmUp(plugin, CompletableFuture.supplyAsync(() -> warmUp(plugin), executor)));
+        } else if (event.getOldState() == PluginState.STARTED) {
+            // a reloaded plugin is stopped after its new version (with the same id) is started
+            warmUps.computeIfPresent(plugin.getPluginId(), (pluginId, warmUp) -> (warmUp.plugin == plugin) ? null : warmUp);
+        }
+    }
+
+    /**
+     * Returns the warm-up of a started plugin, that completes with the number of loaded classes,
+     * or {@code null} if the plugin is not warmed up.
+     *
+     * @param pluginId the plugin id
+     * @return the warm-up of the plugin, or {@code null}
+     */
+    public CompletableFuture<Integer> getWarmUp(String pluginId) {
+        WarmUp warmUp = warmUps.get(pluginId);
+
+        return (warmUp != null) ? warmUp.future : null;
+    }
+
+    /**
+     * Stops the warm-up threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the classes to warm up for the plugin: the declared classes, then the recorded classes.
+     *
+     * @param plugin the plugin
+     * @return the class names
+     */
+    protected List<String> getClassNames(PluginWrapper plugin) {
+        Set<String> classNames = new LinkedHashSet<>(readDeclaredClassNames(plugin));
+        if (classListStore != null) {
+            try {
+                classNames.addAll(classListStore.read(plugin));
+            } catch (IOException e) {
+                log.warn("Cannot read the class list of plugin '{}'", plugin.getPluginId(), e);
+            }
+        }
+
+        return new ArrayList<>(classNames);
+    }
+
+    private int warmUp(PluginWrapper plugin) {
+        ClassLoader classLoader = plugin.getPluginClassLoader();
+        long startTime = System.nanoTime();
+        int count = 0;
+        for (String className : getClassNames(plugin)) {
+            if (plugin.getPluginState() != PluginState.STARTED || Thread.currentThread().isInterrupted()) {
+                log.debug("Stop the warm-up of plugin '{}'", plugin.getPluginId());
+                break;
+            }
+
+            try {
+                Class.forName(className, initialize, classLoader);
+                count++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.debug("Cannot warm up class '{}' of plugin '{}': {}", className, plugin.getPluginId(), e.toString());
+            }
+        }
+        log.debug("Warmed up {} classes of plugin '{}' in {} ms", count, plugin.getPluginId(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        return count;
+    }
+
+    private List<String> readDeclaredClassNames(PluginWrapper plugin) {
+        ClassLoader classLoader = plugin.getPluginClassLoader();
+        URL resource = (classLoader instanceof PluginClassLoader)
+            ? ((PluginClassLoader) classLoader).findResource(WARM_UP_RESOURCE)
+            : classLoader.getResource(WARM_UP_RESOURCE);
+        if (resource == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    classNames.add(line.replace('/', '.'));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read '{}' of plugin '{}'", WARM_UP_RESOURCE, plugin.getPluginId(), e);
+        }
+
+        return classNames;
+    }
+
+    private static class WarmUp {
+
+        private final PluginWrapper plugin;
+        private final CompletableFuture<Integer> future;
+
+        WarmUp(PluginWrapper plugin, CompletableFuture<Integer> future) {
+            this.plugin = plugin;
+            this.future = future;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.pf4j.util.FileUtils;
+import org.pf4j.util.ZipArchive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Load a plugin directly from its {@code zip} file, without extraction on disk.
+ * The classes directories and the jar files (from the jars directories) specified in the {@link PluginClasspath}
+ * are read from the zip file (the jars are nested archives), see {@link PluginClassLoader#addArchive(ZipArchive, String, String)}.
+ * <p>
+ * The zip file is memory-mapped (see {@link PluginArchive}) until the plugin class loader is closed.
+ * A stored (not compressed) nested jar is read in place, a compressed nested jar is inflated in memory.
+ * The resources are served with {@value ArchiveClassPath#PROTOCOL} URLs, so the libraries that expect
+ * {@code file} or {@code jar} URLs (or the {@link ServiceProviderExtensionFinder}) could not work.
+ */
+public class ZipPluginLoader extends BasePluginLoader {
+
+    private PluginArchiveRegistry pluginArchiveRegistry = new PluginArchiveRegistry();
+
+    public ZipPluginLoader(PluginManager pluginManager) {
+        this(pluginManager, new DefaultPluginClasspath());
+    }
+
+    public ZipPluginLoader(PluginManager pluginManager, PluginClasspath pluginClasspath) {
+        super(pluginManager, pluginClasspath);
+    }
+
+    @Override
+    public boolean isApplicable(Path pluginPath) {
+        return Files.exists(pluginPath) && FileUtils.isZipFile(pluginPath);
+    }
+
+    /**
+     * Shares the archives of the plugin files with the plugin manager (see {@link PluginArchiveRegistry}).
+     * By default the loader has its own registry.
+     *
+     * @param pluginArchiveRegistry the registry of the plugin manager
+     */
+    public void setPluginArchiveRegistry(PluginArchiveRegistry pluginArchiveRegistry) {
+        this.pluginArchiveRegistry = Objects.requireNonNull(pluginArchiveRegistry);
+    }
+
+    @Override
+    public ClassLoader loadPlugin(Path pluginPath, PluginDescriptor pluginDescriptor) {
+        PluginClassLoader pluginClassLoader = createPluginClassLoader(pluginPath, pluginDescriptor);
+
+        try {
+            // the archive already opened to read the plugin descriptor, kept open by the class loader
+            PluginArchive pluginArchive = pluginArchiveRegistry.acquire(pluginPath);
+            pluginClassLoader.addOpenArchive(pluginArchive);
+            ZipArchive archive = pluginArchive.getZipArchive();
+            String location = pluginPath.toUri().toString();
+            loadClasses(archive, location, pluginClassLoader);
+            loadJars(archive, location, pluginClassLoader);
+        } catch (IOException e) {
+            throw new PluginRuntimeException(e, "Cannot load plugin from '{}'", pluginPath);
+        }
+
+        return pluginClassLoader;
+    }
+
+    /**
+     * Add the {@link PluginClasspath#getClassesDirectories()} of the zip file to the plugin's {@link ClassLoader}.
+     */
+    protected void loadClasses(ZipArchive archive, String location, PluginClassLoader pluginClassLoader) {
+        for (String directory : pluginClasspath.getClassesDirectories()) {
+            String prefix = directory + "/";
+            if (containsDirectory(archive, prefix)) {
+                pluginClassLoader.addArchive(archive, prefix, location);
+            }
+        }
+    }
+
+    /**
+     * Add all {@code *.jar} files from {@link PluginClasspath#getJarsDirectories()} of the zip file
+     * to the plugin's {@link ClassLoader}.
+     */
+    protected void loadJars(ZipArchive archive, String location, PluginClassLoader pluginClassLoader) throws IOException {
+        for (String jarsDirectory : pluginClasspath.getJarsDirectories()) {
+            String prefix = jarsDirectory + "/";
+            for (ZipArchive.Entry entry : archive.getEntries()) {
+                String name = entry.getName();
+                if (name.startsWith(prefix) && name.toLowerCase().endsWith(".jar") && !entry.isDirectory()) {
+                    pluginClassLoader.addArchive(archive.openNested(entry), "", location + "!/" + name);
+                }
+            }
+        }
+    }
+
+    private static boolean containsDirectory(ZipArchive archive, String prefix) {
+        if (archive.getEntry(prefix) != null) {
+            return true;
+        }
+
+        // sometimes zip don't add the directories
+        for (ZipArchive.Entry entry : archive.getEntries()) {
+            if (entry.getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
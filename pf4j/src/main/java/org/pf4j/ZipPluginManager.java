@@ -22,6 +22,8 @@ package org.pf4j;
  * <li>{@code lib} directory that contains all dependencies (as jar files); it's optional (no dependencies)
  * <li>{@code classes} directory that contains all plugin's classes
  * </ul>
+ * The zip files are expanded on disk, unless {@link #isExpandZip()} returns {@code false}
+ * (see {@link ZipPluginLoader}).
  *
  * @author Decebal Suiu
  */
@@ -29,21 +31,33 @@ public class ZipPluginManager extends DefaultPluginManager {
 
     @Override
     protected PluginDescriptorFinder createPluginDescriptorFinder() {
-        return new PropertiesPluginDescriptorFinder();
+        PropertiesPluginDescriptorFinder pluginDescriptorFinder = new PropertiesPluginDescriptorFinder();
+        pluginDescriptorFinder.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
+        return pluginDescriptorFinder;
     }
 
     @Override
     protected PluginLoader createPluginLoader() {
+        DefaultPluginLoader defaultPluginLoader = new DefaultPluginLoader(this);
+        defaultPluginLoader.setIndexedJars(isIndexedJars());
+        defaultPluginLoader.setSharedLibraryRegistry(getSharedLibraryRegistry());
+
+        ZipPluginLoader zipPluginLoader = new ZipPluginLoader(this);
+        zipPluginLoader.setPluginArchiveRegistry(getPluginArchiveRegistry());
+
         return new CompoundPluginLoader()
             .add(new DevelopmentPluginLoader(this), this::isDevelopment)
-            .add(new DefaultPluginLoader(this), this::isNotDevelopment);
+            .add(defaultPluginLoader, this::isNotDevelopment)
+            .add(zipPluginLoader, this::isNotDevelopment);
     }
 
     @Override
     protected PluginRepository createPluginRepository() {
         return new CompoundPluginRepository()
             .add(new DevelopmentPluginRepository(getPluginsRoots()), this::isDevelopment)
-            .add(new DefaultPluginRepository(getPluginsRoots()), this::isNotDevelopment);
+            .add(new DefaultPluginRepository(getPluginsRoots(), isExpandZip()), this::isNotDevelopment)
+            .add(new ZipPluginRepository(getPluginsRoots()), () -> isNotDevelopment() && !isExpandZip());
     }
 
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lists the entries of directories and caches the listings until the directory is modified.
+ * <p>
+ * A directory is read once with a {@link DirectoryStream} and the attributes of each entry are read once,
+ * so the returned {@link File}s answer {@link File#isDirectory()}, {@link File#isFile()}, {@link File#isHidden()},
+ * {@link File#lastModified()} and {@link File#length()} without accessing the file system again
+ * (the file filters and the comparators of the plugin repositories don't stat the files).
+ * <p>
+ * A listing is valid while the last modified time of the directory doesn't change, so adding, removing
+ * or renaming a plugin is detected, but the attributes of an entry rewritten in place are not updated.
+ * Because the resolution of the last modified time can be coarse (one or two seconds), a listing taken
+ * shortly after a modification of the directory is not reused.
+ *
+ * @see org.pf4j.BasePluginRepository
+ */
+public class DirectoryListingCache {
+
+    /**
+     * A listing taken less than this interval (in milliseconds) after the last modification of the directory
+     * can miss a later modification with the same last modified time.
+     */
+    private static final long RACY_INTERVAL = 2000;
+
+    // the hidden attribute of a file is a DOS attribute on Windows (other systems support the DOS attributes
+    // through extended attributes, but a hidden file is a file whose name starts with a dot)
+    private static final boolean DOS_ATTRIBUTES = File.separatorChar == '\\';
+
+    private final Map<Path, Listing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the entries of a directory, or an empty list if the directory doesn't exist.
+     *
+     * @param directory the directory
+     * @return the (unmodifiable) list of entries
+     */
+    public List<File> list(Path directory) {
+        FileTime lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(directory);
+        } catch (IOException e) {
+            listings.remove(directory);
+            return Collections.emptyList();
+        }
+
+        Listing listing = listings.get(directory);
+        if ((listing != null) && listing.isValid(lastModified)) {
+            return listing.entries;
+        }
+
+        long listingTime = System.currentTimeMillis();
+        List<File> entries = readDirectory(directory);
+        listings.put(directory, new Listing(lastModified, listingTime, entries));
+
+        return entries;
+    }
+
+    /**
+     * Removes the listing of a directory, the next {@link #list(Path)} reads the directory again.
+     */
+    public void invalidate(Path directory) {
+        listings.remove(directory);
+    }
+
+    /**
+     * Removes all listings.
+     */
+    public void clear() {
+        listings.clear();
+    }
+
+    private static List<File> readDirectory(Path directory) {
+        List<File> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                entries.add(new AttributesFile(entry, readAttributes(entry)));
+            }
+        } catch (IOException e) {
+            // same as File.listFiles(), that returns null on error
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            if (DOS_ATTRIBUTES) {
+                try {
+                    return Files.readAttributes(path, DosFileAttributes.class);
+                } catch (UnsupportedOperationException | IOException e) {
+                    // fall back to the basic attributes
+                }
+            }
+
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // for example a broken symbolic link
+            return null;
+        }
+    }
+
+    private static class Listing {
+
+        private final FileTime lastModified;
+        private final long listingTime;
+        private final List<File> entries;
+
+        Listing(FileTime lastModified, long listingTime, List<File> entries) {
+            this.lastModified = lastModified;
+            this.listingTime = listingTime;
+            this.entries = entries;
+        }
+
+        boolean isValid(FileTime directoryLastModified) {
+            return lastModified.equals(directoryLastModified)
+                && (listingTime - lastModified.toMillis() >= RACY_INTERVAL);
+        }
+
+    }
+
+    /**
+     * A {@link File} with the attributes read when the directory was listed.
+     */
+    private static class AttributesFile extends File {
+
+        private final transient BasicFileAttributes attributes;
+
+        AttributesFile(Path path, BasicFileAttributes attributes) {
+            super(path.toString());
+
+            this.attributes = attributes;
+        }
+
+        @Override
+        public boolean exists() {
+            return attributes != null;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return (attributes != null) && attributes.isDirectory();
+        }
+
+        @Override
+        public boolean isFile() {
+            return (attributes != null) && attributes.isRegularFile();
+        }
+
+        @Override
+        public boolean isHidden() {
+            if (attributes instanceof DosFileAttributes) {
+                return ((DosFileAttributes) attributes).isHidden();
+            }
+
+            return getName().startsWith(".");
+        }
+
+        @Override
+        public long lastModified() {
+            return (attributes != null) ? attributes.lastModifiedTime().toMillis() : 0;
+        }
+
+        @Override
+        public long length() {
+            return (attributes != null) ? attributes.size() : 0;
+        }
+
+    }
+
+}
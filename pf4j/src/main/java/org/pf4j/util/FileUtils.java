@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
@@ -34,10 +35,14 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Decebal Suiu
@@ -46,6 +51,8 @@ public final class FileUtils {
 
     private static final Logger log = LoggerFactory.getLogger(FileUtils.class);
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     public static List<String> readLines(Path path, boolean ignoreComments) throws IOException {
         File file = path.toFile();
         if (!file.isFile()) {
@@ -170,6 +177,10 @@ public final class FileUtils {
      * Unzip a zip file in a directory that has the same name as the zip file.
      * For example if the zip file is {@code my-plugin.zip} then the resulted directory
      * is {@code my-plugin}.
+     * <p>
+     * If the zip file is newer than the directory, the directory is updated incrementally
+     * (see {@link Unzip#update()}): nothing is written if the content of the zip didn't change,
+     * otherwise only the changed entries are extracted.
      *
      * @param filePath the file to evaluate
      * @return Path of unzipped folder or original path if this was not a zip file
@@ -190,8 +201,12 @@ public final class FileUtils {
             Unzip unzip = new Unzip();
             unzip.setSource(filePath.toFile());
             unzip.setDestination(pluginDirectory.toFile());
-            unzip.extract();
-            log.info("Expanded plugin zip '{}' in '{}'", filePath.getFileName(), pluginDirectory.getFileName());
+            if (unzip.update()) {
+                log.info("Expanded plugin zip '{}' in '{}'", filePath.getFileName(), pluginDirectory.getFileName());
+            }
+
+            // mark the directory as up-to-date with the zip file
+            Files.setLastModifiedTime(pluginDirectory, FileTime.fromMillis(System.currentTimeMillis()));
         }
 
         return pluginDirectory;
@@ -275,6 +290,57 @@ public final class FileUtils {
         return null;
     }
 
+    /**
+     * Returns the SHA-256 hash (hex) of the content of a file.
+     * For a directory, the hash covers the relative paths and the contents of all files of the directory
+     * (recursively, in a stable order).
+     *
+     * @param path the file or the directory
+     * @return the SHA-256 hash
+     * @throws IOException if a file cannot be read
+     */
+    public static String hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(path)) {
+                files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                digest.update(path.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                update(digest, file, buffer);
+            }
+        } else {
+            update(digest, path, buffer);
+        }
+
+        byte[] bytes = digest.digest();
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+
+        return new String(chars);
+    }
+
+    private static void update(MessageDigest digest, Path file, byte[] buffer) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        }
+    }
+
     private static FileSystem getFileSystem(URI uri) throws IOException {
         try {
             return FileSystems.getFileSystem(uri);
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact directed graph for large graphs.
+ * Each vertex is interned to an {@code int} index and the adjacency lists are {@code int} arrays.
+ * The graph also keeps the reverse adjacency lists (the incoming edges), so the predecessors
+ * of a vertex are found without scanning the whole graph, and a vertex is removed in {@code O(degree)}.
+ * <p>
+ * Like {@link DirectedGraph}, this implementation allows the creation of multi-edges and self-loops.
+ * The indexes of the removed vertices are reused.
+ */
+public class IndexedDirectedGraph<V> {
+
+    private static final int[] EMPTY = new int[0];
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<V, Integer> indexes = new HashMap<>();
+    private Object[] vertices = new Object[INITIAL_CAPACITY];
+
+    // outgoing edges
+    private int[][] neighbors = new int[INITIAL_CAPACITY][];
+    private int[] neighborCounts = new int[INITIAL_CAPACITY];
+
+    // incoming edges
+    private int[][] reverseNeighbors = new int[INITIAL_CAPACITY][];
+    private int[] reverseNeighborCounts = new int[INITIAL_CAPACITY];
+
+    private int length; // the number of used indexes (including the free indexes)
+    private int[] freeIndexes = new int[INITIAL_CAPACITY];
+    private int freeCount;
+
+    /**
+     * Add a vertex to the graph. Nothing happens if vertex is already in graph.
+     *
+     * @return the index of the vertex
+     */
+    public int addVertex(V vertex) {
+        Integer index = indexes.get(vertex);
+        if (index != null) {
+            return index;
+        }
+
+        int newIndex;
+        if (freeCount > 0) {
+            newIndex = freeIndexes[--freeCount];
+        } else {
+            if (length == vertices.length) {
+                grow();
+            }
+            newIndex = length++;
+        }
+
+        vertices[newIndex] = vertex;
+        neighbors[newIndex] = EMPTY;
+        reverseNeighbors[newIndex] = EMPTY;
+        indexes.put(vertex, newIndex);
+
+        return newIndex;
+    }
+
+    /**
+     * True if graph contains vertex.
+     */
+    public boolean containsVertex(V vertex) {
+        return indexes.containsKey(vertex);
+    }
+
+    /**
+     * Remove a vertex and all its edges (incoming and outgoing) from the graph.
+     * Nothing happens if vertex is not in graph.
+     */
+    public void removeVertex(V vertex) {
+        Integer boxedIndex = indexes.remove(vertex);
+        if (boxedIndex == null) {
+            return;
+        }
+
+        int index = boxedIndex;
+        for (int i = 0; i < neighborCounts[index]; i++) {
+            int neighbor = neighbors[index][i];
+            if (neighbor != index) {
+                reverseNeighborCounts[neighbor] = removeAll(reverseNeighbors[neighbor], reverseNeighborCounts[neighbor], index);
+            }
+        }
+        for (int i = 0; i < reverseNeighborCounts[index]; i++) {
+            int predecessor = reverseNeighbors[index][i];
+            if (predecessor != index) {
+                neighborCounts[predecessor] = removeAll(neighbors[predecessor], neighborCounts[predecessor], index);
+            }
+        }
+
+        vertices[index] = null;
+        neighbors[index] = null;
+        neighborCounts[index] = 0;
+        reverseNeighbors[index] = null;
+        reverseNeighborCounts[index] = 0;
+
+        if (freeCount == freeIndexes.length) {
+            freeIndexes = Arrays.copyOf(freeIndexes, freeCount * 2);
+        }
+        freeIndexes[freeCount++] = index;
+    }
+
+    /**
+     * Add an edge to the graph; if either vertex does not exist, it's added.
+     */
+    public void addEdge(V from, V to) {
+        int fromIndex = addVertex(from);
+        int toIndex = addVertex(to);
+
+        neighbors[fromIndex] = append(neighbors[fromIndex], neighborCounts[fromIndex]++, toIndex);
+        reverseNeighbors[toIndex] = append(reverseNeighbors[toIndex], reverseNeighborCounts[toIndex]++, fromIndex);
+    }
+
+    /**
+     * Remove an edge from the graph (one edge, if there are multi-edges). Nothing happens if no such edge.
+     *
+     * @throws IllegalArgumentException if either vertex doesn't exist
+     */
+    public void removeEdge(V from, V to) {
+        int fromIndex = checkedIndexOf(from);
+        int toIndex = checkedIndexOf(to);
+
+        int position = indexOf(neighbors[fromIndex], neighborCounts[fromIndex], toIndex);
+        if (position < 0) {
+            return;
+        }
+
+        neighborCounts[fromIndex] = remove(neighbors[fromIndex], neighborCounts[fromIndex], position);
+        position = indexOf(reverseNeighbors[toIndex], reverseNeighborCounts[toIndex], fromIndex);
+        reverseNeighborCounts[toIndex] = remove(reverseNeighbors[toIndex], reverseNeighborCounts[toIndex], position);
+    }
+
+    /**
+     * Returns the vertices adjacent to the given vertex (the heads of its outgoing edges).
+     *
+     * @return a new list for each call; an empty list if the vertex doesn't exist
+     */
+    public List<V> getNeighbors(V vertex) {
+        Integer index = indexes.get(vertex);
+        return (index != null) ? toVertices(neighbors[index], neighborCounts[index]) : new ArrayList<>();
+    }
+
+    /**
+     * Returns the vertices that the given vertex is adjacent to (the tails of its incoming edges).
+     *
+     * @return a new list for each call; an empty list if the vertex doesn't exist
+     */
+    public List<V> getReverseNeighbors(V vertex) {
+        Integer index = indexes.get(vertex);
+        return (index != null) ? toVertices(reverseNeighbors[index], reverseNeighborCounts[index]) : new ArrayList<>();
+    }
+
+    /**
+     * The out-degree (the number of outgoing edges) of the vertex; zero if the vertex doesn't exist.
+     */
+    public int outDegree(V vertex) {
+        Integer index = indexes.get(vertex);
+        return (index != null) ? neighborCounts[index] : 0;
+    }
+
+    /**
+     * The in-degree (the number of incoming edges) of the vertex; zero if the vertex doesn't exist.
+     */
+    public int inDegree(V vertex) {
+        Integer index = indexes.get(vertex);
+        return (index != null) ? reverseNeighborCounts[index] : 0;
+    }
+
+    /**
+     * The number of vertices.
+     */
+    public int size() {
+        return indexes.size();
+    }
+
+    /**
+     * Report (as a List) the topological sort of the vertices; null for no such sort.
+     * See <a href="https://en.wikipedia.org/wiki/Topological_sorting">this</a> for more information.
+     */
+    public List<V> topologicalSort() {
+        int[] degree = Arrays.copyOf(reverseNeighborCounts, length);
+
+        // determine all vertices with zero in-degree
+        int[] zeroVertices = new int[length]; // stack as good as any here
+        int top = 0;
+        for (int i = 0; i < length; i++) {
+            if ((vertices[i] != null) && (degree[i] == 0)) {
+                zeroVertices[top++] = i;
+            }
+        }
+
+        // determine the topological order
+        List<V> result = new ArrayList<>(size());
+        while (top > 0) {
+            int vertex = zeroVertices[--top];
+            result.add(vertexAt(vertex));
+            for (int i = 0; i < neighborCounts[vertex]; i++) {
+                int neighbor = neighbors[vertex][i];
+                if (--degree[neighbor] == 0) {
+                    zeroVertices[top++] = neighbor;
+                }
+            }
+        }
+
+        // check that we have used the entire graph (if not, there was a cycle)
+        return (result.size() == size()) ? result : null;
+    }
+
+    /**
+     * Report (as a List) the reverse topological sort of the vertices; null for no such sort.
+     */
+    public List<V> reverseTopologicalSort() {
+        List<V> list = topologicalSort();
+        if (list == null) {
+            return null;
+        }
+
+        Collections.reverse(list);
+
+        return list;
+    }
+
+    /**
+     * Report (as a List) the reverse topological sort of the given vertex and of all the vertices
+     * from which it can be reached; null for no such sort (there is a cycle among these vertices).
+     * The edges to the other vertices are ignored.
+     * <p>
+     * It's useful to sort again only the part of a sorted graph affected by a new vertex.
+     */
+    public List<V> reverseTopologicalSort(V vertex) {
+        Integer start = indexes.get(vertex);
+        if (start == null) {
+            return new ArrayList<>();
+        }
+
+        // collect the vertices that reach the start vertex
+        boolean[] subgraph = new boolean[length];
+        int[] queue = new int[size()];
+        int count = 0;
+        subgraph[start] = true;
+        queue[count++] = start;
+        for (int head = 0; head < count; head++) {
+            int current = queue[head];
+            for (int i = 0; i < reverseNeighborCounts[current]; i++) {
+                int predecessor = reverseNeighbors[current][i];
+                if (!subgraph[predecessor]) {
+                    subgraph[predecessor] = true;
+                    queue[count++] = predecessor;
+                }
+            }
+        }
+
+        // the vertices without outgoing edges inside the subgraph come first
+        int[] degree = new int[length];
+        int[] zeroVertices = new int[count];
+        int top = 0;
+        for (int j = 0; j < count; j++) {
+            int current = queue[j];
+            for (int i = 0; i < neighborCounts[current]; i++) {
+                if (subgraph[neighbors[current][i]]) {
+                    degree[current]++;
+                }
+            }
+            if (degree[current] == 0) {
+                zeroVertices[top++] = current;
+            }
+        }
+
+        List<V> result = new ArrayList<>(count);
+        while (top > 0) {
+            int current = zeroVertices[--top];
+            result.add(vertexAt(current));
+            for (int i = 0; i < reverseNeighborCounts[current]; i++) {
+                int predecessor = reverseNeighbors[current][i];
+                if (--degree[predecessor] == 0) {
+                    zeroVertices[top++] = predecessor;
+                }
+            }
+        }
+
+        return (result.size() == count) ? result : null;
+    }
+
+    /**
+     * True if graph is a dag (directed acyclic graph).
+     */
+    public boolean isDag() {
+        return topologicalSort() != null;
+    }
+
+    /**
+     * String representation of graph.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (vertices[i] != null) {
+                sb.append("\n   ").append(vertices[i]).append(" -> ").append(toVertices(neighbors[i], neighborCounts[i]));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V vertexAt(int index) {
+        return (V) vertices[index];
+    }
+
+    private List<V> toVertices(int[] indexes, int count) {
+        List<V> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(vertexAt(indexes[i]));
+        }
+
+        return result;
+    }
+
+    private int checkedIndexOf(V vertex) {
+        Integer index = indexes.get(vertex);
+        if (index == null) {
+            throw new IllegalArgumentException("Nonexistent vertex " + vertex);
+        }
+
+        return index;
+    }
+
+    private void grow() {
+        int capacity = vertices.length * 2;
+        vertices = Arrays.copyOf(vertices, capacity);
+        neighbors = Arrays.copyOf(neighbors, capacity);
+        neighborCounts = Arrays.copyOf(neighborCounts, capacity);
+        reverseNeighbors = Arrays.copyOf(reverseNeighbors, capacity);
+        reverseNeighborCounts = Arrays.copyOf(reverseNeighborCounts, capacity);
+    }
+
+    private static int[] append(int[] array, int count, int value) {
+        if (count == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, count * 2));
+        }
+        array[count] = value;
+
+        return array;
+    }
+
+    private static int indexOf(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the element at the given position, keeping the order of the other elements.
+     *
+     * @return the new count
+     */
+    private static int remove(int[] array, int count, int position) {
+        System.arraycopy(array, position + 1, array, position, count - position - 1);
+
+        return count - 1;
+    }
+
+    /**
+     * Removes all the occurrences of the value, keeping the order of the other elements.
+     *
+     * @return the new count
+     */
+    private static int removeAll(int[] array, int count, int value) {
+        int newCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (array[i] != value) {
+                array[newCount++] = array[i];
+            }
+        }
+
+        return newCount;
+    }
+
+}
@@ -18,14 +18,32 @@ package org.pf4j.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 /**
  * This class extracts the content of the plugin zip into a directory.
@@ -37,6 +55,14 @@ public class Unzip {
 
     private static final Logger log = LoggerFactory.getLogger(Unzip.class);
 
+    /**
+     * The name of the expansion manifest file, written in the destination directory.
+     * A zip with an entry of this name (in the root) is rejected.
+     */
+    public static final String MANIFEST_FILE_NAME = ".unzip-manifest";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * Holds the destination directory.
      * File will be unzipped into the destination directory.
@@ -48,6 +74,16 @@ public class Unzip {
      */
     private File source;
 
+    /**
+     * Holds the number of threads used to extract the entries.
+     */
+    private int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+
+    /**
+     * Holds the total size of the files below which the entries are extracted in the calling thread.
+     */
+    private long parallelThreshold = 4 * 1024 * 1024;
+
     public Unzip() {
     }
 
@@ -64,9 +100,44 @@ public class Unzip {
         this.destination = destination;
     }
 
+    /**
+     * Set the number of threads used to extract the entries.
+     * The default value is the number of available processors, but no more than 4.
+     * A value of 1 extracts all entries in the calling thread.
+     *
+     * @param parallelism the number of threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the total (uncompressed) size of the files to extract below which the entries are extracted
+     * in the calling thread, because starting the threads costs more than it saves for small plugins.
+     * The default value is 4 MB.
+     *
+     * @param parallelThreshold the size in bytes
+     */
+    public void setParallelThreshold(long parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold must not be negative");
+        }
+
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Extract the content of zip file ({@code source}) to destination directory.
      * If destination directory already exists it will be deleted before.
+     * <p>
+     * All entries are validated and all directories are created before any file is written,
+     * then the files are extracted in parallel (see {@link #setParallelism(int)} and {@link #setParallelThreshold(long)}).
+     * An expansion manifest ({@link #MANIFEST_FILE_NAME}) with the CRC and the size of each entry
+     * is written in the destination directory, for a later {@link #update()}.
      */
     public void extract() throws IOException {
         log.debug("Extract content of '{}' to '{}'", source, destination);
@@ -76,31 +147,174 @@ public class Unzip {
             FileUtils.delete(destination.toPath());
         }
 
-        try (ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(source))) {
-            ZipEntry zipEntry;
-            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-                File file = new File(destination, zipEntry.getName());
+        mkdirsOrThrow(destination);
+        // resolve the destination only once, the entries are validated against it
+        Path destinationPath = destination.toPath().toRealPath();
 
-                // Validate path before any file operations
-                validateExtractPath(destination, file, zipEntry.getName());
+        try (ZipFile zipFile = new ZipFile(source)) {
+            List<ZipEntry> fileEntries = prepareEntries(zipFile, destinationPath, new LinkedHashSet<>());
+            extractEntries(zipFile, fileEntries, destinationPath);
+            writeManifest(zipFile, destinationPath.resolve(MANIFEST_FILE_NAME));
+        }
+    }
 
-                // create intermediary directories - sometimes zip don't add them
-                File dir = new File(file.getParent());
-
-                mkdirsOrThrow(dir);
-
-                if (zipEntry.isDirectory()) {
-                    mkdirsOrThrow(file);
-                } else {
-                    byte[] buffer = new byte[1024];
-                    int length;
-                    try (FileOutputStream fos = new FileOutputStream(file)) {
-                        while ((length = zipInputStream.read(buffer)) >= 0) {
-                            fos.write(buffer, 0, length);
-                        }
-                    }
+    /**
+     * Update the destination directory with the content of zip file ({@code source}),
+     * using the expansion manifest written by a previous {@link #extract()} or {@code update()}.
+     * Nothing is written if the checksum of the zip central directory didn't change.
+     * Otherwise, only the new or changed entries (by CRC and size) are extracted and the files of
+     * the removed entries are deleted, with their directories that became empty.
+     * If there is no expansion manifest, a full {@link #extract()} is performed.
+     *
+     * @return {@code true} if the destination directory was changed
+     */
+    public boolean update() throws IOException {
+        Path manifestFile = destination.toPath().resolve(MANIFEST_FILE_NAME);
+        if (!Files.isRegularFile(manifestFile)) {
+            extract();
+            return true;
+        }
+
+        try (ZipFile zipFile = new ZipFile(source)) {
+            Map<String, String> manifest = new HashMap<>();
+            long checksum = readManifest(manifestFile, manifest);
+            if (checksum == checksum(zipFile)) {
+                log.debug("Content of '{}' is unchanged in '{}'", source, destination);
+                return false;
+            }
+
+            log.debug("Update content of '{}' in '{}'", source, destination);
+            Path destinationPath = destination.toPath().toRealPath();
+            Set<Path> directories = new LinkedHashSet<>();
+            List<ZipEntry> fileEntries = prepareEntries(zipFile, destinationPath, directories);
+
+            List<ZipEntry> changedEntries = new ArrayList<>();
+            for (ZipEntry zipEntry : fileEntries) {
+                String signature = manifest.remove(zipEntry.getName());
+                Path file = destinationPath.resolve(zipEntry.getName()).normalize();
+                if (!signature(zipEntry).equals(signature) || !Files.isRegularFile(file)
+                    || (Files.size(file) != zipEntry.getSize())) {
+                    changedEntries.add(zipEntry);
                 }
             }
+
+            // if the update fails, a full extract is performed next time
+            Files.delete(manifestFile);
+
+            // the entries that remained in manifest were removed from zip
+            for (String entryName : manifest.keySet()) {
+                Path file = validateExtractPath(destinationPath, entryName);
+                Files.deleteIfExists(file);
+                deleteEmptyDirectories(file.getParent(), destinationPath, directories);
+            }
+
+            extractEntries(zipFile, changedEntries, destinationPath);
+            writeManifest(zipFile, manifestFile);
+            log.debug("Extracted {} and removed {} entries", changedEntries.size(), manifest.size());
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates all the entries and creates all the directories.
+     *
+     * @param directories the set where the directories of the entries are added
+     * @return the entries that are files
+     */
+    private List<ZipEntry> prepareEntries(ZipFile zipFile, Path destinationPath, Set<Path> directories) throws IOException {
+        List<ZipEntry> fileEntries = new ArrayList<>();
+        Path manifestFile = destinationPath.resolve(MANIFEST_FILE_NAME);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry zipEntry = entries.nextElement();
+
+            // Validate path before any file operations
+            Path file = validateExtractPath(destinationPath, zipEntry.getName());
+            if (file.equals(manifestFile)) {
+                throw new ZipException("Entry '" + zipEntry.getName() + "' is reserved for the expansion manifest");
+            }
+
+            if (zipEntry.isDirectory()) {
+                directories.add(file);
+            } else {
+                // create intermediary directories - sometimes zip don't add them
+                directories.add(file.getParent());
+                fileEntries.add(zipEntry);
+            }
+        }
+
+        for (Path directory : directories) {
+            mkdirsOrThrow(directory.toFile());
+        }
+
+        return fileEntries;
+    }
+
+    private void extractEntries(ZipFile zipFile, List<ZipEntry> fileEntries, Path destinationPath) throws IOException {
+        if ((parallelism == 1) || (fileEntries.size() < 2) || (getTotalSize(fileEntries) < parallelThreshold)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (ZipEntry zipEntry : fileEntries) {
+                extractEntry(zipFile, zipEntry, destinationPath, buffer);
+            }
+
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, fileEntries.size()), runnable -> {
+            Thread thread = new Thread(runnable, "pf4j-unzip-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
+            ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+            List<Future<Void>> futures = new ArrayList<>(fileEntries.size());
+            for (ZipEntry zipEntry : fileEntries) {
+                futures.add(executor.submit(() -> {
+                    extractEntry(zipFile, zipEntry, destinationPath, buffers.get());
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            throw new IOException("Cannot extract '" + source + "'", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting '" + source + "'", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long getTotalSize(List<ZipEntry> fileEntries) {
+        long totalSize = 0;
+        for (ZipEntry zipEntry : fileEntries) {
+            // the size is unknown (-1) only for a malformed central directory
+            totalSize += Math.max(zipEntry.getSize(), 0);
+        }
+
+        return totalSize;
+    }
+
+    private static void extractEntry(ZipFile zipFile, ZipEntry zipEntry, Path destinationPath, byte[] buffer) throws IOException {
+        Path file = destinationPath.resolve(zipEntry.getName()).normalize();
+        try (InputStream inputStream = zipFile.getInputStream(zipEntry);
+             OutputStream outputStream = Files.newOutputStream(file)) {
+            int length;
+            while ((length = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, length);
+            }
         }
     }
 
@@ -108,29 +322,112 @@ public class Unzip {
      * Validates that the extraction path is within the destination directory.
      * Uses Path API with normalization to prevent directory traversal attacks.
      *
-     * @param destination the intended extraction directory
-     * @param file the file to be extracted
-     * @param entryName the zip entry name (for error messages)
+     * @param destinationPath the intended extraction directory (real path)
+     * @param entryName the zip entry name
+     * @return the normalized path of the file to be extracted
      * @throws ZipException if the file would be extracted outside the destination
      */
-    private void validateExtractPath(File destination, File file, String entryName) throws ZipException {
-        try {
-            // Normalize and resolve to absolute paths to eliminate ".." and "." components
-            Path destinationPath = destination.toPath().toRealPath();
-            Path filePath = file.toPath().normalize().toAbsolutePath();
+    private Path validateExtractPath(Path destinationPath, String entryName) throws ZipException {
+        // Normalize to eliminate ".." and "." components
+        Path filePath = destinationPath.resolve(entryName).normalize();
+
+        // Path.startsWith() performs proper path component comparison, not string prefix matching
+        if (!filePath.startsWith(destinationPath)) {
+            throw new ZipException("Entry '" + entryName + "' is attempting to write outside the target directory: " + destination);
+        }
+
+        return filePath;
+    }
+
+    /**
+     * Computes a checksum of the zip central directory (name, CRC and size of each entry).
+     */
+    private static long checksum(ZipFile zipFile) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry zipEntry = entries.nextElement();
+            crc.update(zipEntry.getName().getBytes(StandardCharsets.UTF_8));
+            buffer.clear();
+            buffer.putLong(zipEntry.getCrc()).putLong(zipEntry.getSize());
+            crc.update(buffer.array());
+        }
+
+        return crc.getValue();
+    }
+
+    private static String signature(ZipEntry zipEntry) {
+        return zipEntry.getCrc() + "\t" + zipEntry.getSize();
+    }
+
+    /**
+     * Writes the expansion manifest: the checksum on the first line,
+     * then a line with the CRC, the size and the name of each file entry.
+     */
+    private static void writeManifest(ZipFile zipFile, Path manifestFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(checksum(zipFile)));
+            writer.newLine();
 
-            // Path.startsWith() performs proper path component comparison, not string prefix matching
-            if (!filePath.startsWith(destinationPath)) {
-                throw new ZipException("Entry '" + entryName + "' is attempting to write outside the target directory: " + destination);
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry zipEntry = entries.nextElement();
+                if (!zipEntry.isDirectory()) {
+                    writer.write(signature(zipEntry));
+                    writer.write('\t');
+                    writer.write(zipEntry.getName());
+                    writer.newLine();
+                }
             }
-        } catch (IOException e) {
-            // If toRealPath() fails (destination doesn't exist), use normalize + toAbsolutePath
-            Path destinationPath = destination.toPath().normalize().toAbsolutePath();
-            Path filePath = file.toPath().normalize().toAbsolutePath();
+        }
+    }
 
-            if (!filePath.startsWith(destinationPath)) {
-                throw new ZipException("Entry '" + entryName + "' is attempting to write outside the target directory: " + destination);
+    /**
+     * Reads the expansion manifest.
+     *
+     * @param manifest the map where the signature of each entry is put (the key is the entry name)
+     * @return the checksum of the zip central directory, or {@code -1} if the manifest is not valid
+     */
+    private static long readManifest(Path manifestFile, Map<String, String> manifest) throws IOException {
+        List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return -1;
+        }
+
+        for (String line : lines.subList(1, lines.size())) {
+            int index = line.indexOf('\t', line.indexOf('\t') + 1);
+            if (index < 0) {
+                return -1;
             }
+            manifest.put(line.substring(index + 1), line.substring(0, index));
+        }
+
+        try {
+            return Long.parseLong(lines.get(0));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Deletes the directory and its parents, up to the destination directory, while they are empty
+     * and not a directory of the zip.
+     */
+    private static void deleteEmptyDirectories(Path directory, Path destinationPath, Set<Path> directories) throws IOException {
+        while (!directory.equals(destinationPath) && !directories.contains(directory) && isEmptyDirectory(directory)) {
+            Files.delete(directory);
+            directory = directory.getParent();
+        }
+    }
+
+    private static boolean isEmptyDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            return !stream.iterator().hasNext();
         }
     }
 
@@ -0,0 +1,507 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A read-only zip archive on top of a {@link ByteBuffer}.
+ * The central directory is read once, in an index (entry name to entry), and the entries are read with
+ * absolute positions, so an archive can be shared by many threads.
+ * <p>
+ * An archive is opened from a file using a memory-mapped buffer ({@link #open(Path)}), or from an entry of
+ * another archive ({@link #openNested(Entry)}) without extraction on disk: a stored (not compressed) nested
+ * archive is a view of the outer buffer, a compressed nested archive is inflated in memory.
+ * <p>
+ * The content of each entry is checked against the CRC of the central directory, like {@link java.util.zip.ZipFile}.
+ * The entry names are decoded as UTF-8 if the language encoding flag (bit 11) is set, otherwise as CP437.
+ * ZIP64 archives (and files of 2 GB or more) are not supported.
+ * A file that is not a valid (or a supported) zip file is always reported with a {@link ZipException}.
+ * <p>
+ * {@link #close()} releases the memory mapping of a file at once, instead of when the archive is garbage collected.
+ * It's a class for only the internal use.
+ */
+public class ZipArchive implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_HEADER_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int MAX_DEFLATE_RATIO = 1032; // the maximum compression ratio of deflate
+    private static final int UTF8_FLAG = 0x800; // the language encoding flag (EFS)
+
+    // the default encoding of the entry names; the extended charsets (jdk.charsets module) may be missing
+    private static final Charset CP437 = Charset.isSupported("IBM437") ? Charset.forName("IBM437") : StandardCharsets.ISO_8859_1;
+
+    // releases a mapping, or null if the JDK doesn't allow it (the mapping is released by the garbage collector)
+    private static final Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+
+    private final String name;
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> entries;
+    private final MappedByteBuffer mapping; // the memory-mapped file, only for an archive opened with open(Path)
+    private final ZipArchive outer; // the archive that contains this nested archive, if this is a view of its buffer
+
+    private volatile boolean closed;
+
+    /**
+     * Creates an archive from the content of a zip file.
+     *
+     * @param name the name of the archive (used in messages)
+     * @param buffer the content of the zip file
+     * @throws ZipException if the content is not a valid zip file
+     */
+    public ZipArchive(String name, ByteBuffer buffer) throws ZipException {
+        this(name, buffer, null, null);
+    }
+
+    private ZipArchive(String name, ByteBuffer buffer, MappedByteBuffer mapping, ZipArchive outer) throws ZipException {
+        this.name = name;
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.mapping = mapping;
+        this.outer = outer;
+        try {
+            this.entries = readCentralDirectory();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw invalidArchive(e);
+        }
+    }
+
+    /**
+     * Opens a zip file with a memory-mapped buffer.
+     * The mapping is released when the archive is closed (or else when it's garbage collected); until then,
+     * the file cannot be deleted or replaced on Windows, and it must not be truncated (that makes the reads of the mapping fail).
+     *
+     * @param path the zip file
+     * @return the archive
+     * @throws IOException if the file cannot be read or if it is not a valid zip file
+     */
+    public static ZipArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ZipException("Zip file '" + path + "' is too large (" + channel.size() + " bytes)");
+            }
+
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return new ZipArchive(path.toString(), mapping, mapping, null);
+            } catch (ZipException e) {
+                unmap(mapping);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Opens a zip file (for example a jar) that is an entry of this archive.
+     * A stored nested archive is a view of this archive, so it cannot be read after this archive is closed.
+     *
+     * @param entry the entry of the nested zip file
+     * @return the nested archive
+     * @throws IOException if the entry cannot be read or if it is not a valid zip file
+     */
+    public ZipArchive openNested(Entry entry) throws IOException {
+        checkOpen();
+        String nestedName = name + "!/" + entry.getName();
+        if (entry.getMethod() == ZipEntry.STORED) {
+            ByteBuffer data;
+            try {
+                data = slice(getDataOffset(entry), entry.getCompressedSize());
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw invalidArchive(e);
+            }
+            checkStoredSize(entry);
+            checkCrc(entry, data.duplicate());
+
+            return new ZipArchive(nestedName, data, null, this);
+        }
+
+        return new ZipArchive(nestedName, ByteBuffer.wrap(getBytes(entry)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the entry with the specified name, or {@code null} if not found.
+     */
+    public Entry getEntry(String entryName) {
+        return entries.get(entryName);
+    }
+
+    /**
+     * Returns all entries, in the order of the central directory.
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Reads (and inflates if it's compressed) the content of the entry.
+     *
+     * @param entry the entry
+     * @return the content of the entry
+     * @throws IOException if the entry cannot be read
+     */
+    public byte[] getBytes(Entry entry) throws IOException {
+        checkOpen();
+        try {
+            return readBytes(entry);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw invalidArchive(e);
+        }
+    }
+
+    private byte[] readBytes(Entry entry) throws ZipException {
+        ByteBuffer data = slice(getDataOffset(entry), entry.getCompressedSize());
+        if (entry.getMethod() == ZipEntry.STORED) {
+            checkStoredSize(entry);
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            checkCrc(entry, ByteBuffer.wrap(bytes));
+
+            return bytes;
+        }
+
+        if (entry.getMethod() != ZipEntry.DEFLATED) {
+            throw new ZipException("Unsupported compression method " + entry.getMethod() + " for entry '" + entry.getName() + "' in '" + name + "'");
+        }
+
+        // don't trust the declared size, a deflated entry cannot be larger than this
+        if (entry.getSize() > Math.min(Integer.MAX_VALUE - 8, entry.getCompressedSize() * MAX_DEFLATE_RATIO)) {
+            throw new ZipException("Invalid entry size for '" + entry.getName() + "' in '" + name + "'");
+        }
+
+        byte[] input = new byte[data.remaining()];
+        data.get(input);
+        byte[] output = new byte[(int) entry.getSize()];
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            int count = 0;
+            while (count < output.length && !inflater.finished()) {
+                int inflated = inflater.inflate(output, count, output.length - count);
+                if ((inflated == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += inflated;
+            }
+
+            if (count != output.length) {
+                throw new ZipException("Invalid entry size for '" + entry.getName() + "' in '" + name + "'");
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid compressed data for entry '" + entry.getName() + "' in '" + name + "': " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        checkCrc(entry, ByteBuffer.wrap(output));
+
+        return output;
+    }
+
+    private void checkStoredSize(Entry entry) throws ZipException {
+        if (entry.getCompressedSize() != entry.getSize()) {
+            throw new ZipException("Invalid entry size for '" + entry.getName() + "' in '" + name + "'");
+        }
+    }
+
+    private void checkCrc(Entry entry, ByteBuffer data) throws ZipException {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if (crc.getValue() != entry.getCrc()) {
+            throw new ZipException("Invalid CRC for entry '" + entry.getName() + "' in '" + name + "'");
+        }
+    }
+
+    /**
+     * Returns an input stream for reading the (uncompressed) content of the entry.
+     */
+    public InputStream getInputStream(Entry entry) throws IOException {
+        return new ByteArrayInputStream(getBytes(entry));
+    }
+
+    /**
+     * Closes the archive and releases the memory mapping of the file (see {@link #open(Path)}), so the file can be
+     * deleted or replaced. The reads of the entries (of this archive and of its stored nested archives) fail after that
+     * with a {@link ZipException}, so an archive must be closed only when it's no longer read
+     * (a read in progress while the mapping is released could crash the JVM).
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        if (mapping != null) {
+            unmap(mapping);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed || ((outer != null) && outer.isClosed());
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private void checkOpen() throws ZipException {
+        if (isClosed()) {
+            throw new ZipException("Zip archive '" + name + "' is closed");
+        }
+    }
+
+    private static void unmap(MappedByteBuffer mapping) {
+        if (UNMAPPER != null) {
+            UNMAPPER.accept(mapping);
+        }
+    }
+
+    /**
+     * The JDK has no public API to release a mapping: {@code sun.misc.Unsafe.invokeCleaner} is used on Java 9+,
+     * the cleaner of the direct buffer on Java 8.
+     */
+    private static Consumer<ByteBuffer> createUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+
+                return buffer -> invoke(invokeCleaner, unsafe, buffer);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+
+                return buffer -> {
+                    Object bufferCleaner = invoke(cleaner, buffer);
+                    if (bufferCleaner != null) {
+                        invoke(clean, bufferCleaner);
+                    }
+                };
+            }
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            // the mapping is released by the garbage collector
+            return null;
+        }
+    }
+
+    private Map<String, Entry> readCentralDirectory() throws ZipException {
+        int endOffset = findEndHeader();
+        if ((endOffset >= ZIP64_LOCATOR_SIZE) && (buffer.getInt(endOffset - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIGNATURE)) {
+            throw new ZipException("ZIP64 archive '" + name + "' is not supported");
+        }
+        int entryCount = buffer.getShort(endOffset + 10) & 0xFFFF;
+        long directorySize = buffer.getInt(endOffset + 12) & 0xFFFFFFFFL;
+        long directoryOffset = buffer.getInt(endOffset + 16) & 0xFFFFFFFFL;
+        if ((entryCount == 0xFFFF) || (directorySize == 0xFFFFFFFFL) || (directoryOffset == 0xFFFFFFFFL)) {
+            throw new ZipException("ZIP64 archive '" + name + "' is not supported");
+        }
+        if (directoryOffset + directorySize > endOffset) {
+            throw new ZipException("Invalid central directory in '" + name + "'");
+        }
+
+        Map<String, Entry> result = new LinkedHashMap<>(entryCount * 4 / 3 + 1);
+        int offset = (int) directoryOffset;
+        for (int i = 0; i < entryCount; i++) {
+            if ((offset + CENTRAL_HEADER_SIZE > endOffset) || (buffer.getInt(offset) != CENTRAL_HEADER_SIGNATURE)) {
+                throw new ZipException("Invalid central directory header in '" + name + "'");
+            }
+
+            int flags = buffer.getShort(offset + 8) & 0xFFFF;
+            int method = buffer.getShort(offset + 10) & 0xFFFF;
+            long crc = buffer.getInt(offset + 16) & 0xFFFFFFFFL;
+            long compressedSize = buffer.getInt(offset + 20) & 0xFFFFFFFFL;
+            long size = buffer.getInt(offset + 24) & 0xFFFFFFFFL;
+            int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+            int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+            int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+            long localHeaderOffset = buffer.getInt(offset + 42) & 0xFFFFFFFFL;
+            if ((compressedSize == 0xFFFFFFFFL) || (size == 0xFFFFFFFFL) || (localHeaderOffset == 0xFFFFFFFFL)) {
+                throw new ZipException("ZIP64 archive '" + name + "' is not supported");
+            }
+
+            if (offset + CENTRAL_HEADER_SIZE + nameLength > endOffset) {
+                throw new ZipException("Invalid central directory header in '" + name + "'");
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            ByteBuffer nameBuffer = buffer.duplicate();
+            nameBuffer.position(offset + CENTRAL_HEADER_SIZE);
+            nameBuffer.get(nameBytes);
+            String entryName = new String(nameBytes, ((flags & UTF8_FLAG) != 0) ? StandardCharsets.UTF_8 : CP437);
+
+            // the first entry wins, like in ZipFile
+            result.putIfAbsent(entryName, new Entry(entryName, method, crc, compressedSize, size, localHeaderOffset));
+
+            offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+
+        return result;
+    }
+
+    private ZipException invalidArchive(RuntimeException cause) {
+        ZipException e = new ZipException("Invalid zip file '" + name + "'");
+        e.initCause(cause);
+
+        return e;
+    }
+
+    private int findEndHeader() throws ZipException {
+        int limit = buffer.limit();
+        int minOffset = Math.max(0, limit - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+        for (int offset = limit - END_HEADER_SIZE; offset >= minOffset; offset--) {
+            if (buffer.getInt(offset) == END_HEADER_SIGNATURE) {
+                return offset;
+            }
+        }
+
+        throw new ZipException("Cannot find the central directory in '" + name + "'");
+    }
+
+    private int getDataOffset(Entry entry) throws ZipException {
+        int dataOffset = entry.dataOffset;
+        if (dataOffset < 0) {
+            long offset = entry.getLocalHeaderOffset();
+            if ((offset + LOCAL_HEADER_SIZE > buffer.limit()) || (buffer.getInt((int) offset) != LOCAL_HEADER_SIGNATURE)) {
+                throw new ZipException("Invalid local header for entry '" + entry.getName() + "' in '" + name + "'");
+            }
+
+            int nameLength = buffer.getShort((int) offset + 26) & 0xFFFF;
+            int extraLength = buffer.getShort((int) offset + 28) & 0xFFFF;
+            dataOffset = (int) offset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+            entry.dataOffset = dataOffset;
+        }
+
+        return dataOffset;
+    }
+
+    private ByteBuffer slice(int offset, long length) throws ZipException {
+        if ((offset < 0) || (offset + length > buffer.limit())) {
+            throw new ZipException("Invalid entry data in '" + name + "'");
+        }
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + (int) length);
+
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * An entry of the central directory.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+        private volatile int dataOffset = -1; // computed on first read
+
+        Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLocalHeaderOffset() {
+            return localHeaderOffset;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.util.ZipArchive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveClassPathTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ArchiveClassPath classPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        classPath = new ArchiveClassPath();
+        classPath.add(openZip("first.zip", "classes/a.txt", "first a", "classes/b.txt", "first b"), "classes/", "file:/first.zip");
+        classPath.add(openZip("second.zip", "a.txt", "second a", "c.txt", "second c"), "", "file:/second.zip");
+    }
+
+    @Test
+    void getResource() throws IOException {
+        ArchiveClassPath.Resource resource = classPath.getResource("a.txt");
+        assertNotNull(resource);
+        assertArrayEquals("first a".getBytes(), resource.getBytes());
+        assertEquals("pf4j:file:/first.zip!/classes/a.txt", resource.getURL().toString());
+
+        assertArrayEquals("second c".getBytes(), classPath.getResource("c.txt").getBytes());
+        assertNull(classPath.getResource("classes/a.txt"));
+        assertNull(classPath.getResource("missing.txt"));
+    }
+
+    @Test
+    void getResources() throws IOException {
+        List<URL> urls = classPath.getResources("a.txt");
+        assertEquals(2, urls.size());
+        assertEquals("pf4j:file:/first.zip!/classes/a.txt", urls.get(0).toString());
+        assertEquals("pf4j:file:/second.zip!/a.txt", urls.get(1).toString());
+
+        try (InputStream input = urls.get(1).openStream()) {
+            byte[] bytes = new byte[8];
+            assertEquals(8, input.read(bytes));
+            assertArrayEquals("second a".getBytes(), bytes);
+        }
+
+        assertTrue(classPath.getResources("missing.txt").isEmpty());
+    }
+
+    @Test
+    void close() {
+        classPath.close();
+
+        assertTrue(classPath.isEmpty());
+        assertNull(classPath.getResource("a.txt"));
+    }
+
+    private ZipArchive openZip(String fileName, String... entries) throws IOException {
+        Path zip = tempDir.resolve(fileName);
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                output.putNextEntry(new ZipEntry(entries[i]));
+                output.write(entries[i + 1].getBytes());
+                output.closeEntry();
+            }
+        }
+
+        return ZipArchive.open(zip);
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestExtension;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.test.TestPlugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassListStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path pluginsPath;
+    private ClassListStore classListStore;
+    private JarPluginManager pluginManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pluginsPath = Files.createDirectories(tempDir.resolve("plugins"));
+        new PluginJar.Builder(pluginsPath.resolve("test-plugin.jar"), "test-plugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .extension(TestExtension.class.getName())
+            .build();
+
+        classListStore = new ClassListStore(tempDir.resolve("classlists"));
+        pluginManager = new JarPluginManager(pluginsPath);
+        pluginManager.setClassListStore(classListStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pluginManager.unloadPlugins();
+    }
+
+    @Test
+    void writeAndRead() throws IOException {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.getExtensions(TestExtensionPoint.class);
+
+        PluginWrapper plugin = pluginManager.getPlugin("test-plugin");
+        assertFalse(classListStore.contains(plugin));
+
+        pluginManager.writeClassLists();
+        assertTrue(classListStore.contains(plugin));
+
+        Path file = classListStore.getClassListFile(plugin);
+        assertTrue(file.getFileName().toString().startsWith("test-plugin-"));
+        assertEquals(Collections.singletonList("org/pf4j/test/TestExtension"), Files.readAllLines(file));
+        assertEquals(Collections.singletonList(TestExtension.class.getName()), classListStore.read(plugin));
+    }
+
+    @Test
+    void readChangedPlugin() throws IOException {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.getExtensions(TestExtensionPoint.class);
+        pluginManager.writeClassLists();
+
+        PluginWrapper plugin = pluginManager.getPlugin("test-plugin");
+        Files.write(plugin.getPluginPath(), new byte[] { 1 }, StandardOpenOption.APPEND);
+
+        assertFalse(classListStore.contains(plugin));
+        assertTrue(classListStore.read(plugin).isEmpty());
+    }
+
+    @Test
+    void classListFileOfDirectoryPlugin() throws IOException {
+        Path pluginPath = Files.createDirectories(tempDir.resolve("directory-plugin"));
+        Path file = Files.write(pluginPath.resolve("plugin.properties"), "a".getBytes());
+        DefaultPluginDescriptor pluginDescriptor = new DefaultPluginDescriptor();
+        pluginDescriptor.setPluginId("directory-plugin");
+        PluginWrapper plugin = new PluginWrapper(pluginManager, pluginDescriptor, pluginPath, getClass().getClassLoader());
+
+        Path classListFile = classListStore.getClassListFile(plugin);
+        assertEquals(classListFile, classListStore.getClassListFile(plugin));
+
+        Files.write(file, "ab".getBytes());
+        assertNotEquals(classListFile, classListStore.getClassListFile(plugin));
+    }
+
+    @Test
+    void writeDeletesOnlyPreviousClassLists() throws IOException {
+        Path directory = Files.createDirectories(classListStore.getDirectory());
+        String hash = String.join("", Collections.nCopies(64, "0"));
+        Path previous = Files.createFile(directory.resolve("test-plugin-" + hash + ClassListStore.FILE_EXTENSION));
+        Path otherPlugin = Files.createFile(directory.resolve("test-plugin-other-" + hash + ClassListStore.FILE_EXTENSION));
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.getExtensions(TestExtensionPoint.class);
+        pluginManager.writeClassLists();
+
+        assertTrue(classListStore.contains(pluginManager.getPlugin("test-plugin")));
+        assertFalse(Files.exists(previous));
+        assertTrue(Files.exists(otherPlugin));
+    }
+
+    @Test
+    void writeWithoutRecordedClasses() throws IOException {
+        pluginManager.loadPlugins();
+
+        assertNull(classListStore.write(pluginManager.getPlugin("test-plugin")));
+    }
+
+    @Test
+    void recordLoadedClasses() {
+        pluginManager.loadPlugins();
+
+        PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader("test-plugin");
+        assertTrue(classLoader.isRecordingLoadedClasses());
+        assertNotNull(classLoader.getRecordedClassNames());
+        classLoader.setRecordingLoadedClasses(false);
+        assertTrue(classLoader.getRecordedClassNames().isEmpty());
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestPlugin;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassLoaderLeakDetectorTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void leakedClassLoader() {
+        ClassLoaderLeakDetector detector = new ClassLoaderLeakDetector(2);
+        ClassLoader classLoader = new URLClassLoader(new URL[0]);
+        detector.track("myPlugin", classLoader);
+        assertTrue(detector.getLeaks().isEmpty());
+
+        System.gc();
+        System.gc();
+
+        List<ClassLoaderLeakDetector.Leak> leaks = detector.getLeaks();
+        assertEquals(1, leaks.size());
+        assertEquals("myPlugin", leaks.get(0).getPluginId());
+        assertTrue(leaks.get(0).getGcCount() >= 2);
+        assertEquals(1, detector.getTrackedCount());
+
+        // keep the class loader alive until here
+        assertNotNull(classLoader);
+    }
+
+    @Test
+    void collectedClassLoader() {
+        ClassLoaderLeakDetector detector = new ClassLoaderLeakDetector();
+        detector.track("myPlugin", new URLClassLoader(new URL[0]));
+
+        for (int i = 0; i < 100 && detector.getTrackedCount() > 0; i++) {
+            System.gc();
+        }
+
+        assertEquals(0, detector.getTrackedCount());
+        assertTrue(detector.getLeaks().isEmpty());
+    }
+
+    @Test
+    void invalidGcThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new ClassLoaderLeakDetector(0));
+    }
+
+    @Test
+    void pluginManagerLeak() throws Exception {
+        new PluginJar.Builder(pluginsPath.resolve("my-plugin.jar"), "myPlugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .build();
+
+        InMemoryPluginMetrics metrics = new InMemoryPluginMetrics();
+        DefaultPluginManager pluginManager = new DefaultPluginManager(pluginsPath);
+        pluginManager.setClassLoaderLeakDetector(new ClassLoaderLeakDetector(1));
+        pluginManager.setPluginMetrics(metrics);
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        // the application keeps a reference to the plugin class loader
+        ClassLoader pluginClassLoader = pluginManager.getPluginClassLoader("myPlugin");
+        pluginManager.unloadPlugin("myPlugin");
+        System.gc();
+
+        assertEquals(1, metrics.getGaugeValue(PluginMetrics.LEAKED_CLASS_LOADERS, null));
+        assertEquals("myPlugin", pluginManager.getClassLoaderLeakDetector().getLeaks().get(0).getPluginId());
+
+        assertNotNull(pluginClassLoader);
+    }
+
+}
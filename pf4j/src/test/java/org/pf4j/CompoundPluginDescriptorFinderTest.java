@@ -35,6 +35,11 @@ import java.util.Properties;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Decebal Suiu
@@ -84,6 +89,47 @@ public class CompoundPluginDescriptorFinderTest {
         assertEquals("1.2.3", pluginJar.pluginVersion());
     }
 
+    @Test
+    public void findWithDescriptorFirst() throws Exception {
+        Path pluginPath = Files.createDirectories(pluginsPath.resolve("test-plugin-1"));
+        storePropertiesToPath(getPlugin1Properties(), pluginPath);
+
+        // the manifest finder is applicable for any directory, but there is no manifest
+        PluginDescriptorFinder manifestFinder = spy(new ManifestPluginDescriptorFinder());
+        PluginDescriptorFinder descriptorFinder = new CompoundPluginDescriptorFinder()
+            .add(manifestFinder)
+            .add(new PropertiesPluginDescriptorFinder());
+
+        PluginDescriptor pluginDescriptor = descriptorFinder.find(pluginPath);
+        assertEquals("test-plugin-1", pluginDescriptor.getPluginId());
+        verify(manifestFinder, never()).find(any());
+    }
+
+    @Test
+    public void findWithFailingProbe() throws Exception {
+        Path pluginPath = Files.createDirectories(pluginsPath.resolve("test-plugin-1"));
+        storePropertiesToPath(getPlugin1Properties(), pluginPath);
+
+        PluginDescriptorFinder failingFinder = spy(new ManifestPluginDescriptorFinder());
+        doThrow(new IllegalStateException("probe")).when(failingFinder).hasDescriptor(any());
+        PluginDescriptorFinder descriptorFinder = new CompoundPluginDescriptorFinder()
+            .add(failingFinder)
+            .add(new PropertiesPluginDescriptorFinder());
+
+        assertEquals("test-plugin-1", descriptorFinder.find(pluginPath).getPluginId());
+    }
+
+    @Test
+    public void findInCorruptJar() throws Exception {
+        Path pluginPath = Files.write(pluginsPath.resolve("corrupt-plugin.jar"), "not a jar".getBytes());
+
+        PluginDescriptorFinder descriptorFinder = new CompoundPluginDescriptorFinder()
+            .add(new PropertiesPluginDescriptorFinder())
+            .add(new ManifestPluginDescriptorFinder());
+
+        assertThrows(PluginRuntimeException.class, () -> descriptorFinder.find(pluginPath));
+    }
+
     @Test
     public void testNotFound() {
         PluginDescriptorFinder descriptorFinder = new CompoundPluginDescriptorFinder();
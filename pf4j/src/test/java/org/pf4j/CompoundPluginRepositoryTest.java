@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -52,6 +53,17 @@ class CompoundPluginRepositoryTest {
         assertFalse(compoundRepository.getRepositories().contains(mockRepository));
     }
 
+    @Test
+    void shareDirectoryListingCache() {
+        JarPluginRepository jarRepository = new JarPluginRepository();
+        ZipPluginRepository zipRepository = new ZipPluginRepository();
+        new CompoundPluginRepository()
+            .add(jarRepository)
+            .add(zipRepository);
+
+        assertSame(jarRepository.getDirectoryListingCache(), zipRepository.getDirectoryListingCache());
+    }
+
     @Test
     void getPluginPathsFromMultipleRepositories() {
         CompoundPluginRepository compoundRepository = new CompoundPluginRepository();
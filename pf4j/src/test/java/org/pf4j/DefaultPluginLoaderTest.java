@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestExtension;
+import org.pf4j.test.TestPlugin;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultPluginLoaderTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    private Path pluginPath;
+    private PluginDescriptor pluginDescriptor;
+    private DefaultPluginLoader pluginLoader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pluginPath = pluginsPath.resolve("test-plugin");
+        Path libPath = Files.createDirectories(pluginPath.resolve("lib"));
+        new PluginJar.Builder(libPath.resolve("test-plugin.jar"), "test-plugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .extension(TestExtension.class.getName())
+            .build();
+
+        pluginDescriptor = new DefaultPluginDescriptor("test-plugin", "", TestPlugin.class.getName(), "1.2.3", "", "", "");
+        pluginLoader = new DefaultPluginLoader(new DefaultPluginManager(pluginsPath));
+    }
+
+    @Test
+    void loadJars() throws IOException {
+        assertFalse(pluginLoader.isIndexedJars());
+
+        try (PluginClassLoader classLoader = (PluginClassLoader) pluginLoader.loadPlugin(pluginPath, pluginDescriptor)) {
+            assertEquals(1, classLoader.getURLs().length);
+            URL resource = classLoader.findResource(TestExtension.class.getName().replace('.', '/') + ".class");
+            assertNotNull(resource);
+            assertEquals("jar", resource.getProtocol());
+        }
+    }
+
+    @Test
+    void loadIndexedJars() throws Exception {
+        pluginLoader.setIndexedJars(true);
+
+        try (PluginClassLoader classLoader = (PluginClassLoader) pluginLoader.loadPlugin(pluginPath, pluginDescriptor)) {
+            assertEquals(0, classLoader.getURLs().length);
+            URL resource = classLoader.findResource(TestExtension.class.getName().replace('.', '/') + ".class");
+            assertNotNull(resource);
+            assertEquals(ArchiveClassPath.PROTOCOL, resource.getProtocol());
+            assertTrue(resource.toString().endsWith("test-plugin.jar!/org/pf4j/test/TestExtension.class"));
+
+            // the classes keep the jar file as code source (required by the class data sharing)
+            Class<?> extensionClass = classLoader.loadClass(TestExtension.class.getName());
+            assertEquals(classLoader, extensionClass.getClassLoader());
+            assertEquals("file", extensionClass.getProtectionDomain().getCodeSource().getLocation().getProtocol());
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.pf4j.test.JavaFileObjectUtils;
 import org.pf4j.test.JavaSources;
+import org.pf4j.test.PluginCorpus;
 import org.pf4j.test.PluginJar;
 import org.pf4j.test.PluginZip;
 
@@ -656,6 +657,26 @@ class DefaultPluginManagerTest {
         assertTrue(plugin.getFailedException().getMessage().contains("stop"));
     }
 
+    @Test
+    void stopPluginsWithManyStartedPlugins() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(5)
+            .depth(3)
+            .format(PluginCorpus.Format.ZIP)
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        assertEquals(corpus.pluginIds().size(), pluginManager.getStartedPlugins().size());
+
+        pluginManager.stopPlugins();
+
+        assertTrue(pluginManager.getStartedPlugins().isEmpty());
+        for (String pluginId : corpus.pluginIds()) {
+            assertEquals(PluginState.STOPPED, pluginManager.getPlugin(pluginId).getPluginState());
+        }
+    }
+
     @Test
     void enableInvalidPluginSetsFailedException() throws IOException {
         // Set system version to 2.0.0
@@ -16,12 +16,15 @@
 package org.pf4j;
 
 import com.github.zafarkhaja.semver.ParseException;
+import com.github.zafarkhaja.semver.Version;
 import com.github.zafarkhaja.semver.expr.LexerException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -69,4 +72,27 @@ class DefaultVersionManagerTest {
         assertEquals(0, versionManager.compareVersions("1.0.0-SNAPSHOT", "1.0.0-SNAPSHOT"));
     }
 
+    @Test
+    void cachedVersionsAndConstraints() {
+        DefaultVersionManager versionManager = new DefaultVersionManager();
+        assertSame(versionManager.parseVersion("1.4.3"), versionManager.parseVersion("1.4.3"));
+        assertSame(versionManager.parseConstraint(">=1.4.0 & <1.6.0"), versionManager.parseConstraint(">=1.4.0 & <1.6.0"));
+
+        // parse errors are not cached
+        assertThrows(ParseException.class, () -> versionManager.parseVersion("1.0"));
+        assertThrows(ParseException.class, () -> versionManager.parseVersion("1.0"));
+    }
+
+    @Test
+    void boundedCache() {
+        DefaultVersionManager versionManager = new DefaultVersionManager(1);
+        Version version = versionManager.parseVersion("1.0.0");
+        versionManager.parseVersion("2.0.0");
+        assertNotSame(version, versionManager.parseVersion("1.0.0"));
+
+        versionManager = new DefaultVersionManager(0);
+        assertNotSame(versionManager.parseVersion("1.0.0"), versionManager.parseVersion("1.0.0"));
+        assertTrue(versionManager.checkVersionConstraint("1.4.3", ">=1.4.0 & <1.6.0"));
+    }
+
 }
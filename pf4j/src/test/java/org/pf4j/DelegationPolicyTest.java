@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.pf4j.DelegationPolicy.Delegation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DelegationPolicyTest {
+
+    @Test
+    void defaultPolicy() {
+        DelegationPolicy policy = DelegationPolicy.DEFAULT;
+        assertEquals(Delegation.SYSTEM, policy.getDelegation("java.lang.String"));
+        assertEquals(Delegation.SYSTEM, policy.getDelegation("java.util.concurrent.ConcurrentHashMap"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("jdk.internal.misc.Unsafe"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("sun.misc.Unsafe"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("org.pf4j.PluginManager"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("org.pf4j.demo.api.Greeting"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("org.pf4j.test.TestExtension"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("org.pf4jx.Other"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("javax.inject.Inject"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("com.example.MyClass"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("Greeting"));
+        // a class (not a package) named like a package
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("java"));
+    }
+
+    @Test
+    void customPolicy() {
+        DelegationPolicy policy = DelegationPolicy.builder()
+            .parent("javax.xml.", "com.example.api")
+            .strategy("com.example.api.internal")
+            .build();
+
+        assertEquals(Delegation.PARENT, policy.getDelegation("javax.xml.parsers.DocumentBuilder"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("javax.inject.Inject"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("com.example.api.Greeting"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("com.example.api.internal.Impl"));
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("com.example.apix.Greeting"));
+        assertEquals(Delegation.PARENT, policy.getDelegation("org.pf4j.PluginManager"));
+    }
+
+    @Test
+    void lastRuleWins() {
+        DelegationPolicy policy = DelegationPolicy.builder()
+            .strategy("org.pf4j")
+            .build();
+
+        assertEquals(Delegation.STRATEGY, policy.getDelegation("org.pf4j.PluginManager"));
+    }
+
+    @Test
+    void emptyPackageName() {
+        assertThrows(IllegalArgumentException.class, () -> DelegationPolicy.builder().parent("."));
+    }
+
+}
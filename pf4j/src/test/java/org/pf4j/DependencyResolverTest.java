@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -159,4 +160,136 @@ class DependencyResolverTest {
         assertTrue(result.getWrongVersionDependencies().isEmpty());
     }
 
+    @Test
+    void addPlugin() {
+        PluginDescriptor pd1 = new DefaultPluginDescriptor()
+            .setPluginId("p1")
+            .setDependencies("p2");
+
+        DependencyResolver.Result result = resolver.resolve(Collections.singletonList(pd1));
+        assertEquals(Collections.singletonList("p2"), result.getNotFoundDependencies());
+
+        PluginDescriptor pd2 = new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("0.0.0")
+            .setDependencies("p3");
+
+        result = resolver.addPlugin(pd2);
+
+        assertEquals(Collections.singletonList("p3"), result.getNotFoundDependencies());
+        assertEquals(Arrays.asList("p3", "p2", "p1"), result.getSortedPlugins());
+        assertEquals(Collections.singletonList("p1"), resolver.getDependents("p2"));
+    }
+
+    @Test
+    void addPluginWithWrongDependencyVersion() {
+        PluginDescriptor pd1 = new DefaultPluginDescriptor()
+            .setPluginId("p1")
+            .setDependencies("p2@>=1.5.0 & <1.6.0");
+
+        resolver.resolve(Collections.singletonList(pd1));
+
+        PluginDescriptor pd2 = new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("1.4.0");
+
+        DependencyResolver.Result result = resolver.addPlugin(pd2);
+
+        assertTrue(result.getNotFoundDependencies().isEmpty());
+        assertEquals(1, result.getWrongVersionDependencies().size());
+        assertEquals("p1", result.getWrongVersionDependencies().get(0).getDependentId());
+
+        // replace with a good version
+        result = resolver.addPlugin(new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("1.5.1"));
+
+        assertTrue(result.isOK());
+    }
+
+    @Test
+    void addPluginWithCyclicDependency() {
+        PluginDescriptor pd1 = new DefaultPluginDescriptor()
+            .setPluginId("p1")
+            .setPluginVersion("0.0.0")
+            .setDependencies("p2");
+
+        PluginDescriptor pd2 = new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("0.0.0")
+            .setDependencies("p3");
+
+        resolver.resolve(Arrays.asList(pd1, pd2));
+
+        PluginDescriptor pd3 = new DefaultPluginDescriptor()
+            .setPluginId("p3")
+            .setPluginVersion("0.0.0")
+            .setDependencies("p1");
+
+        assertTrue(resolver.addPlugin(pd3).hasCyclicDependency());
+
+        // removing a plugin breaks the cycle
+        DependencyResolver.Result result = resolver.removePlugin("p3");
+
+        assertFalse(result.hasCyclicDependency());
+        assertEquals(Collections.singletonList("p3"), result.getNotFoundDependencies());
+    }
+
+    @Test
+    void removePlugin() {
+        PluginDescriptor pd1 = new DefaultPluginDescriptor()
+            .setPluginId("p1")
+            .setDependencies("p2");
+
+        PluginDescriptor pd2 = new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("0.0.0")
+            .setDependencies("p3");
+
+        resolver.resolve(Arrays.asList(pd1, pd2));
+
+        // p2 is still required by p1
+        DependencyResolver.Result result = resolver.removePlugin("p2");
+
+        assertEquals(Collections.singletonList("p2"), result.getNotFoundDependencies());
+        assertEquals(Arrays.asList("p2", "p1"), result.getSortedPlugins());
+        assertTrue(resolver.getDependencies("p2").isEmpty());
+
+        result = resolver.removePlugin("p1");
+
+        assertTrue(result.isOK());
+        assertTrue(result.getSortedPlugins().isEmpty());
+    }
+
+    @Test
+    void update() {
+        PluginDescriptor pd1 = new DefaultPluginDescriptor()
+            .setPluginId("p1")
+            .setDependencies("p2");
+
+        PluginDescriptor pd2 = new DefaultPluginDescriptor()
+            .setPluginId("p2")
+            .setPluginVersion("0.0.0");
+
+        PluginDescriptor pd3 = new DefaultPluginDescriptor()
+            .setPluginId("p3");
+
+        PluginDescriptor pd4 = new DefaultPluginDescriptor()
+            .setPluginId("p4")
+            .setDependencies("p1");
+
+        resolver.resolve(Arrays.asList(pd1, pd2, pd3));
+
+        DependencyResolver.Result result = resolver.update(Arrays.asList(pd1, pd2, pd3, pd4));
+        assertTrue(result.isOK());
+        List<String> sortedPlugins = result.getSortedPlugins();
+        assertEquals(4, sortedPlugins.size());
+        assertTrue(sortedPlugins.indexOf("p2") < sortedPlugins.indexOf("p1"));
+        assertTrue(sortedPlugins.indexOf("p1") < sortedPlugins.indexOf("p4"));
+
+        result = resolver.update(Arrays.asList(pd1, pd3, pd4));
+        assertEquals(Collections.singletonList("p2"), result.getNotFoundDependencies());
+        assertEquals(Collections.singletonList("p1"), resolver.getDependents("p2"));
+    }
+
 }
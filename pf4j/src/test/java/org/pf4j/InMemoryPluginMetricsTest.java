@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestExtension;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.test.TestPlugin;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryPluginMetricsTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void metrics() {
+        InMemoryPluginMetrics metrics = new InMemoryPluginMetrics();
+
+        metrics.counter("counter", "plugin").increment();
+        metrics.counter("counter", "plugin").increment();
+        metrics.counter("counter", null).increment();
+        assertEquals(2, metrics.getCount("counter", "plugin"));
+        assertEquals(1, metrics.getCount("counter", null));
+        assertEquals(0, metrics.getCount("other", null));
+
+        metrics.timer("timer", null).record(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.timer("timer", null).record(TimeUnit.MILLISECONDS.toNanos(5));
+        InMemoryPluginMetrics.InMemoryTimer timer = metrics.getTimer("timer", null);
+        assertEquals(2, timer.getCount());
+        assertEquals(8, timer.getTotalTime(TimeUnit.MILLISECONDS));
+        assertEquals(5, timer.getMaxTime(TimeUnit.MILLISECONDS));
+        assertNull(metrics.getTimer("timer", "plugin"));
+
+        metrics.gauge("gauge", null, () -> 42);
+        assertEquals(42, metrics.getGaugeValue("gauge", null));
+
+        metrics.clear();
+        assertEquals(0, metrics.getCount("counter", "plugin"));
+        assertNull(metrics.getGaugeValue("gauge", null));
+    }
+
+    @Test
+    void pluginManagerMetrics() throws Exception {
+        new PluginJar.Builder(pluginsPath.resolve("my-plugin.jar"), "myPlugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .extension(TestExtension.class.getName())
+            .build();
+
+        InMemoryPluginMetrics metrics = new InMemoryPluginMetrics();
+        DefaultPluginManager pluginManager = new DefaultPluginManager(pluginsPath);
+        pluginManager.setPluginMetrics(metrics);
+        assertEquals(0, metrics.getGaugeValue(PluginMetrics.PLUGINS, null));
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.getExtensions(TestExtensionPoint.class);
+        pluginManager.getExtensions(TestExtensionPoint.class);
+
+        assertEquals(1, metrics.getGaugeValue(PluginMetrics.PLUGINS, null));
+        assertEquals(1, metrics.getGaugeValue(PluginMetrics.STARTED_PLUGINS, null));
+        assertEquals(1, metrics.getTimer(PluginMetrics.PLUGIN_LOAD, "myPlugin").getCount());
+        assertEquals(1, metrics.getTimer(PluginMetrics.PLUGIN_START, "myPlugin").getCount());
+        assertEquals(1, metrics.getCount(PluginMetrics.PLUGIN_STATE + ".STARTED", "myPlugin"));
+        assertEquals(1, metrics.getCount(PluginMetrics.PLUGIN_STATE + ".RESOLVED", "myPlugin"));
+        assertEquals(0, metrics.getCount(PluginMetrics.PLUGIN_START_FAILURES, "myPlugin"));
+        // the extension class is loaded from the plugin
+        assertTrue(metrics.getCount(PluginMetrics.CLASS_LOADS, "myPlugin") > 0);
+        assertTrue(metrics.getCount(PluginMetrics.EXTENSION_CACHE_MISSES, null) > 0);
+        assertTrue(metrics.getCount(PluginMetrics.EXTENSION_CACHE_HITS, null) > 0);
+
+        PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader("myPlugin");
+        assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass("org.example.Missing"));
+        assertEquals(1, metrics.getCount(PluginMetrics.CLASS_NOT_FOUND, "myPlugin"));
+
+        pluginManager.stopPlugins();
+        assertNotNull(metrics.getTimer(PluginMetrics.PLUGIN_STOP, "myPlugin"));
+        assertEquals(0, metrics.getGaugeValue(PluginMetrics.STARTED_PLUGINS, null));
+    }
+
+}
@@ -33,9 +33,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JarPluginManagerTest {
@@ -77,6 +80,142 @@ public class JarPluginManagerTest {
         assertEquals(new TestExtension().saySomething(), something);
     }
 
+    @Test
+    public void acquireExtensions() {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper plugin = pluginManager.getPlugin(pluginJar.pluginId());
+        List<ExtensionLease<TestExtensionPoint>> leases = pluginManager.acquireExtensions(TestExtensionPoint.class);
+        assertEquals(1, leases.size());
+        assertEquals(1, plugin.getUsageCount());
+
+        try (ExtensionLease<TestExtensionPoint> lease = leases.get(0)) {
+            assertSame(plugin, lease.getPlugin());
+            assertEquals(new TestExtension().saySomething(), lease.getExtension().saySomething());
+        }
+
+        assertEquals(0, plugin.getUsageCount());
+        assertThrows(IllegalStateException.class, () -> leases.get(0).getExtension());
+    }
+
+    @Test
+    public void releaseWithoutRetain() {
+        pluginManager.loadPlugins();
+
+        PluginWrapper plugin = pluginManager.getPlugin(pluginJar.pluginId());
+        assertTrue(plugin.retain());
+        plugin.release();
+        assertThrows(IllegalStateException.class, plugin::release);
+        assertEquals(0, plugin.getUsageCount());
+
+        // the extra release doesn't hide the next usage
+        assertTrue(plugin.retain());
+        assertEquals(1, plugin.getUsageCount());
+        plugin.release();
+    }
+
+    @Test
+    public void unloadPluginWaitsForLeases() throws Exception {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader(pluginJar.pluginId());
+        PluginLease lease = pluginManager.acquirePlugin(pluginJar.pluginId());
+        AtomicBoolean closedWhileLeased = new AtomicBoolean();
+        CompletableFuture<Void> release = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closedWhileLeased.set(classLoader.isClosed());
+            lease.close();
+        });
+
+        assertTrue(pluginManager.unloadPlugin(pluginJar.pluginId()));
+        release.get();
+
+        assertFalse(closedWhileLeased.get());
+        assertTrue(classLoader.isClosed());
+        assertEquals(0, lease.getPlugin().getUsageCount());
+    }
+
+    @Test
+    public void unloadPluginAfterDrainTimeout() {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.setDrainTimeout(50);
+
+        PluginLease lease = pluginManager.acquirePlugin(pluginJar.pluginId());
+
+        assertTrue(pluginManager.unloadPlugin(pluginJar.pluginId()));
+        assertEquals(PluginState.UNLOADED, lease.getPlugin().getPluginState());
+        assertFalse(lease.getPlugin().retain());
+        assertThrows(PluginNotFoundException.class, () -> pluginManager.acquirePlugin(pluginJar.pluginId()));
+
+        lease.close();
+        assertEquals(0, lease.getPlugin().getUsageCount());
+    }
+
+    @Test
+    public void unloadPluginThatCannotBeStopped() {
+        pluginManager = new JarPluginManager(pluginsPath) {
+
+            @Override
+            protected PluginState stopPlugin(String pluginId, boolean stopDependents) {
+                // the plugin remains started
+                return getPlugin(pluginId).getPluginState();
+            }
+
+        };
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        assertFalse(pluginManager.unloadPlugin(pluginJar.pluginId()));
+
+        // the plugin is still loaded and started, so it accepts new leases
+        try (PluginLease lease = pluginManager.acquirePlugin(pluginJar.pluginId())) {
+            assertEquals(PluginState.STARTED, lease.getPlugin().getPluginState());
+        }
+    }
+
+    @Test
+    public void unloadPluginDrainsDependentsAtOnce() throws IOException {
+        new PluginJar.Builder(pluginsPath.resolve("dependent-plugin.jar"), "dependent-plugin")
+            .pluginVersion("1.2.3")
+            .manifestAttribute(ManifestPluginDescriptorFinder.PLUGIN_DEPENDENCIES, pluginJar.pluginId())
+            .build();
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.setDrainTimeout(300);
+
+        // leaked leases
+        PluginLease lease = pluginManager.acquirePlugin(pluginJar.pluginId());
+        PluginLease dependentLease = pluginManager.acquirePlugin("dependent-plugin");
+
+        long startTime = System.currentTimeMillis();
+        assertTrue(pluginManager.unloadPlugin(pluginJar.pluginId()));
+        long unloadTime = System.currentTimeMillis() - startTime;
+
+        assertTrue(unloadTime < 2 * 300, "Unload took " + unloadTime + " ms");
+        assertTrue(pluginManager.getPlugins().isEmpty());
+
+        lease.close();
+        dependentLease.close();
+    }
+
+    @Test
+    public void acquireExtensionOfUnloadedPluginFails() {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        ExtensionWrapper<TestExtensionPoint> extensionWrapper = pluginManager.extensionFinder.find(TestExtensionPoint.class).get(0);
+        pluginManager.unloadPlugin(pluginJar.pluginId());
+
+        assertThrows(PluginRuntimeException.class, extensionWrapper::acquire);
+    }
+
     @Test
     public void unloadPlugin() throws Exception {
         pluginManager.loadPlugins();
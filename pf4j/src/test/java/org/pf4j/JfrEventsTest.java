@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestExtension;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.test.TestPlugin;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class JfrEventsTest {
+
+    private static final String[] EVENT_NAMES = {
+        "org.pf4j.LoadPlugin",
+        "org.pf4j.FindPluginDescriptor",
+        "org.pf4j.CreateClassLoader",
+        "org.pf4j.ResolveDependencies",
+        "org.pf4j.StartPlugin",
+        "org.pf4j.StopPlugin",
+        "org.pf4j.FindExtensions",
+        "org.pf4j.CreateExtension"
+    };
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void eventWithoutRecording() {
+        JfrEvents.Event event = JfrEvents.begin(JfrEvents.Type.START_PLUGIN).setPluginId("myPlugin");
+        event.finish();
+
+        // no event is created if no recording is running
+        assertSame(event, JfrEvents.begin(JfrEvents.Type.STOP_PLUGIN));
+    }
+
+    /**
+     * The JFR API ({@code jdk.jfr}) is used via reflection because the tests are compiled for Java 8.
+     */
+    @Test
+    void recordEvents() throws Exception {
+        assumeTrue(JfrEvents.isEnabled(), "JFR events require Java 11+");
+
+        new PluginJar.Builder(pluginsPath.resolve("my-plugin.jar"), "myPlugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .extension(TestExtension.class.getName())
+            .build();
+
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        for (String eventName : EVENT_NAMES) {
+            recordingClass.getMethod("enable", String.class).invoke(recording, eventName);
+        }
+        recordingClass.getMethod("start").invoke(recording);
+
+        PluginManager pluginManager = new DefaultPluginManager(pluginsPath);
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        List<TestExtensionPoint> extensions = pluginManager.getExtensions(TestExtensionPoint.class, "myPlugin");
+        assertEquals(1, extensions.size());
+        pluginManager.stopPlugins();
+        pluginManager.unloadPlugins();
+
+        recordingClass.getMethod("stop").invoke(recording);
+        Path recordingFile = pluginsPath.resolve("recording.jfr");
+        recordingClass.getMethod("dump", Path.class).invoke(recording, recordingFile);
+        recordingClass.getMethod("close").invoke(recording);
+
+        // event name -> plugin id
+        Map<String, String> events = new HashMap<>();
+        List<?> recordedEvents = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+            .getMethod("readAllEvents", Path.class)
+            .invoke(null, recordingFile);
+        for (Object recordedEvent : recordedEvents) {
+            Object eventType = recordedEvent.getClass().getMethod("getEventType").invoke(recordedEvent);
+            String eventName = (String) eventType.getClass().getMethod("getName").invoke(eventType);
+            String pluginId = (String) recordedEvent.getClass().getMethod("getString", String.class).invoke(recordedEvent, "pluginId");
+            events.put(eventName, pluginId);
+        }
+
+        for (String eventName : EVENT_NAMES) {
+            assertTrue(events.containsKey(eventName), eventName);
+        }
+        assertEquals("myPlugin", events.get("org.pf4j.LoadPlugin"));
+        assertEquals("myPlugin", events.get("org.pf4j.StartPlugin"));
+        assertEquals("myPlugin", events.get("org.pf4j.CreateExtension"));
+    }
+
+}
@@ -23,7 +23,11 @@ import org.pf4j.test.PluginZip;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -32,7 +36,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -167,6 +173,44 @@ public class LoadPluginsTest {
         assertNotNull(pluginManager.loadPlugin(pluginZip.unzippedPath()));
     }
 
+    @Test
+    public void lookupWhileLoadingAndUnloading() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            new PluginZip.Builder(pluginsPath.resolve("my-plugin-" + i + "-1.2.3.zip"), "myPlugin" + i)
+                .pluginVersion("1.2.3")
+                .build();
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread lookup = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    for (PluginWrapper plugin : pluginManager.getPlugins()) {
+                        assertNotNull(plugin.getPluginId());
+                        pluginManager.getPluginClassLoader(plugin.getPluginId());
+                    }
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        lookup.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                pluginManager.loadPlugins();
+                assertEquals(10, pluginManager.getResolvedPlugins().size());
+                pluginManager.unloadPlugins();
+            }
+        } finally {
+            done.set(true);
+            lookup.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(pluginManager.getPlugins().isEmpty());
+    }
+
     @Test
     public void upgrade() throws Exception {
         String pluginId = "myPlugin";
@@ -196,6 +240,171 @@ public class LoadPluginsTest {
         assertEquals("2.0.0", pluginManager.getStartedPlugins().get(0).getDescriptor().getVersion());
     }
 
+    @Test
+    public void reload() throws Exception {
+        String pluginId = "myPlugin";
+
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.2.3.zip"), pluginId)
+            .pluginVersion("1.2.3")
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper oldPlugin = pluginManager.getPlugin(pluginId);
+        PluginClassLoader oldClassLoader = (PluginClassLoader) oldPlugin.getPluginClassLoader();
+
+        PluginZip pluginZip2 = new PluginZip.Builder(pluginsPath.resolve("my-plugin-2.0.0.zip"), pluginId)
+            .pluginVersion("2.0.0")
+            .build();
+
+        assertEquals(PluginState.STARTED, pluginManager.reloadPlugin(pluginId, pluginZip2.path()));
+
+        assertEquals(1, pluginManager.getPlugins().size());
+        assertEquals("2.0.0", pluginManager.getPlugin(pluginId).getDescriptor().getVersion());
+        assertEquals(1, pluginManager.getStartedPlugins().size());
+        assertEquals("2.0.0", pluginManager.getStartedPlugins().get(0).getDescriptor().getVersion());
+        assertEquals(PluginState.UNLOADED, oldPlugin.getPluginState());
+        assertTrue(oldClassLoader.isClosed());
+        assertFalse(oldPlugin.retain());
+    }
+
+    @Test
+    public void reloadWaitsForUsages() throws Exception {
+        String pluginId = "myPlugin";
+
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.2.3.zip"), pluginId)
+            .pluginVersion("1.2.3")
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper oldPlugin = pluginManager.getPlugin(pluginId);
+        PluginClassLoader oldClassLoader = (PluginClassLoader) oldPlugin.getPluginClassLoader();
+        assertTrue(oldPlugin.retain());
+
+        PluginZip pluginZip2 = new PluginZip.Builder(pluginsPath.resolve("my-plugin-2.0.0.zip"), pluginId)
+            .pluginVersion("2.0.0")
+            .build();
+
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            oldPlugin.release();
+        });
+        release.start();
+
+        pluginManager.reloadPlugin(pluginId, pluginZip2.path());
+        release.join();
+
+        assertEquals(0, oldPlugin.getUsageCount());
+        assertTrue(oldClassLoader.isClosed());
+        assertEquals("2.0.0", pluginManager.getPlugin(pluginId).getDescriptor().getVersion());
+    }
+
+    @Test
+    public void reloadAfterDrainTimeout() throws Exception {
+        String pluginId = "myPlugin";
+
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.2.3.zip"), pluginId)
+            .pluginVersion("1.2.3")
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.setDrainTimeout(50);
+
+        PluginWrapper oldPlugin = pluginManager.getPlugin(pluginId);
+        assertTrue(oldPlugin.retain());
+
+        pluginManager.reloadPlugin(pluginId);
+
+        assertEquals(1, oldPlugin.getUsageCount());
+        assertEquals(PluginState.UNLOADED, oldPlugin.getPluginState());
+        assertEquals(PluginState.STARTED, pluginManager.getPlugin(pluginId).getPluginState());
+    }
+
+    @Test
+    public void reloadWithDependents() throws Exception {
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.0.0.zip"), "myPlugin")
+            .pluginVersion("1.0.0")
+            .build();
+
+        new PluginZip.Builder(pluginsPath.resolve("other-1.0.0.zip"), "other")
+            .pluginVersion("1.0.0")
+            .pluginDependencies("myPlugin@>=1.0.0")
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper oldDependent = pluginManager.getPlugin("other");
+
+        PluginZip pluginZip2 = new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.1.0.zip"), "myPlugin")
+            .pluginVersion("1.1.0")
+            .build();
+
+        pluginManager.reloadPlugin("myPlugin", pluginZip2.path());
+
+        PluginWrapper newDependent = pluginManager.getPlugin("other");
+        assertNotSame(oldDependent, newDependent);
+        assertEquals(PluginState.UNLOADED, oldDependent.getPluginState());
+        assertEquals(PluginState.STARTED, newDependent.getPluginState());
+        assertEquals("1.1.0", pluginManager.getPlugin("myPlugin").getDescriptor().getVersion());
+        assertEquals(2, pluginManager.getStartedPlugins().size());
+        assertEquals(Arrays.asList("myPlugin", "other"), pluginManager.getResolvedPlugins().stream()
+            .map(PluginWrapper::getPluginId)
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void reloadWithWrongDependencyVersionFails() throws Exception {
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.0.0.zip"), "myPlugin")
+            .pluginVersion("1.0.0")
+            .build();
+
+        new PluginZip.Builder(pluginsPath.resolve("other-1.0.0.zip"), "other")
+            .pluginVersion("1.0.0")
+            .pluginDependencies("myPlugin@<2.0.0")
+            .build();
+
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper oldPlugin = pluginManager.getPlugin("myPlugin");
+
+        PluginZip pluginZip2 = new PluginZip.Builder(pluginsPath.resolve("my-plugin-2.0.0.zip"), "myPlugin")
+            .pluginVersion("2.0.0")
+            .build();
+
+        assertThrows(DependencyResolver.DependenciesWrongVersionException.class,
+            () -> pluginManager.reloadPlugin("myPlugin", pluginZip2.path()));
+
+        assertSame(oldPlugin, pluginManager.getPlugin("myPlugin"));
+        assertEquals(PluginState.STARTED, oldPlugin.getPluginState());
+        assertFalse(((PluginClassLoader) oldPlugin.getPluginClassLoader()).isClosed());
+    }
+
+    @Test
+    public void reloadWithDifferentIdFails() throws Exception {
+        new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.2.3.zip"), "myPlugin")
+            .pluginVersion("1.2.3")
+            .build();
+
+        pluginManager.loadPlugins();
+
+        PluginZip otherZip = new PluginZip.Builder(pluginsPath.resolve("other-3.0.0.zip"), "other")
+            .pluginVersion("3.0.0")
+            .build();
+
+        assertThrows(PluginRuntimeException.class, () -> pluginManager.reloadPlugin("myPlugin", otherZip.path()));
+        assertEquals("1.2.3", pluginManager.getPlugin("myPlugin").getDescriptor().getVersion());
+    }
+
     @Test
     public void getRoot() {
         assertEquals(pluginsPath, pluginManager.getPluginsRoot());
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.pf4j.test.ManifestUtils;
+import org.pf4j.test.PluginJar;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -30,6 +31,7 @@ import java.util.Map;
 import java.util.jar.Manifest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -110,6 +112,36 @@ public class ManifestPluginDescriptorFinderTest {
         assertThrows(PluginRuntimeException.class, () -> descriptorFinder.find(pluginsPath.resolve("test-plugin-3")));
     }
 
+    /**
+     * Test of {@link ManifestPluginDescriptorFinder#hasDescriptor(Path)} method.
+     */
+    @Test
+    public void testHasDescriptor() throws Exception {
+        PluginDescriptorFinder descriptorFinder = new ManifestPluginDescriptorFinder();
+
+        assertTrue(descriptorFinder.hasDescriptor(pluginsPath.resolve("test-plugin-1")));
+        assertFalse(descriptorFinder.hasDescriptor(pluginsPath.resolve("test-plugin-3")));
+
+        PluginJar pluginJar = new PluginJar.Builder(pluginsPath.resolve("my-plugin-1.2.3.jar"), "myPlugin")
+            .pluginVersion("1.2.3")
+            .build();
+        assertTrue(descriptorFinder.hasDescriptor(pluginJar.path()));
+    }
+
+    /**
+     * Test of {@link ManifestPluginDescriptorFinder#find(Path)} method
+     * for a manifest that is not in a known location.
+     */
+    @Test
+    public void testFindInNestedDirectory() throws Exception {
+        Path pluginPath = Files.createDirectories(pluginsPath.resolve("test-plugin-7").resolve("build"));
+        storeManifestToPath(getPlugin2Manifest(), pluginPath);
+
+        PluginDescriptorFinder descriptorFinder = new ManifestPluginDescriptorFinder();
+        PluginDescriptor plugin = descriptorFinder.find(pluginsPath.resolve("test-plugin-7"));
+        assertEquals("test-plugin-2", plugin.getPluginId());
+    }
+
     private Manifest getPlugin1Manifest() {
         Map<String, String> map = new LinkedHashMap<>(8);
         map.put(ManifestPluginDescriptorFinder.PLUGIN_ID, "test-plugin-1");
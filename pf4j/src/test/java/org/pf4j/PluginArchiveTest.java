@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestPlugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginArchiveTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    private final PluginArchiveRegistry registry = new PluginArchiveRegistry();
+
+    @Test
+    void sharedWhileOpen() throws IOException {
+        PluginJar pluginJar = createPluginJar();
+
+        assertNull(registry.get(pluginJar.path()));
+
+        PluginArchive archive = registry.acquire(pluginJar.path());
+        assertSame(archive, registry.acquire(pluginJar.path()));
+        assertSame(archive, registry.get(pluginJar.path()));
+        assertTrue(archive.containsEntry(JarFile.MANIFEST_NAME));
+        assertNull(archive.getInputStream("missing.txt"));
+
+        try (InputStream input = archive.getInputStream(JarFile.MANIFEST_NAME)) {
+            Manifest manifest = new Manifest(input);
+            assertEquals("myPlugin", manifest.getMainAttributes().getValue(ManifestPluginDescriptorFinder.PLUGIN_ID));
+        }
+    }
+
+    @Test
+    void closedWhenReleased() throws IOException {
+        PluginJar pluginJar = createPluginJar();
+        PluginArchive archive = registry.acquire(pluginJar.path());
+        registry.acquire(pluginJar.path());
+
+        archive.close();
+        assertSame(archive, registry.get(pluginJar.path()));
+        assertFalse(archive.getZipArchive().isClosed());
+
+        archive.close();
+        assertNull(registry.get(pluginJar.path()));
+        assertEquals(0, registry.size());
+        assertTrue(archive.getZipArchive().isClosed());
+        assertThrows(ZipException.class, () -> archive.getInputStream(JarFile.MANIFEST_NAME));
+
+        Files.delete(pluginJar.path());
+    }
+
+    @Test
+    void reopenedWhenModified() throws IOException {
+        PluginJar pluginJar = createPluginJar();
+        PluginArchive archive = registry.acquire(pluginJar.path());
+
+        Files.setLastModifiedTime(pluginJar.path(), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        assertNull(registry.get(pluginJar.path()));
+        PluginArchive newArchive = registry.acquire(pluginJar.path());
+        assertNotSame(archive, newArchive);
+
+        // the previous version stays open until it's released
+        assertFalse(archive.getZipArchive().isClosed());
+        archive.close();
+        assertTrue(archive.getZipArchive().isClosed());
+        assertSame(newArchive, registry.get(pluginJar.path()));
+    }
+
+    @Test
+    void jarPluginLoaderWithIndexedJar() throws IOException {
+        PluginJar pluginJar = createPluginJar();
+        PluginManager pluginManager = new JarPluginManager(pluginsPath);
+        PluginDescriptor pluginDescriptor = new ManifestPluginDescriptorFinder().find(pluginJar.path());
+
+        JarPluginLoader pluginLoader = new JarPluginLoader(pluginManager);
+        pluginLoader.setIndexedJars(true);
+        pluginLoader.setPluginArchiveRegistry(registry);
+        PluginClassLoader pluginClassLoader = (PluginClassLoader) pluginLoader.loadPlugin(pluginJar.path(), pluginDescriptor);
+        try {
+            URL manifestUrl = pluginClassLoader.findResource(JarFile.MANIFEST_NAME);
+            assertNotNull(manifestUrl);
+            assertEquals(ArchiveClassPath.PROTOCOL, manifestUrl.getProtocol());
+            assertEquals(1, registry.size());
+        } finally {
+            pluginClassLoader.close();
+        }
+
+        // the class loader released the archive
+        assertEquals(0, registry.size());
+    }
+
+    private PluginJar createPluginJar() throws IOException {
+        return new PluginJar.Builder(pluginsPath.resolve("my-plugin.jar"), "myPlugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .build();
+    }
+
+}
@@ -43,10 +43,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -459,6 +463,85 @@ class PluginClassLoaderTest {
         assertFalse(customClassLoader.shouldDelegateToParent("org.pf4j.test.TestExtension"));
     }
 
+    @Test
+    void getResourceIsCached() throws IOException, URISyntaxException {
+        String name = "META-INF/added-file";
+        assertNull(parentLastPluginClassLoader.getResource(name));
+
+        Path classesPath = pluginsPath.resolve("added-classes");
+        Files.createDirectories(classesPath.resolve("META-INF"));
+        Files.write(classesPath.resolve(name), "added".getBytes());
+        assertNull(parentLastPluginClassLoader.getResource(name));
+        assertFalse(parentLastPluginClassLoader.getResources(name).hasMoreElements());
+
+        // the search path changed
+        parentLastPluginClassLoader.addFile(classesPath.toFile());
+        assertFirstLine("added", parentLastPluginClassLoader.getResource(name));
+        assertEquals(1, Collections.list(parentLastPluginClassLoader.getResources(name)).size());
+    }
+
+    @Test
+    void dependencyChangedClearsResourceCache() throws IOException, URISyntaxException {
+        String name = "META-INF/added-dependency-file";
+        assertNull(parentLastPluginClassLoader.getResource(name));
+
+        Files.write(pluginDependencyZip.unzippedPath().resolve("classes").resolve(name), "dependency".getBytes());
+        parentLastPluginClassLoader.dependencyChanged("otherPlugin");
+        assertNull(parentLastPluginClassLoader.getResource(name));
+
+        parentLastPluginClassLoader.dependencyChanged(pluginDependencyDescriptor.getPluginId());
+        assertFirstLine("dependency", parentLastPluginClassLoader.getResource(name));
+    }
+
+    @Test
+    void getResourcesWithoutDuplicates() throws IOException {
+        // the plugin and its dependency share the same classes directory
+        parentLastPluginClassLoader.addFile(pluginDependencyZip.unzippedPath().resolve("classes").toFile());
+
+        List<URL> resources = Collections.list(parentLastPluginClassLoader.getResources("META-INF/dependency-file"));
+        assertEquals(1, resources.size());
+    }
+
+    @Test
+    void getDependencyClassLoadersIsCached() {
+        ClassLoader[] classLoaders = parentLastPluginClassLoader.getDependencyClassLoaders();
+        assertArrayEquals(new ClassLoader[] { parentLastPluginDependencyClassLoader }, classLoaders);
+        assertSame(classLoaders, parentLastPluginClassLoader.getDependencyClassLoaders());
+
+        parentLastPluginClassLoader.dependencyChanged(pluginDependencyDescriptor.getPluginId());
+        assertNotSame(classLoaders, parentLastPluginClassLoader.getDependencyClassLoaders());
+    }
+
+    @Test
+    void getDependencyClassLoadersWithMissingDependencies() {
+        pluginDescriptor.setDependencies("myDependency, missingOptionalDependency?");
+        PluginClassLoader classLoader = new PluginClassLoader(pluginManager, pluginDescriptor, PluginClassLoaderTest.class.getClassLoader());
+        ClassLoader[] classLoaders = classLoader.getDependencyClassLoaders();
+        assertArrayEquals(new ClassLoader[] { parentLastPluginDependencyClassLoader }, classLoaders);
+        assertSame(classLoaders, classLoader.getDependencyClassLoaders());
+
+        pluginDescriptor.setDependencies("myDependency, missingDependency");
+        classLoader = new PluginClassLoader(pluginManager, pluginDescriptor, PluginClassLoaderTest.class.getClassLoader());
+        classLoaders = classLoader.getDependencyClassLoaders();
+        assertArrayEquals(new ClassLoader[] { parentLastPluginDependencyClassLoader }, classLoaders);
+        // not cached while a required dependency is missing
+        assertNotSame(classLoaders, classLoader.getDependencyClassLoaders());
+    }
+
+    @Test
+    void delegationPolicy() throws ClassNotFoundException {
+        PluginClassLoader classLoader = new PluginClassLoader(pluginManager, pluginDependencyDescriptor, PluginClassLoaderTest.class.getClassLoader());
+        classLoader.addFile(pluginDependencyZip.unzippedPath().resolve("classes").toFile());
+        assertEquals(classLoader, classLoader.loadClass(JavaSources.GREETING_CLASS_NAME).getClassLoader());
+
+        PluginClassLoader parentClassLoader = new PluginClassLoader(pluginManager, pluginDependencyDescriptor, PluginClassLoaderTest.class.getClassLoader());
+        parentClassLoader.addFile(pluginDependencyZip.unzippedPath().resolve("classes").toFile());
+        parentClassLoader.setDelegationPolicy(DelegationPolicy.builder().parent("test").build());
+        assertTrue(parentClassLoader.shouldDelegateToParent(JavaSources.GREETING_CLASS_NAME));
+        // not in the parent
+        assertThrows(ClassNotFoundException.class, () -> parentClassLoader.loadClass(JavaSources.GREETING_CLASS_NAME));
+    }
+
     static class TestPluginManager extends DefaultPluginManager {
 
         public TestPluginManager(Path pluginsPath) {
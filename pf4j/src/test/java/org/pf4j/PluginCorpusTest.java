@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginCorpus;
+import org.pf4j.test.TestExtensionPoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginCorpusTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void dependencyGraph() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(12)
+            .depth(3)
+            .fanOut(2)
+            .optionalDependencyCount(1)
+            .build();
+
+        assertEquals(12, corpus.pluginIds().size());
+        // the first layer (plugin-0..plugin-3) has no dependencies
+        assertTrue(corpus.dependencies("plugin-0").isEmpty());
+        assertTrue(corpus.optionalDependencies("plugin-3").isEmpty());
+        for (int i = 4; i < 12; i++) {
+            String pluginId = "plugin-" + i;
+            List<String> dependencies = corpus.dependencies(pluginId);
+            assertEquals(2, dependencies.size());
+            // the dependencies are in the previous layer
+            int layerStart = (i < 8) ? 0 : 4;
+            for (String dependency : dependencies) {
+                int index = Integer.parseInt(dependency.substring("plugin-".length()));
+                assertTrue(index >= layerStart && index < layerStart + 4, dependency);
+            }
+            assertEquals(1, corpus.optionalDependencies(pluginId).size());
+            assertFalse(dependencies.contains(corpus.optionalDependencies(pluginId).get(0)));
+        }
+    }
+
+    @Test
+    void sameSeedSameCorpus() throws IOException {
+        PluginCorpus.Builder builder = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(20)
+            .depth(4)
+            .fanOut(3)
+            .seed(42);
+        PluginCorpus corpus = builder.build();
+        PluginCorpus otherCorpus = builder.build();
+
+        for (String pluginId : corpus.pluginIds()) {
+            assertEquals(corpus.dependencies(pluginId), otherCorpus.dependencies(pluginId));
+        }
+    }
+
+    @Test
+    void loadJarCorpus() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(10)
+            .depth(3)
+            .fanOut(2)
+            .optionalDependencyCount(1)
+            .extensionCount(3)
+            .resourceSize(10_000)
+            .build();
+
+        assertTrue(Files.size(corpus.pluginPath("plugin-0")) > 10_000);
+        assertLoaded(corpus);
+    }
+
+    @Test
+    void loadZipCorpus() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(5)
+            .depth(2)
+            .extensionCount(2)
+            .resourceSize(1_000)
+            .format(PluginCorpus.Format.ZIP)
+            .build();
+
+        assertTrue(corpus.pluginPath("plugin-0").toString().endsWith(".zip"));
+        assertLoaded(corpus);
+    }
+
+    @Test
+    void loadDirectoryCorpus() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(5)
+            .depth(2)
+            .extensionCount(2)
+            .format(PluginCorpus.Format.DIRECTORY)
+            .build();
+
+        assertTrue(Files.isDirectory(corpus.pluginPath("plugin-0")));
+        assertLoaded(corpus);
+    }
+
+    private static void assertLoaded(PluginCorpus corpus) {
+        PluginManager pluginManager = new DefaultPluginManager(corpus.path());
+        try {
+            pluginManager.loadPlugins();
+            pluginManager.startPlugins();
+
+            assertEquals(corpus.pluginIds().size(), pluginManager.getStartedPlugins().size());
+            List<TestExtensionPoint> extensions = pluginManager.getExtensions(TestExtensionPoint.class);
+            assertEquals(corpus.extensionCount(), extensions.size());
+        } finally {
+            pluginManager.unloadPlugins();
+        }
+    }
+
+}
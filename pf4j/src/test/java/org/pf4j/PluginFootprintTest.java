@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginCorpus;
+import org.pf4j.test.TestExtensionPoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PluginFootprintTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void jarPlugin() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(1)
+            .extensionCount(3)
+            .build();
+
+        PluginManager pluginManager = createPluginManager(corpus.path());
+        try {
+            pluginManager.loadPlugins();
+            pluginManager.startPlugins();
+            assertEquals(0, pluginManager.getPluginFootprints().get(0).getLoadedClassCount());
+
+            pluginManager.getExtensions(TestExtensionPoint.class);
+
+            List<PluginFootprint> footprints = pluginManager.getPluginFootprints();
+            assertEquals(1, footprints.size());
+            PluginFootprint footprint = footprints.get(0);
+            assertEquals("plugin-0", footprint.getPluginId());
+            assertEquals(3, footprint.getLoadedClassCount());
+            // the sizes of the class files in a jar are unknown
+            assertEquals(3 * PluginClassLoader.ESTIMATED_CLASS_SIZE, footprint.getApproximateMetaspaceSize());
+            assertEquals(3, footprint.getExtensionInstanceCount());
+        } finally {
+            pluginManager.unloadPlugins();
+        }
+    }
+
+    @Test
+    void directoryPlugin() throws IOException {
+        PluginCorpus corpus = new PluginCorpus.Builder(pluginsPath)
+            .pluginCount(1)
+            .extensionCount(2)
+            .format(PluginCorpus.Format.DIRECTORY)
+            .build();
+
+        PluginManager pluginManager = createPluginManager(corpus.path());
+        try {
+            pluginManager.loadPlugins();
+            pluginManager.startPlugins();
+            pluginManager.getExtensions(TestExtensionPoint.class);
+
+            long classFilesSize = 0;
+            for (String extension : corpus.extensions("plugin-0")) {
+                classFilesSize += Files.size(corpus.pluginPath("plugin-0")
+                    .resolve("classes").resolve(extension.replace('.', '/') + ".class"));
+            }
+
+            PluginFootprint footprint = pluginManager.getPluginFootprints().get(0);
+            assertEquals(2, footprint.getLoadedClassCount());
+            assertEquals(classFilesSize, footprint.getApproximateMetaspaceSize());
+        } finally {
+            pluginManager.unloadPlugins();
+        }
+    }
+
+    @Test
+    void notLoadedPlugin() {
+        DefaultPluginManager pluginManager = new DefaultPluginManager(pluginsPath);
+
+        assertThrows(PluginNotFoundException.class, () -> pluginManager.getPluginFootprint("plugin-0"));
+    }
+
+    private static PluginManager createPluginManager(Path pluginsPath) {
+        return new DefaultPluginManager(pluginsPath) {
+
+            @Override
+            protected ExtensionFactory createExtensionFactory() {
+                return new SingletonExtensionFactory(this);
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.TestPlugin;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginStartupReportTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    @Test
+    void report() {
+        PluginTimings fast = new PluginTimings("fast");
+        fast.setStartTime(Duration.ofMillis(1).toNanos());
+        fast.setResolveTime(Duration.ofMillis(10).toNanos());
+        PluginTimings slow = new PluginTimings("slow");
+        slow.setDescriptorTime(Duration.ofMillis(2).toNanos());
+        slow.setStartTime(Duration.ofMillis(30).toNanos());
+        slow.setResolveTime(Duration.ofMillis(10).toNanos());
+
+        PluginStartupReport report = new PluginStartupReport(Arrays.asList(fast, slow));
+        assertEquals(Arrays.asList("slow", "fast"), pluginIds(report.getPlugins()));
+        assertEquals(Duration.ofMillis(42), report.getPlugin("slow").getTotalTime());
+        assertNull(report.getPlugin("other"));
+        // the resolution pass is shared, so it's counted once
+        assertEquals(Duration.ofMillis(43), report.getTotalTime());
+        assertEquals("2 plugins in 43.0 ms (slowest: slow 42.0 ms, fast 11.0 ms)", report.getSummary());
+
+        // a report is a snapshot
+        slow.setStartTime(0);
+        assertEquals(Duration.ofMillis(42), report.getPlugin("slow").getTotalTime());
+
+        assertEquals("0 plugins in 0.0 ms", PluginStartupReport.empty().getSummary());
+    }
+
+    @Test
+    void pluginManagerReport() throws Exception {
+        new PluginJar.Builder(pluginsPath.resolve("my-plugin.jar"), "myPlugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .build();
+
+        PluginManager pluginManager = new DefaultPluginManager(pluginsPath);
+        pluginManager.loadPlugins();
+
+        PluginTimings timings = pluginManager.getStartupReport().getPlugin("myPlugin");
+        assertNotNull(timings);
+        assertFalse(timings.getDescriptorTime().isZero());
+        assertFalse(timings.getClassLoaderTime().isZero());
+        assertFalse(timings.getResolveTime().isZero());
+        assertTrue(timings.getStartTime().isZero());
+
+        pluginManager.startPlugins();
+        timings = pluginManager.getStartupReport().getPlugin("myPlugin");
+        assertFalse(timings.getInstantiationTime().isZero());
+        assertFalse(timings.getStartTime().isZero());
+
+        pluginManager.unloadPlugin("myPlugin");
+        assertTrue(pluginManager.getStartupReport().getPlugins().isEmpty());
+    }
+
+    private static List<String> pluginIds(List<PluginTimings> timings) {
+        return timings.stream().map(PluginTimings::getPluginId).collect(Collectors.toList());
+    }
+
+}
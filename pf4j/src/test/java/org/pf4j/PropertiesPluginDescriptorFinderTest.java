@@ -19,6 +19,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.pf4j.test.TestPlugin;
+import org.pf4j.test.PluginZip;
 import org.pf4j.test.PropertiesUtils;
 
 import java.io.FileOutputStream;
@@ -28,12 +29,14 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -107,6 +110,38 @@ public class PropertiesPluginDescriptorFinderTest {
         assertThrows(PluginRuntimeException.class, () -> descriptorFinder.find(pluginsPath.resolve("test-plugin-3")));
     }
 
+    @Test
+    public void findInSharedArchive() throws Exception {
+        PluginZip pluginZip = new PluginZip.Builder(pluginsPath.resolve("my-plugin-1.2.3.zip"), "myPlugin")
+            .pluginVersion("1.2.3")
+            .addFile(Paths.get("custom", PropertiesPluginDescriptorFinder.DEFAULT_PROPERTIES_FILE_NAME),
+                PropertiesPluginDescriptorFinder.PLUGIN_ID + "=customPlugin\n")
+            .build();
+
+        // the archive opened by the plugin manager while the plugin is loaded
+        PluginArchiveRegistry registry = new PluginArchiveRegistry();
+        PluginArchive archive = registry.acquire(pluginZip.path());
+        assertSame(archive, registry.get(pluginZip.path()));
+
+        PropertiesPluginDescriptorFinder sharedDescriptorFinder = new PropertiesPluginDescriptorFinder();
+        sharedDescriptorFinder.setPluginArchiveRegistry(registry);
+        assertEquals("myPlugin", sharedDescriptorFinder.find(pluginZip.path()).getPluginId());
+
+        // a finder that relocates the properties file
+        PropertiesPluginDescriptorFinder descriptorFinder = new PropertiesPluginDescriptorFinder() {
+
+            @Override
+            protected Path getPropertiesPath(Path pluginPath, String propertiesFileName) {
+                return super.getPropertiesPath(pluginPath, "custom/" + propertiesFileName);
+            }
+
+        };
+        descriptorFinder.setPluginArchiveRegistry(registry);
+        assertEquals("customPlugin", descriptorFinder.find(pluginZip.path()).getPluginId());
+
+        archive.close();
+    }
+
     private Properties getPlugin1Properties() {
         Map<String, String> map = new LinkedHashMap<>(8);
         map.put(PropertiesPluginDescriptorFinder.PLUGIN_ID, "test-plugin-1");
@@ -26,9 +26,11 @@ import org.pf4j.test.TestPlugin;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -146,6 +148,21 @@ public class SecurePluginManagerWrapperTest {
         assertEquals(1, wrappedPluginManager.getExtensions(THIS_PLUGIN_ID).size());
     }
 
+    @Test
+    public void acquireExtensions() {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        PluginWrapper plugin = pluginManager.getPlugin(THIS_PLUGIN_ID);
+        List<ExtensionLease<TestExtensionPoint>> leases = wrappedPluginManager.acquireExtensions(TestExtensionPoint.class);
+        assertEquals(1, leases.size());
+        assertSame(plugin, leases.get(0).getPlugin());
+        assertEquals(1, plugin.getUsageCount());
+
+        leases.get(0).close();
+        assertEquals(0, plugin.getUsageCount());
+    }
+
     @Test
     public void getPlugin() {
         pluginManager.loadPlugins();
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.JavaFileObjectUtils;
+import org.pf4j.test.JavaSources;
+
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedLibraryRegistryTest {
+
+    @TempDir
+    Path pluginsPath;
+
+    private SharedLibraryRegistry registry;
+    private DefaultPluginLoader pluginLoader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        createPlugin("plugin1", false);
+        createPlugin("plugin2", false);
+        createPlugin("plugin3", true);
+
+        registry = new SharedLibraryRegistry(getClass().getClassLoader(), Arrays.asList("greeting.jar", "whazzup.jar"));
+        pluginLoader = new DefaultPluginLoader(new DefaultPluginManager(pluginsPath));
+        pluginLoader.setSharedLibraryRegistry(registry);
+    }
+
+    @Test
+    void shareIdenticalJars() throws Exception {
+        PluginClassLoader classLoader1 = loadPlugin("plugin1");
+        PluginClassLoader classLoader2 = loadPlugin("plugin2");
+        assertEquals(1, registry.size());
+
+        Class<?> greeting1 = classLoader1.loadClass(JavaSources.GREETING_CLASS_NAME);
+        Class<?> greeting2 = classLoader2.loadClass(JavaSources.GREETING_CLASS_NAME);
+        assertSame(greeting1, greeting2);
+        assertTrue(greeting1.getClassLoader() instanceof SharedLibraryClassLoader);
+        assertEquals(2, ((SharedLibraryClassLoader) greeting1.getClassLoader()).getUsageCount());
+
+        PluginClassLoader classLoader3 = loadPlugin("plugin3");
+        assertEquals(2, registry.size());
+        assertNotSame(greeting1, classLoader3.loadClass(JavaSources.GREETING_CLASS_NAME));
+
+        classLoader1.close();
+        classLoader2.close();
+        assertEquals(1, registry.size());
+        classLoader3.close();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void filter() throws Exception {
+        registry = new SharedLibraryRegistry(getClass().getClassLoader(), file -> !file.getName().startsWith("greeting"));
+        pluginLoader.setSharedLibraryRegistry(registry);
+
+        try (PluginClassLoader classLoader = loadPlugin("plugin1")) {
+            assertEquals(0, registry.size());
+            assertSame(classLoader, classLoader.loadClass(JavaSources.GREETING_CLASS_NAME).getClassLoader());
+        }
+    }
+
+    @Test
+    void shareListedJarsOnly() throws Exception {
+        // a jar that is not listed doesn't prevent the sharing of the listed jars
+        createJar(pluginsPath.resolve("plugin2/lib/other.jar"), "other.txt", "other".getBytes());
+
+        try (PluginClassLoader classLoader1 = loadPlugin("plugin1"); PluginClassLoader classLoader2 = loadPlugin("plugin2")) {
+            assertEquals(1, registry.size());
+            assertSame(classLoader1.loadClass(JavaSources.GREETING_CLASS_NAME), classLoader2.loadClass(JavaSources.GREETING_CLASS_NAME));
+        }
+    }
+
+    @Test
+    void shareDependentJars() throws Exception {
+        List<JavaFileObject> classes = JavaSources.compileAll(JavaSources.GREETING, JavaSources.WHAZZUP_GREETING);
+        for (String pluginId : new String[] { "plugin4", "plugin5" }) {
+            Path libPath = Files.createDirectories(pluginsPath.resolve(pluginId).resolve("lib"));
+            // the implementation and its interface in two jars
+            createJar(libPath.resolve("greeting.jar"), "test/Greeting.class", getClassBytes(classes, "Greeting"));
+            createJar(libPath.resolve("whazzup.jar"), "test/WhazzupGreeting.class", getClassBytes(classes, "WhazzupGreeting"));
+        }
+
+        try (PluginClassLoader classLoader4 = loadPlugin("plugin4"); PluginClassLoader classLoader5 = loadPlugin("plugin5")) {
+            assertEquals(1, registry.size());
+
+            Class<?> whazzup = classLoader4.loadClass(JavaSources.WHAZZUP_GREETING_CLASS_NAME);
+            assertSame(whazzup, classLoader5.loadClass(JavaSources.WHAZZUP_GREETING_CLASS_NAME));
+            assertSame(whazzup.getClassLoader(), whazzup.getInterfaces()[0].getClassLoader());
+            assertSame(whazzup.getInterfaces()[0], classLoader4.loadClass(JavaSources.GREETING_CLASS_NAME));
+        }
+    }
+
+    @Test
+    void delegationPolicy() throws Exception {
+        registry.setDelegationPolicy(DelegationPolicy.builder().parent("test").build());
+
+        SharedLibraryClassLoader sharedClassLoader = registry.acquire(pluginsPath.resolve("plugin1/lib/greeting.jar"));
+        // delegated to the parent class loader, that doesn't contain the class
+        assertThrows(ClassNotFoundException.class, () -> sharedClassLoader.loadClass(JavaSources.GREETING_CLASS_NAME));
+        sharedClassLoader.release();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void findResources() throws Exception {
+        try (PluginClassLoader classLoader = loadPlugin("plugin1")) {
+            assertEquals(1, Collections.list(classLoader.findResources("test/Greeting.class")).size());
+            assertNull(classLoader.findResource("missing.txt"));
+        }
+    }
+
+    private PluginClassLoader loadPlugin(String pluginId) {
+        PluginDescriptor pluginDescriptor = new DefaultPluginDescriptor(pluginId, "", null, "1.0.0", "", "", "");
+
+        return (PluginClassLoader) pluginLoader.loadPlugin(pluginsPath.resolve(pluginId), pluginDescriptor);
+    }
+
+    private static byte[] getClassBytes(List<JavaFileObject> classes, String simpleName) {
+        return classes.stream()
+            .filter(c -> c.getName().endsWith("/" + simpleName + ".class"))
+            .map(JavaFileObjectUtils::getAllBytes)
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    }
+
+    private static void createJar(Path jar, String entryName, byte[] content) throws IOException {
+        try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jar))) {
+            jarOutputStream.putNextEntry(new JarEntry(entryName));
+            jarOutputStream.write(content);
+            jarOutputStream.closeEntry();
+        }
+    }
+
+    private void createPlugin(String pluginId, boolean extraEntry) throws IOException {
+        Path libPath = Files.createDirectories(pluginsPath.resolve(pluginId).resolve("lib"));
+        try (OutputStream outputStream = Files.newOutputStream(libPath.resolve("greeting.jar"));
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            JarEntry entry = new JarEntry("test/Greeting.class");
+            entry.setTime(0);
+            jarOutputStream.putNextEntry(entry);
+            jarOutputStream.write(JavaFileObjectUtils.getAllBytes(JavaSources.compile(JavaSources.GREETING)));
+            jarOutputStream.closeEntry();
+            if (extraEntry) {
+                jarOutputStream.putNextEntry(new JarEntry("extra.txt"));
+                jarOutputStream.closeEntry();
+            }
+        }
+    }
+
+}
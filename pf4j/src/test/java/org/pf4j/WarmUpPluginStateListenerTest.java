@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.JavaFileObjectUtils;
+import org.pf4j.test.JavaSources;
+import org.pf4j.test.PluginZip;
+import org.pf4j.test.TestPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WarmUpPluginStateListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DefaultPluginManager pluginManager;
+    private WarmUpPluginStateListener warmUpListener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pluginsPath = Files.createDirectories(tempDir.resolve("plugins"));
+        new PluginZip.Builder(pluginsPath.resolve("test-plugin.zip"), "test-plugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .addFile(Paths.get("classes", "test", "Greeting.class"),
+                JavaFileObjectUtils.getAllBytes(JavaSources.compile(JavaSources.GREETING)))
+            .addFile(Paths.get("classes", "META-INF", "pf4j", "warm-up.classlist"),
+                "# classes to warm up\ntest/Greeting\ntest.Missing\n")
+            .build();
+
+        pluginManager = new DefaultPluginManager(pluginsPath);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pluginManager.unloadPlugins();
+        if (warmUpListener != null) {
+            warmUpListener.close();
+        }
+    }
+
+    @Test
+    void warmUpDeclaredClasses() throws Exception {
+        warmUpListener = new WarmUpPluginStateListener();
+        pluginManager.addPluginStateListener(warmUpListener);
+        pluginManager.loadPlugins();
+        assertNull(warmUpListener.getWarmUp("test-plugin"));
+
+        PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader("test-plugin");
+        classLoader.setRecordingLoadedClasses(true);
+        pluginManager.startPlugins();
+        assertEquals(1, warmUpListener.getWarmUp("test-plugin").get(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(JavaSources.GREETING_CLASS_NAME), classLoader.getRecordedClassNames());
+
+        pluginManager.stopPlugin("test-plugin");
+        assertNull(warmUpListener.getWarmUp("test-plugin"));
+    }
+
+    @Test
+    void warmUpReloadedPlugin() throws Exception {
+        warmUpListener = new WarmUpPluginStateListener();
+        pluginManager.addPluginStateListener(warmUpListener);
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        assertEquals(1, warmUpListener.getWarmUp("test-plugin").get(10, TimeUnit.SECONDS));
+
+        // the old version is stopped after the new version is started
+        pluginManager.reloadPlugin("test-plugin", pluginManager.getPlugin("test-plugin").getPluginPath());
+        assertNotNull(warmUpListener.getWarmUp("test-plugin"));
+        assertEquals(1, warmUpListener.getWarmUp("test-plugin").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void warmUpRecordedClasses() throws Exception {
+        ClassListStore classListStore = new ClassListStore(tempDir.resolve("classlists"));
+        pluginManager.setClassListStore(classListStore);
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        pluginManager.getPluginClassLoader("test-plugin").loadClass(JavaSources.GREETING_CLASS_NAME);
+        pluginManager.writeClassLists();
+        pluginManager.unloadPlugins();
+
+        warmUpListener = new WarmUpPluginStateListener(classListStore, 2);
+        pluginManager.addPluginStateListener(warmUpListener);
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+        // the declared and the recorded classes are merged
+        assertEquals(1, warmUpListener.getWarmUp("test-plugin").get(10, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pf4j.test.PluginJar;
+import org.pf4j.test.PluginZip;
+import org.pf4j.test.TestExtension;
+import org.pf4j.test.TestExtensionPoint;
+import org.pf4j.test.TestPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipPluginLoaderTest {
+
+    private PluginZip pluginZip;
+    private DefaultPluginManager pluginManager;
+
+    @TempDir
+    Path pluginsPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        PluginJar pluginJar = new PluginJar.Builder(pluginsPath.resolve("test-plugin.jar"), "test-plugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .extension(TestExtension.class.getName())
+            .build();
+        byte[] jar = Files.readAllBytes(pluginJar.path());
+        Files.delete(pluginJar.path());
+
+        pluginZip = new PluginZip.Builder(pluginsPath.resolve("test-plugin.zip"), "test-plugin")
+            .pluginClass(TestPlugin.class.getName())
+            .pluginVersion("1.2.3")
+            .addFile(Paths.get("lib", "test-plugin.jar"), jar)
+            .addFile(Paths.get("classes", "test.txt"), "test")
+            .build();
+
+        pluginManager = new DefaultPluginManager(pluginsPath) {
+
+            @Override
+            protected boolean isExpandZip() {
+                return false;
+            }
+
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        pluginManager.unloadPlugins();
+    }
+
+    @Test
+    void isApplicable() {
+        ZipPluginLoader pluginLoader = new ZipPluginLoader(pluginManager);
+        assertTrue(pluginLoader.isApplicable(pluginZip.path()));
+        assertFalse(pluginLoader.isApplicable(pluginsPath));
+    }
+
+    @Test
+    void loadPluginWithoutExtraction() {
+        pluginManager.loadPlugins();
+        pluginManager.startPlugins();
+
+        assertFalse(Files.exists(pluginZip.unzippedPath()));
+
+        PluginWrapper plugin = pluginManager.getPlugin(pluginZip.pluginId());
+        assertNotNull(plugin);
+        assertEquals(PluginState.STARTED, plugin.getPluginState());
+        assertEquals(TestPlugin.class.getName(), plugin.getPlugin().getClass().getName());
+
+        List<TestExtensionPoint> extensions = pluginManager.getExtensions(TestExtensionPoint.class);
+        assertEquals(1, extensions.size());
+        assertEquals(new TestExtension().saySomething(), extensions.get(0).saySomething());
+    }
+
+    @Test
+    void getResources() throws IOException {
+        pluginManager.loadPlugins();
+
+        PluginClassLoader classLoader = (PluginClassLoader) pluginManager.getPluginClassLoader(pluginZip.pluginId());
+        URL resource = classLoader.getResource("test.txt");
+        assertNotNull(resource);
+        assertEquals(ArchiveClassPath.PROTOCOL, resource.getProtocol());
+        try (InputStream input = resource.openStream()) {
+            assertEquals("test", new String(readAll(input)));
+        }
+
+        URL classResource = classLoader.findResource(TestExtension.class.getName().replace('.', '/') + ".class");
+        assertNotNull(classResource);
+        assertTrue(classResource.toString().endsWith("test-plugin.zip!/lib/test-plugin.jar!/org/pf4j/test/TestExtension.class"));
+    }
+
+    @Test
+    void deleteZipAfterUnload() throws IOException {
+        pluginManager.loadPlugins();
+        assertEquals(1, pluginManager.getPluginArchiveRegistry().size());
+        URL resource = pluginManager.getPluginClassLoader(pluginZip.pluginId()).getResource("test.txt");
+        assertNotNull(resource);
+
+        assertTrue(pluginManager.unloadPlugin(pluginZip.pluginId()));
+        assertEquals(0, pluginManager.getPluginArchiveRegistry().size());
+        // the zip file is closed (unmapped), so it can be deleted (on Windows too)
+        assertThrows(IOException.class, resource::openStream);
+
+        Files.delete(pluginZip.path());
+        assertFalse(Files.exists(pluginZip.path()));
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int count;
+        while ((count = input.read(buffer)) != -1) {
+            output.write(buffer, 0, count);
+        }
+
+        return output.toByteArray();
+    }
+
+}
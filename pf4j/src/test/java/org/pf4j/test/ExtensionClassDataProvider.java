@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.test;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.pf4j.Extension;
+
+/**
+ * Generates (with ASM) the class data of an extension of {@link TestExtensionPoint}, for any class name.
+ * The generated class is annotated with {@link Extension}, has a public no-arguments constructor
+ * and its {@link TestExtensionPoint#saySomething()} returns the class name.
+ * <p>
+ * It's useful to create plugins with many extensions, without source code or compilation.
+ */
+public class ExtensionClassDataProvider implements ClassDataProvider {
+
+    @Override
+    public byte[] getClassData(String className) {
+        String internalName = className.replace('.', '/');
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null,
+            "java/lang/Object", new String[] { Type.getInternalName(TestExtensionPoint.class) });
+        classWriter.visitAnnotation(Type.getDescriptor(Extension.class), true).visitEnd();
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "saySomething", "()Ljava/lang/String;", null, null);
+        method.visitCode();
+        method.visitLdcInsn(className);
+        method.visitInsn(Opcodes.ARETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        classWriter.visitEnd();
+
+        return classWriter.toByteArray();
+    }
+
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.test;
+
+import org.pf4j.ManifestPluginDescriptorFinder;
+import org.pf4j.processor.LegacyExtensionStorage;
+import org.pf4j.util.FileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * A synthetic corpus of plugins, for benchmarks and stress tests.
+ * The plugins are created in a directory from the parameters supplied in {@link Builder}:
+ * <ul>
+ * <li>the number of plugins ({@code plugin-0}, {@code plugin-1}, ...)</li>
+ * <li>the depth of the dependency graph: the plugins are split in layers and a plugin depends only on
+ * plugins of the previous layer, so the longest dependency chain has {@code depth} plugins</li>
+ * <li>the fan-out: the number of (required) dependencies of a plugin</li>
+ * <li>the number of optional dependencies of a plugin (on plugins of any lower layer)</li>
+ * <li>the number of extensions (of {@link TestExtensionPoint}) of a plugin</li>
+ * <li>the size of an extra (not compressible) resource of a plugin, to obtain realistic archive sizes</li>
+ * <li>the format: jar ({@link PluginJar}), zip ({@link PluginZip}) or directory (expanded zip)</li>
+ * </ul>
+ * The dependencies and the content are chosen with a seeded {@link Random}, so the same builder
+ * always creates the same corpus.
+ */
+public class PluginCorpus {
+
+    public static final String PLUGIN_VERSION = "1.0.0";
+
+    private final Path path;
+    private final Format format;
+    private final Map<String, Path> pluginPaths;
+    private final Map<String, List<String>> dependencies;
+    private final Map<String, List<String>> optionalDependencies;
+    private final Map<String, List<String>> extensions;
+
+    protected PluginCorpus(Builder builder, Map<String, Path> pluginPaths, Map<String, List<String>> dependencies,
+                           Map<String, List<String>> optionalDependencies, Map<String, List<String>> extensions) {
+        this.path = builder.path;
+        this.format = builder.format;
+        this.pluginPaths = Collections.unmodifiableMap(pluginPaths);
+        this.dependencies = Collections.unmodifiableMap(dependencies);
+        this.optionalDependencies = Collections.unmodifiableMap(optionalDependencies);
+        this.extensions = Collections.unmodifiableMap(extensions);
+    }
+
+    /**
+     * Returns the directory of the plugins.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Returns the format of the plugins.
+     */
+    public Format format() {
+        return format;
+    }
+
+    /**
+     * Returns the ids of the plugins, in creation order (a plugin is created after its dependencies).
+     */
+    public List<String> pluginIds() {
+        return new ArrayList<>(pluginPaths.keySet());
+    }
+
+    /**
+     * Returns the path (jar, zip or directory) of a plugin.
+     */
+    public Path pluginPath(String pluginId) {
+        return pluginPaths.get(pluginId);
+    }
+
+    /**
+     * Returns the required dependencies of a plugin.
+     */
+    public List<String> dependencies(String pluginId) {
+        return dependencies.get(pluginId);
+    }
+
+    /**
+     * Returns the optional dependencies of a plugin.
+     */
+    public List<String> optionalDependencies(String pluginId) {
+        return optionalDependencies.get(pluginId);
+    }
+
+    /**
+     * Returns the extension class names of a plugin.
+     */
+    public List<String> extensions(String pluginId) {
+        return extensions.get(pluginId);
+    }
+
+    /**
+     * Returns the total number of extensions of the corpus.
+     */
+    public int extensionCount() {
+        return extensions.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * The format of the plugins.
+     */
+    public enum Format {
+
+        /** A jar file with a {@code MANIFEST.MF} descriptor (see {@link PluginJar}). */
+        JAR,
+        /** A zip file with a {@code plugin.properties} descriptor, {@code classes} and {@code lib} (see {@link PluginZip}). */
+        ZIP,
+        /** An expanded plugin zip. */
+        DIRECTORY
+
+    }
+
+    /**
+     * Builder for {@link PluginCorpus}.
+     */
+    public static class Builder {
+
+        private final Path path;
+
+        private int pluginCount = 10;
+        private int depth = 1;
+        private int fanOut = 1;
+        private int optionalDependencyCount;
+        private int extensionCount = 1;
+        private int resourceSize;
+        private Format format = Format.JAR;
+        private long seed;
+
+        /**
+         * @param path the directory where the plugins are created
+         */
+        public Builder(Path path) {
+            this.path = path;
+        }
+
+        public Builder pluginCount(int pluginCount) {
+            this.pluginCount = requirePositive(pluginCount, "pluginCount");
+
+            return this;
+        }
+
+        /**
+         * The number of layers of the dependency graph (1 means no dependencies).
+         */
+        public Builder depth(int depth) {
+            this.depth = requirePositive(depth, "depth");
+
+            return this;
+        }
+
+        /**
+         * The number of required dependencies of a plugin (limited by the size of the previous layer).
+         */
+        public Builder fanOut(int fanOut) {
+            this.fanOut = requireNotNegative(fanOut, "fanOut");
+
+            return this;
+        }
+
+        /**
+         * The number of optional dependencies of a plugin (limited by the size of the lower layers).
+         */
+        public Builder optionalDependencyCount(int optionalDependencyCount) {
+            this.optionalDependencyCount = requireNotNegative(optionalDependencyCount, "optionalDependencyCount");
+
+            return this;
+        }
+
+        /**
+         * The number of extensions of a plugin.
+         */
+        public Builder extensionCount(int extensionCount) {
+            this.extensionCount = requireNotNegative(extensionCount, "extensionCount");
+
+            return this;
+        }
+
+        /**
+         * The size (in bytes) of an extra resource with random (not compressible) content, added to each plugin.
+         * In a zip or directory plugin, the resource is in a library jar ({@code lib/<pluginId>-lib.jar}).
+         */
+        public Builder resourceSize(int resourceSize) {
+            this.resourceSize = requireNotNegative(resourceSize, "resourceSize");
+
+            return this;
+        }
+
+        public Builder format(Format format) {
+            this.format = format;
+
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+
+            return this;
+        }
+
+        /**
+         * Builds the {@link PluginCorpus} instance.
+         */
+        public PluginCorpus build() throws IOException {
+            Files.createDirectories(path);
+
+            Random random = new Random(seed);
+            List<List<String>> layers = createLayers();
+            Map<String, Path> pluginPaths = new LinkedHashMap<>();
+            Map<String, List<String>> dependencies = new LinkedHashMap<>();
+            Map<String, List<String>> optionalDependencies = new LinkedHashMap<>();
+            Map<String, List<String>> extensions = new LinkedHashMap<>();
+            List<String> lowerLayers = new ArrayList<>();
+            for (int layer = 0; layer < layers.size(); layer++) {
+                List<String> previousLayer = (layer > 0) ? layers.get(layer - 1) : Collections.emptyList();
+                for (String pluginId : layers.get(layer)) {
+                    List<String> pluginDependencies = pick(previousLayer, fanOut, Collections.emptyList(), random);
+                    List<String> pluginOptionalDependencies = pick(lowerLayers, optionalDependencyCount, pluginDependencies, random);
+                    List<String> pluginExtensions = new ArrayList<>(extensionCount);
+                    for (int i = 0; i < extensionCount; i++) {
+                        pluginExtensions.add(extensionClassName(pluginId, i));
+                    }
+
+                    dependencies.put(pluginId, pluginDependencies);
+                    optionalDependencies.put(pluginId, pluginOptionalDependencies);
+                    extensions.put(pluginId, pluginExtensions);
+                    pluginPaths.put(pluginId, createPlugin(pluginId, pluginDependencies, pluginOptionalDependencies, pluginExtensions, random));
+                }
+                lowerLayers.addAll(layers.get(layer));
+            }
+
+            return new PluginCorpus(this, pluginPaths, dependencies, optionalDependencies, extensions);
+        }
+
+        private List<List<String>> createLayers() {
+            int layerCount = Math.min(depth, pluginCount);
+            List<List<String>> layers = new ArrayList<>(layerCount);
+            for (int layer = 0; layer < layerCount; layer++) {
+                layers.add(new ArrayList<>());
+            }
+            for (int i = 0; i < pluginCount; i++) {
+                layers.get(i * layerCount / pluginCount).add("plugin-" + i);
+            }
+
+            return layers;
+        }
+
+        private Path createPlugin(String pluginId, List<String> pluginDependencies, List<String> pluginOptionalDependencies,
+                                  List<String> pluginExtensions, Random random) throws IOException {
+            List<String> allDependencies = new ArrayList<>(pluginDependencies);
+            for (String dependency : pluginOptionalDependencies) {
+                allDependencies.add(dependency + "?");
+            }
+            String dependencies = allDependencies.isEmpty() ? null : String.join(", ", allDependencies);
+            byte[] resource = new byte[resourceSize];
+            random.nextBytes(resource);
+
+            if (format == Format.JAR) {
+                PluginJar.Builder builder = new PluginJar.Builder(path.resolve(pluginId + ".jar"), pluginId)
+                    .pluginClass(TestPlugin.class.getName())
+                    .pluginVersion(PLUGIN_VERSION)
+                    .classDataProvider(new ExtensionClassDataProvider());
+                if (dependencies != null) {
+                    builder.manifestAttribute(ManifestPluginDescriptorFinder.PLUGIN_DEPENDENCIES, dependencies);
+                }
+                pluginExtensions.forEach(builder::extension);
+                if (resourceSize > 0) {
+                    builder.addFile(Paths.get(pluginId + ".bin"), resource);
+                }
+
+                return builder.build().path();
+            }
+
+            PluginZip.Builder builder = new PluginZip.Builder(path.resolve(pluginId + ".zip"), pluginId)
+                .pluginClass(TestPlugin.class.getName())
+                .pluginVersion(PLUGIN_VERSION)
+                .pluginDependencies(dependencies);
+            if (!pluginExtensions.isEmpty()) {
+                ClassDataProvider classDataProvider = new ExtensionClassDataProvider();
+                builder.addFile(Paths.get("classes", LegacyExtensionStorage.EXTENSIONS_RESOURCE),
+                    String.join("\n", pluginExtensions).concat("\n"));
+                for (String extension : pluginExtensions) {
+                    builder.addFile(Paths.get("classes", extension.replace('.', '/') + ".class"), classDataProvider.getClassData(extension));
+                }
+            }
+            if (resourceSize > 0) {
+                builder.addFile(Paths.get("lib", pluginId + "-lib.jar"), createJar(pluginId + ".bin", resource));
+            }
+            PluginZip pluginZip = builder.build();
+            if (format == Format.ZIP) {
+                return pluginZip.path();
+            }
+
+            Path pluginDirectory = pluginZip.unzip();
+            FileUtils.optimisticDelete(pluginZip.path());
+
+            return pluginDirectory;
+        }
+
+        private static byte[] createJar(String entryName, byte[] content) throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length + 256);
+            try (JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+                jarOutputStream.putNextEntry(new JarEntry(entryName));
+                jarOutputStream.write(content);
+                jarOutputStream.closeEntry();
+            }
+
+            return outputStream.toByteArray();
+        }
+
+        /**
+         * Picks randomly {@code count} candidates (the excluded values are a subset of the candidates).
+         */
+        private static List<String> pick(List<String> candidates, int count, List<String> excluded, Random random) {
+            int available = candidates.size() - excluded.size();
+            if (count >= available) {
+                List<String> picked = new ArrayList<>(candidates);
+                picked.removeAll(excluded);
+
+                return picked;
+            }
+
+            // sampling, it's fast for large corpora (the count is small)
+            Set<String> picked = new LinkedHashSet<>();
+            while (picked.size() < count) {
+                String candidate = candidates.get(random.nextInt(candidates.size()));
+                if (!excluded.contains(candidate)) {
+                    picked.add(candidate);
+                }
+            }
+
+            return new ArrayList<>(picked);
+        }
+
+        private static String extensionClassName(String pluginId, int index) {
+            return "corpus." + pluginId.replace('-', '_') + ".Extension" + index;
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+
+            return value;
+        }
+
+        private static int requireNotNegative(int value, String name) {
+            if (value < 0) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+
+            return value;
+        }
+
+    }
+
+}
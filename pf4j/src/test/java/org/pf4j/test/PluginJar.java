@@ -94,6 +94,7 @@ public class PluginJar {
         private final String pluginId;
         private final Map<String, String> manifestAttributes = new LinkedHashMap<>();
         private final Set<String> extensions = new LinkedHashSet<>();
+        private final Map<Path, byte[]> files = new LinkedHashMap<>();
 
         private String pluginClass;
         private String pluginVersion;
@@ -148,6 +149,18 @@ public class PluginJar {
              return this;
         }
 
+        /**
+         * Adds a file to the archive.
+         *
+         * @param path the relative path of the file
+         * @param content the content of the file
+         */
+        public Builder addFile(Path path, byte[] content) {
+            files.put(path, content.clone());
+
+            return this;
+        }
+
         /**
          * Builds the {@link PluginJar} instance.
          */
@@ -169,6 +182,13 @@ public class PluginJar {
                         jarOutputStream.closeEntry();
                     }
                 }
+
+                for (Map.Entry<Path, byte[]> fileEntry : files.entrySet()) {
+                    JarEntry file = new JarEntry(fileEntry.getKey().toString().replace('\\', '/'));
+                    jarOutputStream.putNextEntry(file);
+                    jarOutputStream.write(fileEntry.getValue());
+                    jarOutputStream.closeEntry();
+                }
             }
 
             return new PluginJar(this);
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryListingCacheTest {
+
+    @TempDir
+    Path pluginsRoot;
+
+    private FileTime lastModified;
+
+    @BeforeEach
+    void setUp() {
+        // a directory modified a while ago, so its listing can be cached
+        lastModified = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    void cachedUntilModified() throws IOException {
+        Files.createFile(pluginsRoot.resolve("plugin1.jar"));
+        Files.setLastModifiedTime(pluginsRoot, lastModified);
+
+        DirectoryListingCache cache = new DirectoryListingCache();
+        List<File> entries = cache.list(pluginsRoot);
+        assertEquals(1, entries.size());
+
+        // not visible while the last modified time of the directory doesn't change
+        Files.createFile(pluginsRoot.resolve("plugin2.jar"));
+        Files.setLastModifiedTime(pluginsRoot, lastModified);
+        assertSame(entries, cache.list(pluginsRoot));
+
+        Files.setLastModifiedTime(pluginsRoot, FileTime.fromMillis(lastModified.toMillis() + 1000));
+        assertEquals(2, cache.list(pluginsRoot).size());
+
+        cache.invalidate(pluginsRoot);
+        assertEquals(2, cache.list(pluginsRoot).size());
+    }
+
+    @Test
+    void recentlyModifiedDirectory() throws IOException {
+        DirectoryListingCache cache = new DirectoryListingCache();
+        assertTrue(cache.list(pluginsRoot).isEmpty());
+
+        // the directory may be modified again with the same last modified time
+        FileTime modified = Files.getLastModifiedTime(pluginsRoot);
+        Files.createFile(pluginsRoot.resolve("plugin.jar"));
+        Files.setLastModifiedTime(pluginsRoot, modified);
+        assertEquals(1, cache.list(pluginsRoot).size());
+    }
+
+    @Test
+    void attributesReadOnce() throws IOException {
+        Path plugin = Files.createFile(pluginsRoot.resolve("plugin.jar"));
+        Files.write(plugin, new byte[10]);
+        Files.createDirectory(pluginsRoot.resolve("plugin"));
+        Files.createFile(pluginsRoot.resolve(".hidden"));
+        Files.setLastModifiedTime(plugin, lastModified);
+        Files.setLastModifiedTime(pluginsRoot, lastModified);
+
+        DirectoryListingCache cache = new DirectoryListingCache();
+        List<File> entries = cache.list(pluginsRoot);
+        assertEquals(3, entries.size());
+
+        File jar = find(entries, "plugin.jar");
+        Files.delete(plugin);
+        assertTrue(jar.exists());
+        assertTrue(jar.isFile());
+        assertFalse(jar.isDirectory());
+        assertEquals(10, jar.length());
+        assertEquals(lastModified.toMillis(), jar.lastModified());
+        assertEquals(plugin, jar.toPath());
+
+        assertTrue(find(entries, "plugin").isDirectory());
+        if (!System.getProperty("os.name").startsWith("Windows")) {
+            assertTrue(find(entries, ".hidden").isHidden());
+        }
+    }
+
+    @Test
+    void notExistingDirectory() {
+        DirectoryListingCache cache = new DirectoryListingCache();
+
+        assertTrue(cache.list(pluginsRoot.resolve("missing")).isEmpty());
+    }
+
+    private static File find(List<File> entries, String name) {
+        return entries.stream()
+            .filter(file -> file.getName().equals(name))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    }
+
+}
@@ -23,9 +23,11 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileUtilsTest {
@@ -56,6 +58,22 @@ public class FileUtilsTest {
         assertTrue(Files.exists(unzipped.resolve("classes/META-INF/plugin-file")));
     }
 
+    @Test
+    public void expandIfZipForTouchedZip() throws Exception {
+        PluginZip pluginZip = new PluginZip.Builder(pluginsPath.resolve("my-third-plugin-1.2.3.zip"), "myPlugin")
+                .pluginVersion("1.2.3")
+                .build();
+
+        Path unzipped = FileUtils.expandIfZip(pluginZip.path());
+        Path extraFile = Files.createFile(unzipped.resolve("extra-file"));
+
+        // the zip is newer, but with the same content
+        Files.setLastModifiedTime(pluginZip.path(), FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(unzipped, FileUtils.expandIfZip(pluginZip.path()));
+        assertTrue(Files.exists(extraFile));
+        assertTrue(Files.exists(unzipped.resolve("plugin.properties")));
+    }
+
     @Test
     public void expandIfZipNonZipFiles() throws Exception {
         // File without .suffix
@@ -83,6 +101,21 @@ public class FileUtilsTest {
         file.deleteOnExit();
     }
 
+    @Test
+    public void hash() throws IOException {
+        Path file = pluginsPath.resolve("file.txt");
+        Files.write(file, "abc".getBytes());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", FileUtils.hash(file));
+
+        Path directory = Files.createDirectories(pluginsPath.resolve("folder"));
+        Files.write(directory.resolve("a.txt"), "a".getBytes());
+        String hash = FileUtils.hash(directory);
+        assertEquals(hash, FileUtils.hash(directory));
+
+        Files.write(directory.resolve("b.txt"), "b".getBytes());
+        assertNotEquals(hash, FileUtils.hash(directory));
+    }
+
     public File createSampleFile(String fileName) throws IOException {
         File file = File.createTempFile(fileName, ".txt");
         file.deleteOnExit();
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Decebal Suiu
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedDirectedGraphTest {
+
+    private IndexedDirectedGraph<Character> graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new IndexedDirectedGraph<>();
+
+        // add vertex
+        graph.addVertex('A');
+        graph.addVertex('B');
+        graph.addVertex('C');
+        graph.addVertex('D');
+        graph.addVertex('E');
+        graph.addVertex('F');
+        graph.addVertex('G');
+
+        // add edges
+        graph.addEdge('A', 'B');
+        graph.addEdge('B', 'C');
+        graph.addEdge('B', 'F');
+        graph.addEdge('D', 'E');
+        graph.addEdge('F', 'G');
+    }
+
+    @Test
+    void reverseTopologicalSort() {
+        List<Character> result = graph.reverseTopologicalSort();
+        List<Character> expected = Arrays.asList('C', 'G', 'F', 'B', 'A', 'E', 'D');
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void topologicalSort() {
+        List<Character> result = graph.topologicalSort();
+        List<Character> expected = Arrays.asList('D', 'E', 'A', 'B', 'F', 'G', 'C');
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void topologicalSortWithCycle() {
+        graph.addEdge('G', 'A');
+        assertNull(graph.topologicalSort());
+        assertFalse(graph.isDag());
+    }
+
+    @Test
+    void reverseTopologicalSortOfVertex() {
+        // 'G' and the vertices from which 'G' can be reached
+        List<Character> result = graph.reverseTopologicalSort('G');
+        List<Character> expected = Arrays.asList('G', 'F', 'B', 'A');
+        assertEquals(expected, result);
+
+        graph.addEdge('G', 'B');
+        assertNull(graph.reverseTopologicalSort('G'));
+        assertEquals(Arrays.asList('E', 'D'), graph.reverseTopologicalSort('E'));
+    }
+
+    @Test
+    void degree() {
+        assertEquals(2, graph.outDegree('B'));
+        assertEquals(1, graph.inDegree('B'));
+        assertEquals(0, graph.inDegree('A'));
+        assertEquals(0, graph.inDegree('Z'));
+    }
+
+    @Test
+    void getNeighbors() {
+        List<Character> result = graph.getNeighbors('B');
+        List<Character> expected = Arrays.asList('C', 'F');
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void getReverseNeighbors() {
+        graph.addEdge('D', 'C');
+        List<Character> result = graph.getReverseNeighbors('C');
+        List<Character> expected = Arrays.asList('B', 'D');
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void removeEdge() {
+        graph.removeEdge('B', 'F');
+        assertEquals(Collections.singletonList('C'), graph.getNeighbors('B'));
+        assertTrue(graph.getReverseNeighbors('F').isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> graph.removeEdge('B', 'Z'));
+    }
+
+    @Test
+    void removeVertex() {
+        graph.removeVertex('B');
+        assertFalse(graph.containsVertex('B'));
+        assertEquals(6, graph.size());
+        assertTrue(graph.getNeighbors('A').isEmpty());
+        assertTrue(graph.getReverseNeighbors('C').isEmpty());
+        assertTrue(graph.getReverseNeighbors('F').isEmpty());
+    }
+
+    @Test
+    void removeVertexReusesIndex() {
+        graph.removeVertex('C');
+        graph.addEdge('H', 'G');
+        assertEquals(7, graph.size());
+        assertEquals(Arrays.asList('F', 'H'), graph.getReverseNeighbors('G'));
+        assertEquals(7, graph.topologicalSort().size());
+    }
+
+    @Test
+    void addEdge() {
+        graph.addEdge('B', 'G');
+        List<Character> result = graph.getNeighbors('B');
+        List<Character> expected = Arrays.asList('C', 'F', 'G');
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void addVertex() {
+        graph.addVertex('H');
+        assertTrue(graph.containsVertex('H'));
+    }
+
+    @Test
+    void addManyVertices() {
+        for (int i = 0; i < 1000; i++) {
+            graph.addEdge((char) ('a' + i), 'A');
+        }
+        assertEquals(1000, graph.inDegree('A'));
+        assertEquals(1007, graph.topologicalSort().size());
+    }
+
+    @Test
+    void containsVertex() {
+        assertTrue(graph.containsVertex('A'));
+    }
+
+}
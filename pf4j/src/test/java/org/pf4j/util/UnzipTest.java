@@ -22,10 +22,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -108,10 +114,151 @@ public class UnzipTest {
         assertTrue(Files.exists(extractedFile));
     }
 
+    @Test
+    public void extractInParallel() throws IOException {
+        assertExtractManyEntries(4, 0);
+    }
+
+    @Test
+    public void extractInCallingThread() throws IOException {
+        assertExtractManyEntries(1, 0);
+    }
+
+    @Test
+    public void extractSmallZipInCallingThread() throws IOException {
+        // below the default parallel threshold
+        assertExtractManyEntries(4, 4 * 1024 * 1024);
+    }
+
+    @Test
+    public void extractReplacesDestination() throws IOException {
+        Path destination = Files.createTempDirectory("replace");
+        Path oldFile = Files.createFile(destination.resolve("old.txt"));
+
+        Unzip unzip = new Unzip(createZipWithEntry("new.txt"), destination.toFile());
+        unzip.extract();
+
+        assertFalse(Files.exists(oldFile));
+        assertTrue(Files.exists(destination.resolve("new.txt")));
+    }
+
+    @Test
+    public void updateUnchangedZip() throws IOException {
+        Path destination = Files.createTempDirectory("update").resolve("plugin");
+        Unzip unzip = new Unzip(createZipWithEntry("file.txt"), destination.toFile());
+        unzip.extract();
+        assertTrue(Files.exists(destination.resolve(Unzip.MANIFEST_FILE_NAME)));
+
+        Path extraFile = Files.createFile(destination.resolve("extra.txt"));
+
+        // a zip with the same content
+        unzip.setSource(createZipWithEntry("file.txt"));
+        assertFalse(unzip.update());
+        assertTrue(Files.exists(extraFile));
+    }
+
+    @Test
+    public void updateChangedZip() throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        entries.put("unchanged.txt", "unchanged");
+        entries.put("changed.txt", "old content");
+        entries.put("lib/removed.txt", "removed");
+        entries.put("old/classes/removed.txt", "removed");
+
+        Path destination = Files.createTempDirectory("update").resolve("plugin");
+        Unzip unzip = new Unzip(createZipWithEntries(entries), destination.toFile());
+        unzip.extract();
+
+        FileTime time = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(destination.resolve("unchanged.txt"), time);
+
+        entries.put("changed.txt", "new content");
+        entries.remove("lib/removed.txt");
+        entries.remove("old/classes/removed.txt");
+        entries.put("lib/added.txt", "added");
+        unzip.setSource(createZipWithEntries(entries));
+        assertTrue(unzip.update());
+
+        assertEquals(time, Files.getLastModifiedTime(destination.resolve("unchanged.txt")));
+        assertEquals("new content", new String(Files.readAllBytes(destination.resolve("changed.txt"))));
+        assertEquals("added", new String(Files.readAllBytes(destination.resolve("lib/added.txt"))));
+        assertFalse(Files.exists(destination.resolve("lib/removed.txt")));
+        // the emptied directories are deleted
+        assertFalse(Files.exists(destination.resolve("old")));
+
+        // a deleted file is extracted again
+        Files.delete(destination.resolve("unchanged.txt"));
+        entries.put("changed.txt", "newer content");
+        unzip.setSource(createZipWithEntries(entries));
+        assertTrue(unzip.update());
+        assertTrue(Files.exists(destination.resolve("unchanged.txt")));
+    }
+
+    @Test
+    public void extractManifestEntry() throws IOException {
+        Path destination = Files.createTempDirectory("manifest");
+        Unzip unzip = new Unzip(createZipWithEntry(Unzip.MANIFEST_FILE_NAME), destination.toFile());
+
+        Exception exception = assertThrows(ZipException.class, unzip::extract);
+        assertTrue(exception.getMessage().contains("reserved for the expansion manifest"));
+    }
+
+    @Test
+    public void updateWithoutManifest() throws IOException {
+        Path destination = Files.createTempDirectory("update");
+        Path oldFile = Files.createFile(destination.resolve("old.txt"));
+
+        Unzip unzip = new Unzip(createZipWithEntry("new.txt"), destination.toFile());
+        assertTrue(unzip.update());
+
+        assertFalse(Files.exists(oldFile));
+        assertTrue(Files.exists(destination.resolve("new.txt")));
+    }
+
+    private void assertExtractManyEntries(int parallelism, long parallelThreshold) throws IOException {
+        File zipFile = File.createTempFile("test", ".zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            zipOutputStream.putNextEntry(new ZipEntry("dir/"));
+            zipOutputStream.closeEntry();
+            for (int i = 0; i < 50; i++) {
+                zipOutputStream.putNextEntry(new ZipEntry("dir" + (i % 5) + "/file" + i + ".txt"));
+                for (int j = 0; j <= i; j++) {
+                    zipOutputStream.write(("Content " + i + "\n").getBytes());
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        Path destination = Files.createTempDirectory("many").resolve("plugin");
+        Unzip unzip = new Unzip(zipFile, destination.toFile());
+        unzip.setParallelism(parallelism);
+        unzip.setParallelThreshold(parallelThreshold);
+        unzip.extract();
+
+        assertTrue(Files.isDirectory(destination.resolve("dir")));
+        for (int i = 0; i < 50; i++) {
+            List<String> lines = Files.readAllLines(destination.resolve("dir" + (i % 5) + "/file" + i + ".txt"));
+            assertEquals(i + 1, lines.size());
+            assertEquals("Content " + i, lines.get(i));
+        }
+    }
+
     private File createMaliciousZipFile() throws IOException {
         return createZipWithEntry("../malicious.sh");
     }
 
+    private File createZipWithEntries(Map<String, String> entries) throws IOException {
+        File zipFile = File.createTempFile("test", ".zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOutputStream.write(entry.getValue().getBytes());
+                zipOutputStream.closeEntry();
+            }
+        }
+        return zipFile;
+    }
+
     private File createZipWithEntry(String entryName) throws IOException {
         File zipFile = File.createTempFile("test", ".zip");
         try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
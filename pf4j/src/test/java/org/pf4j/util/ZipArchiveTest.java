@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2012-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pf4j.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readEntries() throws IOException {
+        Path zip = tempDir.resolve("test.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            putEntry(output, "dir/", null, ZipEntry.DEFLATED);
+            putEntry(output, "dir/deflated.txt", "deflated".getBytes(), ZipEntry.DEFLATED);
+            putEntry(output, "stored.txt", "stored".getBytes(), ZipEntry.STORED);
+        }
+
+        ZipArchive archive = ZipArchive.open(zip);
+        assertEquals(3, archive.getEntries().size());
+        assertTrue(archive.getEntry("dir/").isDirectory());
+        assertArrayEquals("deflated".getBytes(), archive.getBytes(archive.getEntry("dir/deflated.txt")));
+        assertArrayEquals("stored".getBytes(), archive.getBytes(archive.getEntry("stored.txt")));
+        assertNull(archive.getEntry("missing.txt"));
+    }
+
+    @Test
+    void openNested() throws IOException {
+        byte[] jar = createZip("nested.txt", "nested".getBytes());
+
+        Path zip = tempDir.resolve("test.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            putEntry(output, "lib/stored.jar", jar, ZipEntry.STORED);
+            putEntry(output, "lib/deflated.jar", jar, ZipEntry.DEFLATED);
+        }
+
+        ZipArchive archive = ZipArchive.open(zip);
+        for (String name : new String[] { "lib/stored.jar", "lib/deflated.jar" }) {
+            ZipArchive nested = archive.openNested(archive.getEntry(name));
+            assertEquals(zip + "!/" + name, nested.getName());
+            assertArrayEquals("nested".getBytes(), nested.getBytes(nested.getEntry("nested.txt")));
+        }
+    }
+
+    @Test
+    void openInvalidZip() throws IOException {
+        Path file = tempDir.resolve("test.zip");
+        Files.write(file, "not a zip".getBytes());
+
+        assertThrows(ZipException.class, () -> ZipArchive.open(file));
+    }
+
+    @Test
+    void openCorruptZip() throws IOException {
+        byte[] zip = createZip("entry.txt", "entry".getBytes());
+        int centralHeaderOffset = indexOf(zip, new byte[] { 0x50, 0x4b, 0x01, 0x02 });
+
+        // a name length beyond the central directory
+        byte[] corruptName = zip.clone();
+        corruptName[centralHeaderOffset + 28] = (byte) 0xFF;
+        corruptName[centralHeaderOffset + 29] = (byte) 0xFF;
+        assertThrows(ZipException.class, () -> new ZipArchive("corrupt.zip", ByteBuffer.wrap(corruptName)));
+
+        // a bogus (huge) size of a deflated entry
+        byte[] corruptSize = zip.clone();
+        corruptSize[centralHeaderOffset + 27] = (byte) 0x7F;
+        ZipArchive archive = new ZipArchive("corrupt.zip", ByteBuffer.wrap(corruptSize));
+        assertThrows(ZipException.class, () -> archive.getBytes(archive.getEntry("entry.txt")));
+
+        // a local header offset beyond the file
+        byte[] corruptOffset = zip.clone();
+        corruptOffset[centralHeaderOffset + 45] = (byte) 0x7F;
+        ZipArchive offsetArchive = new ZipArchive("corrupt.zip", ByteBuffer.wrap(corruptOffset));
+        assertThrows(ZipException.class, () -> offsetArchive.getBytes(offsetArchive.getEntry("entry.txt")));
+    }
+
+    @Test
+    void readCorruptData() throws IOException {
+        byte[] zip = createZip("entry.txt", "entry".getBytes());
+        int centralHeaderOffset = indexOf(zip, new byte[] { 0x50, 0x4b, 0x01, 0x02 });
+
+        // the CRC of the central directory doesn't match the data
+        zip[centralHeaderOffset + 16] ^= 0x01;
+        ZipArchive archive = new ZipArchive("corrupt.zip", ByteBuffer.wrap(zip));
+        Exception exception = assertThrows(ZipException.class, () -> archive.getBytes(archive.getEntry("entry.txt")));
+        assertTrue(exception.getMessage().contains("Invalid CRC"));
+    }
+
+    @Test
+    void openCorruptNested() throws IOException {
+        byte[] jar = createZip("nested.txt", "nested".getBytes());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream output = new ZipOutputStream(bytes)) {
+            putEntry(output, "lib/stored.jar", jar, ZipEntry.STORED);
+        }
+
+        // a corrupt nested jar can still be a valid zip, the CRC reveals the corruption
+        byte[] zip = bytes.toByteArray();
+        zip[indexOf(zip, jar) + 40] ^= 0x01;
+        ZipArchive archive = new ZipArchive("corrupt.zip", ByteBuffer.wrap(zip));
+        assertThrows(ZipException.class, () -> archive.openNested(archive.getEntry("lib/stored.jar")));
+    }
+
+    @Test
+    void readEntryNames() throws IOException {
+        Path zip = tempDir.resolve("test.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip), Charset.forName("IBM437"))) {
+            putEntry(output, "caf\u00e9.txt", "cp437".getBytes(), ZipEntry.DEFLATED);
+        }
+        assertNotNull(ZipArchive.open(zip).getEntry("caf\u00e9.txt"));
+
+        // the language encoding flag is set for the UTF-8 names
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            putEntry(output, "caf\u00e9.txt", "utf8".getBytes(), ZipEntry.DEFLATED);
+        }
+        assertNotNull(ZipArchive.open(zip).getEntry("caf\u00e9.txt"));
+    }
+
+    @Test
+    void openZip64() throws IOException {
+        byte[] zip = createZip("entry.txt", "entry".getBytes());
+        int endHeaderOffset = indexOf(zip, new byte[] { 0x50, 0x4b, 0x05, 0x06 });
+
+        // a ZIP64 end of central directory locator before the end of central directory record
+        ByteBuffer zip64 = ByteBuffer.allocate(zip.length + 20).order(ByteOrder.LITTLE_ENDIAN);
+        zip64.put(zip, 0, endHeaderOffset).putInt(0x07064b50).put(new byte[16]).put(zip, endHeaderOffset, zip.length - endHeaderOffset);
+        zip64.flip();
+
+        Exception exception = assertThrows(ZipException.class, () -> new ZipArchive("zip64.zip", zip64));
+        assertTrue(exception.getMessage().contains("ZIP64"));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            int j = 0;
+            while ((j < pattern.length) && (bytes[i + j] == pattern[j])) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+
+        throw new AssertionError("Pattern not found");
+    }
+
+    private static byte[] createZip(String name, byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream output = new ZipOutputStream(bytes)) {
+            putEntry(output, name, content, ZipEntry.DEFLATED);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void putEntry(ZipOutputStream output, String name, byte[] content, int method) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setCrc(crc.getValue());
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+        }
+        output.putNextEntry(entry);
+        if (content != null) {
+            output.write(content);
+        }
+        output.closeEntry();
+    }
+
+}